@@ -1,4 +1,5 @@
 import AC from '../models/AC.js';
+import { queueTelemetryEvent } from './telemetryPusher.js';
 
 export async function getACStateBySerial(req, res) {
   try {
@@ -15,6 +16,30 @@ export async function getACStateBySerial(req, res) {
   }
 }
 
+const MAX_SERIALS_PER_REQUEST = 500;
+
+export async function getACStatesBySerials(req, res) {
+  const { serials } = req.body || {};
+
+  if (!Array.isArray(serials) || serials.some(serial => typeof serial !== 'string')) {
+    return res.status(400).json({ message: 'Invalid or missing serials. Expected an array of strings.', code: 400 });
+  }
+
+  if (serials.length > MAX_SERIALS_PER_REQUEST) {
+    return res.status(400).json({ message: `Too many serials. At most ${MAX_SERIALS_PER_REQUEST} per request.`, code: 400 });
+  }
+
+  try {
+    const acStates = await AC.find({ serial: { $in: serials } });
+    const found = new Set(acStates.map(ac => ac.serial));
+    const missing = serials.filter(serial => !found.has(serial));
+
+    return res.json({ message: 'Success', acStates, missing, code: 200 });
+  } catch (err) {
+    return res.status(500).json({ message: 'Server error', code: 500 });
+  }
+}
+
 export async function setACStateBySerial(req, res) {
   const { serial } = req.params;
   const { power, temperature, mode, fanSpeed } = req.body;
@@ -51,6 +76,7 @@ export async function setACStateBySerial(req, res) {
     if (fanSpeed !== undefined) ac.fanSpeed = fanSpeed;
 
     await ac.save();
+    queueTelemetryEvent(ac);
     return res.json({ message: 'AC state updated', acState: ac, code: 200 });
   } catch (err) {
     return res.status(500).json({ message: 'Server error', code: 500 });
@@ -66,6 +92,7 @@ export function startRandomMotionSimulation() {
 
     ac.motion = !ac.motion;
     await ac.save();
+    queueTelemetryEvent(ac);
     console.log(`Motion for AC serial ${ac.serial} changed to ${ac.motion}`);
   }, Math.floor(Math.random() * 20000) + 10000);
 }
@@ -0,0 +1,63 @@
+// Pushes AC state changes to the AirWise server in batches.
+// Disabled unless AIRWISE_INGEST_URL is set, e.g.
+// http://host.docker.internal:8084/ambient-intelligence/telemetry/events
+
+const INGEST_URL = process.env.AIRWISE_INGEST_URL;
+const INGEST_TOKEN = process.env.AIRWISE_INGEST_TOKEN;
+const FLUSH_INTERVAL_MS = Number(process.env.AIRWISE_INGEST_FLUSH_MS || 1000);
+const MAX_BATCH = 200;
+const MAX_PENDING = 5000;
+
+let pending = [];
+let flushing = false;
+
+export function queueTelemetryEvent(ac) {
+  if (!INGEST_URL) return;
+
+  if (pending.length >= MAX_PENDING) pending.shift();
+
+  pending.push({
+    serial: ac.serial,
+    motion: ac.motion,
+    power: ac.power,
+    temperature: ac.temperature,
+    mode: ac.mode,
+    fanSpeed: ac.fanSpeed,
+    timestamp: new Date().toISOString()
+  });
+
+  if (pending.length >= MAX_BATCH) flushTelemetry();
+}
+
+export async function flushTelemetry() {
+  if (flushing || pending.length === 0) return;
+  flushing = true;
+
+  const batch = pending.splice(0, MAX_BATCH);
+  try {
+    const headers = { 'Content-Type': 'application/json' };
+    if (INGEST_TOKEN) headers['X-Ingest-Token'] = INGEST_TOKEN;
+
+    const res = await fetch(INGEST_URL, {
+      method: 'POST',
+      headers,
+      body: JSON.stringify({ events: batch })
+    });
+
+    if (!res.ok) {
+      console.error(`Telemetry push failed with status ${res.status}`);
+    }
+  } catch (err) {
+    // server unreachable: keep the events for the next flush
+    pending = batch.concat(pending).slice(-MAX_PENDING);
+    console.error(`Telemetry push failed: ${err.message}`);
+  } finally {
+    flushing = false;
+  }
+}
+
+export function startTelemetryPusher() {
+  if (!INGEST_URL) return;
+  setInterval(flushTelemetry, FLUSH_INTERVAL_MS);
+  console.log(`Pushing AC telemetry to ${INGEST_URL}`);
+}
@@ -1,12 +1,14 @@
 import app from './app.js';
 import connectToMongo from './db.js';
 import { startRandomMotionSimulation } from './controllers/acController.js';
+import { startTelemetryPusher } from './controllers/telemetryPusher.js';
 
 const PORT = process.env.PORT || 3001;
 
 async function startServer() {
   await connectToMongo();
   startRandomMotionSimulation();
+  startTelemetryPusher();
 
   app.listen(PORT, () => {
     console.log(`Server is listening on port ${PORT}`);
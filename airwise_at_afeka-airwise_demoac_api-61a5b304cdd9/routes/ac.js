@@ -1,7 +1,8 @@
 import { Router } from 'express';
-import { getACStateBySerial, setACStateBySerial } from '../controllers/acController.js';
+import { getACStateBySerial, getACStatesBySerials, setACStateBySerial } from '../controllers/acController.js';
 
 const router = Router();
+router.post('/states',      getACStatesBySerials);
 router.get('/:serial',      getACStateBySerial);
 router.post('/:serial/set', setACStateBySerial);
 
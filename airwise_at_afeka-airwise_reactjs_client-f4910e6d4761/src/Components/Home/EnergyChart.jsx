@@ -62,12 +62,46 @@ export default function EnergyChart({ onRefresh }) {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [refreshing, setRefreshing] = useState(false);
+  const [logs, setLogs] = useState([]);
 
   // Fetch sites on component mount
   useEffect(() => {
     fetchSites();
   }, []);
 
+  // Fetch the last 7 days of consumption whenever the selected site changes
+  useEffect(() => {
+    if (selectedSite) {
+      fetchConsumption(selectedSite);
+    }
+  }, [selectedSite]);
+
+  const fetchConsumption = async (siteObjectId) => {
+    const site = sites.find((s) => s.id.objectId === siteObjectId);
+    const user = JSON.parse(localStorage.getItem('user'));
+    if (!site || !user) {
+      setLogs([]);
+      return;
+    }
+
+    const from = new Date();
+    from.setDate(from.getDate() - 6);
+
+    try {
+      const rows = await WebApi.getPowerConsumption({
+        systemID: site.id.systemID,
+        objectId: site.id.objectId,
+        userSystemID: user.userId.systemID,
+        userEmail: user.userId.email,
+        from: from.toISOString().slice(0, 10),
+      });
+      setLogs(rows || []);
+    } catch (err) {
+      console.error('Failed to fetch power consumption:', err);
+      setLogs([]);
+    }
+  };
+
   const fetchSites = async () => {
     try {
       setLoading(true);
@@ -104,11 +138,14 @@ export default function EnergyChart({ onRefresh }) {
   const handleRefresh = useCallback(async () => {
     setRefreshing(true);
     await fetchSites();
+    if (selectedSite) {
+      await fetchConsumption(selectedSite);
+    }
     if (onRefresh) {
       onRefresh();
     }
     setRefreshing(false);
-  }, [onRefresh]);
+  }, [onRefresh, selectedSite, sites]);
 
   const handleSiteChange = (event) => {
     setSelectedSite(event.target.value);
@@ -116,13 +153,9 @@ export default function EnergyChart({ onRefresh }) {
 
   // Process energy data for the selected site
   const chartData = useMemo(() => {
-    const site = sites.find((s) => s.id.objectId === selectedSite);
-    
-    if (!site || !site.objectDetails?.powerConsumptionLogs) {
+    if (!logs || logs.length === 0) {
       return [];
     }
-
-    const logs = site.objectDetails.powerConsumptionLogs;
     
     // Sort logs by date and take last 7 days
     const sortedLogs = [...logs]
@@ -137,7 +170,7 @@ export default function EnergyChart({ onRefresh }) {
       kwh: log.kwh || 0,
       date: log.date,
     }));
-  }, [sites, selectedSite]);
+  }, [logs]);
 
   // Calculate statistics
   const statistics = useMemo(() => {
@@ -18,6 +18,25 @@ export async function getSitesForTenant({ tenantSystemID, tenantId, userSystemID
   }
 }
 
+// daily consumption rows ({ date, kwh, runtime, cost }) newest first; from/to are optional yyyy-MM-dd
+export async function getPowerConsumption({ systemID, objectId, userSystemID, userEmail, from, to }) {
+  try {
+    const response = await api.get(
+      `/objects/${systemID}/${objectId}/powerConsumption`,
+      { params: { userSystemID, userEmail, from, to } }
+    );
+
+    return response.data;
+  } catch (error) {
+
+    if (error.response?.status === 404) {
+      return [];
+    }
+
+    throw error;
+  }
+}
+
 export async function createSite({ operatorSystemID, operatorEmail, site }) {
   const objectBoundary = {
     type: 'Site',
@@ -81,6 +100,7 @@ export async function updateSite(systemID, objectId, userSystemID, userEmail, up
 
 export default {
   getSitesForTenant,
+  getPowerConsumption,
   createSite,
   updateSite,
   bindSiteToTenant,
@@ -0,0 +1,25 @@
+package ambient_intelligence;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import ambient_intelligence.presentation.CallerPrincipalInterceptor;
+
+@Configuration
+public class CallerContextConfig implements WebMvcConfigurer {
+
+	private final CallerPrincipalInterceptor callerPrincipalInterceptor;
+
+	public CallerContextConfig(CallerPrincipalInterceptor callerPrincipalInterceptor) {
+		this.callerPrincipalInterceptor = callerPrincipalInterceptor;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(this.callerPrincipalInterceptor).addPathPatterns(
+				"/ambient-intelligence/objects/**",
+				"/ambient-intelligence/commands/**",
+				"/ambient-intelligence/admin/**");
+	}
+}
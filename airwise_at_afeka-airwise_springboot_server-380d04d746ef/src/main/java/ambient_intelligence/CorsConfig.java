@@ -13,6 +13,7 @@ public class CorsConfig implements WebMvcConfigurer {
       .allowedOrigins("*") // TODO: change to the client host link:port
       .allowedMethods("OPTIONS", "GET", "POST", "PUT", "DELETE")
       .allowedHeaders("Authorization", "Content-Type")
+      .exposedHeaders("X-Next-Cursor")
       .maxAge(3600);
   }
 }
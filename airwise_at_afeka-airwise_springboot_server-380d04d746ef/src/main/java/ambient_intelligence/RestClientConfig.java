@@ -1,19 +1,32 @@
 package ambient_intelligence;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
 import java.time.Duration;
 
 @Configuration
 public class RestClientConfig {
     
     @Bean
-    RestClient restClient(RestClient.Builder builder) {
+    RestClient restClient(RestClient.Builder builder, ClientHttpRequestFactory clientHttpRequestFactory) {
         return builder
-            .requestFactory(clientHttpRequestFactory())
+            .requestFactory(clientHttpRequestFactory)
             .defaultHeader("Content-Type", "application/json")
             .defaultHeader("Accept", "application/json")
             .build();
@@ -24,11 +37,50 @@ public class RestClientConfig {
         return RestClient.builder();
     }
     
+    // keep-alive connection pool, one route per AC api host
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager acConnectionManager(
+    		@Value("${external.api.demoac.pool.max-total:50}") int maxTotal,
+    		@Value("${external.api.demoac.pool.max-per-route:20}") int maxPerRoute,
+    		@Value("${external.api.demoac.connect-timeout:2s}") Duration connectTimeout,
+    		@Value("${external.api.demoac.read-timeout:10s}") Duration readTimeout,
+    		MeterRegistry meterRegistry) {
+    	
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxTotal)
+            .setMaxConnPerRoute(maxPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                .build())
+            .build();
+        
+        // available/leased/pending connections: pending > 0 means the pool is saturated
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "demoac").bindTo(meterRegistry);
+        
+        return connectionManager;
+    }
+    
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient acHttpClient(PoolingHttpClientConnectionManager acConnectionManager,
+    		@Value("${external.api.demoac.read-timeout:10s}") Duration readTimeout,
+    		@Value("${external.api.demoac.pool-acquire-timeout:2s}") Duration poolAcquireTimeout,
+    		@Value("${external.api.demoac.pool.idle-evict:30s}") Duration idleEvict) {
+    	
+        return HttpClients.custom()
+            .setConnectionManager(acConnectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeout.toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(idleEvict.toMillis()))
+            .build();
+    }
+    
     @Bean
-    ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(Duration.ofSeconds(60));
-        factory.setReadTimeout(Duration.ofSeconds(60));
-        return factory;
+    ClientHttpRequestFactory clientHttpRequestFactory(CloseableHttpClient acHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(acHttpClient);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package ambient_intelligence.dal;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import ambient_intelligence.data.CommandEntity;
+
+public interface CommandCrudCustom {
+
+	// keyset page of the matching commands in (invocationTimestamp, id) DESC order;
+	// after == null starts from the newest
+	public List<CommandEntity> findPageAfter(CommandFilter filter, PageCursor after, int size);
+
+	// cursor over the commands invoked in [from, to) oldest first; either bound may be null.
+	// The caller must close the stream.
+	public Stream<CommandEntity> streamByInvocationBetween(Date from, Date to, int batchSize);
+
+}
@@ -0,0 +1,55 @@
+package ambient_intelligence.dal;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import ambient_intelligence.data.CommandEntity;
+
+public class CommandCrudCustomImpl implements CommandCrudCustom {
+
+	private final MongoTemplate mongoTemplate;
+
+	public CommandCrudCustomImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public List<CommandEntity> findPageAfter(CommandFilter filter, PageCursor after, int size) {
+		List<Criteria> parts = filter.toCriteria();
+		if (after != null) {
+			parts.add(after.after("invocationTimestamp"));
+		}
+
+		Query query = new Query(parts.isEmpty() ? new Criteria() : new Criteria().andOperator(parts))
+				.with(Sort.by(Direction.DESC, "invocationTimestamp", "id"))
+				.limit(size);
+
+		return this.mongoTemplate.find(query, CommandEntity.class);
+	}
+
+	@Override
+	public Stream<CommandEntity> streamByInvocationBetween(Date from, Date to, int batchSize) {
+		Criteria criteria = new Criteria();
+		if (from != null || to != null) {
+			criteria = Criteria.where("invocationTimestamp");
+			if (from != null) {
+				criteria = criteria.gte(from);
+			}
+			if (to != null) {
+				criteria = criteria.lt(to);
+			}
+		}
+
+		Query query = new Query(criteria).with(Sort.by(Direction.ASC, "invocationTimestamp", "id"))
+				.cursorBatchSize(batchSize);
+
+		return this.mongoTemplate.stream(query, CommandEntity.class);
+	}
+}
@@ -0,0 +1,74 @@
+package ambient_intelligence.dal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import ambient_intelligence.data.CommandEntity;
+
+/**
+ * Optional COMMANDS history filters; null fields are not applied.
+ * Each single filter has a matching (field, invocationTimestamp, _id) index on CommandEntity.
+ */
+public record CommandFilter(String command, Collection<String> targetObjectIds, String invokerEmail, Date from,
+		Date to) {
+
+	public static CommandFilter none() {
+		return new CommandFilter(null, null, null, null, null);
+	}
+
+	List<Criteria> toCriteria() {
+		List<Criteria> parts = new ArrayList<>();
+
+		if (this.command != null) {
+			parts.add(Criteria.where("command").is(this.command));
+		}
+		if (this.targetObjectIds != null && !this.targetObjectIds.isEmpty()) {
+			parts.add(Criteria.where("targetObject.id.objectId").in(this.targetObjectIds));
+		}
+		if (this.invokerEmail != null) {
+			parts.add(Criteria.where("invokedBy.userId.email").is(this.invokerEmail));
+		}
+		if (this.from != null) {
+			parts.add(Criteria.where("invocationTimestamp").gte(this.from));
+		}
+		if (this.to != null) {
+			parts.add(Criteria.where("invocationTimestamp").lt(this.to));
+		}
+
+		return parts;
+	}
+
+	// the same predicate evaluated in memory, for archived commands
+	public boolean matches(CommandEntity entity) {
+		if (this.command != null && !this.command.equals(entity.getCommand())) {
+			return false;
+		}
+		if (this.targetObjectIds != null && !this.targetObjectIds.isEmpty()) {
+			String target = entity.getTargetObject() == null || entity.getTargetObject().getId() == null ? null
+					: entity.getTargetObject().getId().getObjectId();
+			if (!this.targetObjectIds.contains(target)) {
+				return false;
+			}
+		}
+		if (this.invokerEmail != null) {
+			String email = entity.getInvokedBy() == null || entity.getInvokedBy().getUserId() == null ? null
+					: entity.getInvokedBy().getUserId().getEmail();
+			if (!this.invokerEmail.equals(email)) {
+				return false;
+			}
+		}
+
+		Date timestamp = entity.getInvocationTimestamp();
+		if (this.from != null && (timestamp == null || timestamp.before(this.from))) {
+			return false;
+		}
+		if (this.to != null && (timestamp == null || !timestamp.before(this.to))) {
+			return false;
+		}
+		return true;
+	}
+}
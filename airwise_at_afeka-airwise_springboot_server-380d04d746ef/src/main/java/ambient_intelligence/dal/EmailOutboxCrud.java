@@ -0,0 +1,14 @@
+package ambient_intelligence.dal;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import ambient_intelligence.data.EmailOutboxEntity;
+import ambient_intelligence.data.EmailOutboxStatus;
+
+public interface EmailOutboxCrud extends MongoRepository<EmailOutboxEntity, String>, EmailOutboxCrudCustom {
+
+	public long countByStatusIn(List<EmailOutboxStatus> statuses);
+
+}
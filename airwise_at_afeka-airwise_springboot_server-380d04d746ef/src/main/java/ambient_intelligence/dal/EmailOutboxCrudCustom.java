@@ -0,0 +1,15 @@
+package ambient_intelligence.dal;
+
+import java.util.Date;
+
+import ambient_intelligence.data.EmailOutboxEntity;
+
+/**
+ * EmailOutboxCrud operations that need MongoTemplate (atomic claims).
+ */
+public interface EmailOutboxCrudCustom {
+
+	// atomically moves one due PENDING message (or a SENDING one claimed before staleBefore) to SENDING
+	public EmailOutboxEntity claimNext(Date now, Date staleBefore);
+
+}
@@ -0,0 +1,42 @@
+package ambient_intelligence.dal;
+
+import java.util.Date;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ambient_intelligence.data.EmailOutboxEntity;
+import ambient_intelligence.data.EmailOutboxStatus;
+
+public class EmailOutboxCrudCustomImpl implements EmailOutboxCrudCustom {
+
+	private final MongoTemplate mongoTemplate;
+
+	public EmailOutboxCrudCustomImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public EmailOutboxEntity claimNext(Date now, Date staleBefore) {
+
+		// a SENDING message whose dispatcher died mid-batch becomes claimable again
+		Query due = new Query(new Criteria().orOperator(
+				Criteria.where("status").is(EmailOutboxStatus.PENDING).and("nextAttemptAt").lte(now),
+				Criteria.where("status").is(EmailOutboxStatus.SENDING).and("claimedAt").lt(staleBefore)));
+		due.with(Sort.by(Direction.ASC, "nextAttemptAt"));
+
+		Update claim = new Update()
+				.set("status", EmailOutboxStatus.SENDING)
+				.set("claimedAt", now)
+				.inc("attempts", 1);
+
+		return this.mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true),
+				EmailOutboxEntity.class);
+	}
+
+}
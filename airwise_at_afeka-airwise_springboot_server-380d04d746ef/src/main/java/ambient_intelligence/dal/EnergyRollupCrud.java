@@ -0,0 +1,7 @@
+package ambient_intelligence.dal;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import ambient_intelligence.data.EnergyRollupEntity;
+
+public interface EnergyRollupCrud extends MongoRepository<EnergyRollupEntity, String>, EnergyRollupCrudCustom {}
@@ -0,0 +1,31 @@
+package ambient_intelligence.dal;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+
+import ambient_intelligence.data.EnergyRollupEntity;
+import ambient_intelligence.data.RollupGranularity;
+import ambient_intelligence.data.RollupLevel;
+
+/**
+ * EnergyRollupCrud operations that need MongoTemplate (bulk upserts and dynamic scope fields).
+ */
+public interface EnergyRollupCrudCustom {
+
+	// adds one day of consumption to the DAY/WEEK/MONTH rows of the tenant, site, room and AC
+	// in one unordered bulk write; null ids (e.g. migrated site-only history) are skipped
+	public void addToRollups(String tenantId, String siteId, String roomId, String acId, LocalDate day, double kwh,
+			double runtime, double cost);
+
+	// overwrites the totals of each (level, scopeId, granularity, periodStart) row, creating missing ones,
+	// in one unordered bulk write; writing the same rows again leaves the same collection
+	public void setRollups(List<EnergyRollupEntity> rows);
+
+	// rows of the given level whose scopeLevel ancestor (or itself) is scopeId,
+	// with periodStart in [fromPeriod, toPeriod], oldest period first
+	public List<EnergyRollupEntity> findRollups(RollupLevel level, RollupGranularity granularity,
+			RollupLevel scopeLevel, String scopeId, String fromPeriod, String toPeriod, Pageable pageable);
+
+}
@@ -0,0 +1,120 @@
+package ambient_intelligence.dal;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ambient_intelligence.data.EnergyRollupEntity;
+import ambient_intelligence.data.RollupGranularity;
+import ambient_intelligence.data.RollupLevel;
+
+public class EnergyRollupCrudCustomImpl implements EnergyRollupCrudCustom {
+
+	private final MongoTemplate mongoTemplate;
+
+	public EnergyRollupCrudCustomImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public void addToRollups(String tenantId, String siteId, String roomId, String acId, LocalDate day, double kwh,
+			double runtime, double cost) {
+
+		BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, EnergyRollupEntity.class);
+		Date now = new Date();
+		int count = 0;
+
+		for (RollupLevel level : RollupLevel.values()) {
+			String scopeId = switch (level) {
+			case TENANT -> tenantId;
+			case SITE -> siteId;
+			case ROOM -> roomId;
+			case AC -> acId;
+			};
+			if (scopeId == null) {
+				continue;
+			}
+
+			for (RollupGranularity granularity : RollupGranularity.values()) {
+				Query row = new Query(Criteria.where("level").is(level)
+						.and("scopeId").is(scopeId)
+						.and("granularity").is(granularity)
+						.and("periodStart").is(granularity.periodStartOf(day).toString()));
+
+				Update increment = new Update()
+						.setOnInsert("tenantId", tenantId)
+						.setOnInsert("siteId", level.compareTo(RollupLevel.SITE) >= 0 ? siteId : null)
+						.setOnInsert("roomId", level.compareTo(RollupLevel.ROOM) >= 0 ? roomId : null)
+						.setOnInsert("acId", level == RollupLevel.AC ? acId : null)
+						.inc("kwh", kwh)
+						.inc("runtime", runtime)
+						.inc("cost", cost)
+						.set("updatedAt", now);
+
+				bulk.upsert(row, increment);
+				count++;
+			}
+		}
+
+		if (count > 0) {
+			bulk.execute();
+		}
+	}
+
+	@Override
+	public void setRollups(List<EnergyRollupEntity> rows) {
+
+		if (rows.isEmpty()) {
+			return;
+		}
+
+		BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, EnergyRollupEntity.class);
+		Date now = new Date();
+
+		for (EnergyRollupEntity rollup : rows) {
+			Query row = new Query(Criteria.where("level").is(rollup.getLevel())
+					.and("scopeId").is(rollup.getScopeId())
+					.and("granularity").is(rollup.getGranularity())
+					.and("periodStart").is(rollup.getPeriodStart()));
+
+			Update totals = new Update()
+					.set("tenantId", rollup.getTenantId())
+					.set("siteId", rollup.getSiteId())
+					.set("roomId", rollup.getRoomId())
+					.set("acId", rollup.getAcId())
+					.set("kwh", rollup.getKwh())
+					.set("runtime", rollup.getRuntime())
+					.set("cost", rollup.getCost())
+					.set("updatedAt", now);
+
+			bulk.upsert(row, totals);
+		}
+
+		bulk.execute();
+	}
+
+	@Override
+	public List<EnergyRollupEntity> findRollups(RollupLevel level, RollupGranularity granularity,
+			RollupLevel scopeLevel, String scopeId, String fromPeriod, String toPeriod, Pageable pageable) {
+
+		Query query = new Query(Criteria.where("level").is(level)
+				.and("granularity").is(granularity)
+				.and(scopeLevel.getIdField()).is(scopeId)
+				.and("periodStart").gte(fromPeriod).lte(toPeriod));
+		query.with(Sort.by(Direction.ASC, "periodStart", "scopeId"));
+		query.with(pageable);
+
+		return this.mongoTemplate.find(query, EnergyRollupEntity.class);
+	}
+
+}
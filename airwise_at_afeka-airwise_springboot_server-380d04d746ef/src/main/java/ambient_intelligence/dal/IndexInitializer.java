@@ -0,0 +1,58 @@
+package ambient_intelligence.dal;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the @Indexed / @CompoundIndex definitions of every @Document entity at startup
+ * (spring.data.mongodb.auto-index-creation is off). Existing indexes are left as they are,
+ * and runs before the migrations so they can use the indexes too.
+ */
+@Component
+@Order(-1)
+public class IndexInitializer implements ApplicationRunner {
+
+	private final MongoTemplate mongoTemplate;
+	private final MongoMappingContext mappingContext;
+	private Log log = LogFactory.getLog(IndexInitializer.class);
+
+	public IndexInitializer(MongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+		this.mongoTemplate = mongoTemplate;
+		this.mappingContext = mappingContext;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+
+		IndexResolver resolver = new MongoPersistentEntityIndexResolver(this.mappingContext);
+
+		for (MongoPersistentEntity<?> entity : this.mappingContext.getPersistentEntities()) {
+			if (!entity.isAnnotationPresent(Document.class)) {
+				continue;
+			}
+
+			IndexOperations indexOps = this.mongoTemplate.indexOps(entity.getType());
+			for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+				try {
+					indexOps.ensureIndex(index);
+				} catch (RuntimeException e) {
+					// e.g. an older index with the same name and different keys; keep starting up
+					log.warn("could not create index " + index.getIndexOptions().get("name") + " on "
+							+ entity.getCollection() + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+}
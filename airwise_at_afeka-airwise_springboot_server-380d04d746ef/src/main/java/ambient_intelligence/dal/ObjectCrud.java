@@ -8,7 +8,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.repository.query.Param;
 import ambient_intelligence.data.ObjectEntity;
 
-public interface ObjectCrud extends MongoRepository<ObjectEntity, String> {
+public interface ObjectCrud extends MongoRepository<ObjectEntity, String>, ObjectCrudCustom {
 
 	public Optional<ObjectEntity> findByIdAndActiveTrue(@Param("id") String id);
 	
@@ -18,19 +18,18 @@ public interface ObjectCrud extends MongoRepository<ObjectEntity, String> {
 	
 	public List<ObjectEntity> findAllByActiveTrue(Pageable pageable);
 	
-	// find all objects that have the passed ObjectEntity parent
-	public List<ObjectEntity> findAllByParent_Id(@Param("parent") String parentId, Pageable pageable);
+	// find all objects that have the passed parent id
+	public List<ObjectEntity> findAllByParentId(@Param("parentId") String parentId, Pageable pageable);
 	
-	public List<ObjectEntity> findAllByParent_IdAndActiveTrue(@Param("parent") String parentId, Pageable pageable);
+	public List<ObjectEntity> findAllByParentIdAndActiveTrue(@Param("parentId") String parentId, Pageable pageable);
+
+	public List<ObjectEntity> findAllByParentIdAndTypeAndActiveTrue(@Param("parentId") String parentId,
+			@Param("type") String type, Pageable pageable);
 
 	public List<ObjectEntity> findByAlias(@Param("alias") String alias, Pageable pageable);
 
 	public List<ObjectEntity> findByAliasAndActiveTrue(@Param("alias") String alias, Pageable pageable);
 
-	public List<ObjectEntity> findByAliasLike(@Param("pattern") String pattern, Pageable pageable);
-
-	public List<ObjectEntity> findByAliasLikeAndActiveTrue(@Param("pattern") String pattern, Pageable pageable);
-
 	public List<ObjectEntity> findByType(@Param("type") String type, Pageable pageable);
 
 	public List<ObjectEntity> findByTypeAndActiveTrue(@Param("type") String type, Pageable pageable);
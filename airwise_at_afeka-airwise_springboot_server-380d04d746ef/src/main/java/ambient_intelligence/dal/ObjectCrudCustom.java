@@ -0,0 +1,48 @@
+package ambient_intelligence.dal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.RepeatPattern;
+
+/**
+ * ObjectCrud operations that need MongoTemplate (bulk and projected updates).
+ */
+public interface ObjectCrudCustom {
+
+	// rewrites the ancestors path of every object below objectId after objectId was re-bound
+	public void updateAncestorsOfDescendants(String objectId, List<String> newAncestorsOfObject);
+
+	// soft deletes the object and its active descendants of the given types in a single updateMany;
+	// returns the number of objects deactivated
+	public long deactivateSubtree(String objectId, Collection<String> descendantTypes);
+
+	// moves every active Task in fromStatus whose repeat pattern is one of the given ones to toStatus,
+	// in a single updateMany; returns the number of tasks updated
+	public long updateTaskStatusByRepeat(String fromStatus, String toStatus, Collection<RepeatPattern> repeats);
+
+	// set-based lookups returning entities populated with the given fields only (plus id)
+
+	// newest first, like findByAliasAndActiveTrue
+	public List<ObjectEntity> findActiveByAliasIn(Collection<String> aliases, String... fields);
+
+	public List<ObjectEntity> findActiveByParentIdIn(Collection<String> parentIds, String... fields);
+
+	public List<ObjectEntity> findActiveByTypeAndAncestorsIn(String type, Collection<String> ancestorIds,
+			String... fields);
+
+	// alias search, newest first; substring candidates come from the aliasGrams index,
+	// prefix matches from an anchored regex on the alias index
+	public List<ObjectEntity> findByAliasContaining(String pattern, boolean activeOnly, Pageable pageable);
+
+	public List<ObjectEntity> findByAliasStartingWith(String prefix, boolean activeOnly, Pageable pageable);
+
+	// keyset page of the objects whose fields equal the given values, in (creationTimestamp, id) DESC order;
+	// after == null starts from the newest
+	public List<ObjectEntity> findPageAfter(Map<String, Object> equalities, PageCursor after, int size);
+
+}
@@ -0,0 +1,190 @@
+package ambient_intelligence.dal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.RepeatPattern;
+import ambient_intelligence.utils.AliasGrams;
+
+public class ObjectCrudCustomImpl implements ObjectCrudCustom {
+
+	private final MongoTemplate mongoTemplate;
+
+	public ObjectCrudCustomImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public void updateAncestorsOfDescendants(String objectId, List<String> newAncestorsOfObject) {
+
+		Query descendantsQuery = new Query(Criteria.where("ancestors").is(objectId));
+		descendantsQuery.fields().include("_id").include("ancestors");
+
+		List<Document> descendants = this.mongoTemplate.find(descendantsQuery, Document.class,
+				this.mongoTemplate.getCollectionName(ObjectEntity.class));
+
+		if (descendants.isEmpty()) {
+			return;
+		}
+
+		BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, ObjectEntity.class);
+
+		for (Document descendant : descendants) {
+			List<String> oldAncestors = descendant.getList("ancestors", String.class);
+			int index = oldAncestors.indexOf(objectId);
+
+			List<String> ancestors = new ArrayList<>(newAncestorsOfObject);
+			ancestors.addAll(oldAncestors.subList(index, oldAncestors.size()));
+
+			bulk.updateOne(new Query(Criteria.where("_id").is(descendant.get("_id"))),
+					new Update().set("ancestors", ancestors));
+		}
+
+		bulk.execute();
+	}
+
+	@Override
+	public long deactivateSubtree(String objectId, Collection<String> descendantTypes) {
+
+		// the object by id, the subtree through the (ancestors, type, active) index
+		Criteria subtree = descendantTypes.isEmpty() ? Criteria.where("_id").is(objectId)
+				: new Criteria().orOperator(
+						Criteria.where("_id").is(objectId),
+						Criteria.where("ancestors").is(objectId).and("type").in(descendantTypes));
+
+		Query query = new Query(subtree);
+		query.addCriteria(Criteria.where("active").is(true));
+
+		return this.mongoTemplate.updateMulti(query, new Update().set("active", false), ObjectEntity.class)
+				.getModifiedCount();
+	}
+
+	@Override
+	public long updateTaskStatusByRepeat(String fromStatus, String toStatus, Collection<RepeatPattern> repeats) {
+		if (repeats.isEmpty()) {
+			return 0;
+		}
+
+		// the same spellings RepeatPattern.fromString accepts: any case, '_' or ' ', surrounding blanks
+		String alternatives = repeats.stream()
+				.map(repeat -> repeat.name().replace("_", "[ _]"))
+				.collect(Collectors.joining("|"));
+
+		Query tasks = new Query(Criteria.where("type").is("Task").and("status").is(fromStatus).and("active").is(true)
+				.and("objectDetails.repeat").regex("^\\s*(" + alternatives + ")\\s*$", "i"));
+
+		return this.mongoTemplate.updateMulti(tasks, new Update().set("status", toStatus), ObjectEntity.class)
+				.getModifiedCount();
+	}
+
+	@Override
+	public List<ObjectEntity> findActiveByAliasIn(Collection<String> aliases, String... fields) {
+		if (aliases.isEmpty()) {
+			return List.of();
+		}
+
+		Query query = projected(Criteria.where("alias").in(aliases).and("active").is(true), fields);
+		query.with(Sort.by(Direction.DESC, "creationTimestamp", "id"));
+
+		return this.mongoTemplate.find(query, ObjectEntity.class);
+	}
+
+	@Override
+	public List<ObjectEntity> findActiveByParentIdIn(Collection<String> parentIds, String... fields) {
+		if (parentIds.isEmpty()) {
+			return List.of();
+		}
+
+		return this.mongoTemplate.find(
+				projected(Criteria.where("parentId").in(parentIds).and("active").is(true), fields),
+				ObjectEntity.class);
+	}
+
+	@Override
+	public List<ObjectEntity> findActiveByTypeAndAncestorsIn(String type, Collection<String> ancestorIds,
+			String... fields) {
+		if (ancestorIds.isEmpty()) {
+			return List.of();
+		}
+
+		return this.mongoTemplate.find(projected(
+				Criteria.where("ancestors").in(ancestorIds).and("type").is(type).and("active").is(true), fields),
+				ObjectEntity.class);
+	}
+
+	@Override
+	public List<ObjectEntity> findByAliasContaining(String pattern, boolean activeOnly, Pageable pageable) {
+		Criteria criteria = Criteria.where("aliasGrams").all(AliasGrams.forPattern(pattern))
+				.and("alias").regex(literal(pattern));
+
+		return this.findPage(activeOnly ? criteria.and("active").is(true) : criteria, pageable);
+	}
+
+	@Override
+	public List<ObjectEntity> findByAliasStartingWith(String prefix, boolean activeOnly, Pageable pageable) {
+		// "^" + escaped literal is the regex form Mongo turns into tight alias index bounds
+		Criteria criteria = Criteria.where("alias").regex("^" + literal(prefix));
+
+		return this.findPage(activeOnly ? criteria.and("active").is(true) : criteria, pageable);
+	}
+
+	@Override
+	public List<ObjectEntity> findPageAfter(Map<String, Object> equalities, PageCursor after, int size) {
+		List<Criteria> parts = new ArrayList<>();
+		equalities.forEach((field, value) -> parts.add(Criteria.where(field).is(value)));
+		if (after != null) {
+			parts.add(after.after("creationTimestamp"));
+		}
+
+		Query query = new Query(parts.isEmpty() ? new Criteria() : new Criteria().andOperator(parts))
+				.with(Sort.by(Direction.DESC, "creationTimestamp", "id"))
+				.limit(size);
+
+		return this.mongoTemplate.find(query, ObjectEntity.class);
+	}
+
+	private List<ObjectEntity> findPage(Criteria criteria, Pageable pageable) {
+		Query query = new Query(criteria).with(Sort.by(Direction.DESC, "creationTimestamp", "id"));
+		if (pageable.isPaged()) {
+			query.skip(pageable.getOffset()).limit(pageable.getPageSize());
+		}
+		return this.mongoTemplate.find(query, ObjectEntity.class);
+	}
+
+	// backslash-escapes regex metacharacters (\Q..\E would defeat the prefix index bounds)
+	private static String literal(String value) {
+		StringBuilder sb = new StringBuilder(value.length() * 2);
+		for (char c : value.toCharArray()) {
+			if (!Character.isLetterOrDigit(c) && c != ' ') {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	private Query projected(Criteria criteria, String... fields) {
+		Query query = new Query(criteria);
+		query.fields().include("_id");
+		for (String field : fields) {
+			query.fields().include(field);
+		}
+		return query;
+	}
+
+}
@@ -0,0 +1,64 @@
+package ambient_intelligence.dal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Position in a (timestamp DESC, _id DESC) listing: the sort key of the last returned document.
+ * Clients only see it as an opaque base64url token.
+ */
+public record PageCursor(Date timestamp, String id) {
+
+	private static final String NO_TIMESTAMP = "-";
+
+	public String encode() {
+		String key = (this.timestamp == null ? NO_TIMESTAMP : Long.toString(this.timestamp.getTime())) + ":" + this.id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// throws IllegalArgumentException for tokens this class did not produce
+	public static PageCursor decode(String token) {
+		String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+
+		int separator = key.indexOf(':');
+		if (separator <= 0 || separator == key.length() - 1) {
+			throw new IllegalArgumentException("malformed cursor");
+		}
+
+		String timestamp = key.substring(0, separator);
+		String id = key.substring(separator + 1);
+		try {
+			return new PageCursor(NO_TIMESTAMP.equals(timestamp) ? null : new Date(Long.parseLong(timestamp)), id);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("malformed cursor");
+		}
+	}
+
+	// whether a document with this sort key comes strictly after this position (in memory)
+	public boolean isAfter(Date otherTimestamp, String otherId) {
+		if (this.timestamp == null) {
+			return otherTimestamp == null && otherId.compareTo(this.id) < 0;
+		}
+		if (otherTimestamp == null) {
+			return true;
+		}
+		int byTime = otherTimestamp.compareTo(this.timestamp);
+		return byTime < 0 || (byTime == 0 && otherId.compareTo(this.id) < 0);
+	}
+
+	// documents strictly after this position; missing timestamps sort last in DESC order
+	public Criteria after(String timestampField) {
+		if (this.timestamp == null) {
+			return new Criteria().andOperator(Criteria.where(timestampField).is(null),
+					Criteria.where("_id").lt(this.id));
+		}
+
+		return new Criteria().orOperator(Criteria.where(timestampField).lt(this.timestamp),
+				new Criteria().andOperator(Criteria.where(timestampField).is(this.timestamp),
+						Criteria.where("_id").lt(this.id)),
+				Criteria.where(timestampField).is(null));
+	}
+}
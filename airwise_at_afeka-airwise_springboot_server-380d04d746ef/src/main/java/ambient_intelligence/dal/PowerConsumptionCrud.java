@@ -0,0 +1,16 @@
+package ambient_intelligence.dal;
+
+import java.util.stream.Stream;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import ambient_intelligence.data.PowerConsumptionEntity;
+
+public interface PowerConsumptionCrud extends MongoRepository<PowerConsumptionEntity, String>, PowerConsumptionCrudCustom {
+
+	// cursor over the whole collection; the caller must close the stream
+	@Query("{}")
+	public Stream<PowerConsumptionEntity> streamAll();
+
+}
@@ -0,0 +1,25 @@
+package ambient_intelligence.dal;
+
+import java.util.List;
+
+import ambient_intelligence.data.PowerConsumptionEntity;
+
+/**
+ * PowerConsumptionCrud operations that need MongoTemplate (upsert-increments and aggregations).
+ */
+public interface PowerConsumptionCrudCustom {
+
+	// atomically adds to the (site, room, ac, date) row, creating it on first use
+	public void addConsumption(String tenantId, String siteId, String roomId, String acId, String date, double kwh,
+			double runtime, double cost);
+
+	// overwrites the (site, room, ac, date) row with the given totals, creating it on first use;
+	// repeating the call leaves the same row, so replayed migrations do not double-count
+	public void setConsumption(String tenantId, String siteId, String roomId, String acId, String date, double kwh,
+			double runtime, double cost);
+
+	// one row per date, summed over every row whose scopeField (tenantId/siteId/roomId/acId) is scopeId;
+	// from/to are inclusive yyyy-MM-dd bounds and may be null; newest date first
+	public List<PowerConsumptionEntity> sumByDate(String scopeField, String scopeId, String fromDate, String toDate);
+
+}
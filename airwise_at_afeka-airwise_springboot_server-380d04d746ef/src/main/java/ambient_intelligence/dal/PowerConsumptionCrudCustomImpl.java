@@ -0,0 +1,95 @@
+package ambient_intelligence.dal;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ambient_intelligence.data.PowerConsumptionEntity;
+
+public class PowerConsumptionCrudCustomImpl implements PowerConsumptionCrudCustom {
+
+	private final MongoTemplate mongoTemplate;
+
+	public PowerConsumptionCrudCustomImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public void addConsumption(String tenantId, String siteId, String roomId, String acId, String date, double kwh,
+			double runtime, double cost) {
+
+		Query row = new Query(Criteria.where("siteId").is(siteId)
+				.and("roomId").is(roomId)
+				.and("acId").is(acId)
+				.and("date").is(date));
+
+		Update increment = new Update()
+				.setOnInsert("tenantId", tenantId)
+				.inc("kwh", kwh)
+				.inc("runtime", runtime)
+				.inc("cost", cost)
+				.set("updatedAt", new Date());
+
+		this.mongoTemplate.upsert(row, increment, PowerConsumptionEntity.class);
+	}
+
+	@Override
+	public void setConsumption(String tenantId, String siteId, String roomId, String acId, String date, double kwh,
+			double runtime, double cost) {
+
+		Query row = new Query(Criteria.where("siteId").is(siteId)
+				.and("roomId").is(roomId)
+				.and("acId").is(acId)
+				.and("date").is(date));
+
+		Update totals = new Update()
+				.set("tenantId", tenantId)
+				.set("kwh", kwh)
+				.set("runtime", runtime)
+				.set("cost", cost)
+				.set("updatedAt", new Date());
+
+		this.mongoTemplate.upsert(row, totals, PowerConsumptionEntity.class);
+	}
+
+	@Override
+	public List<PowerConsumptionEntity> sumByDate(String scopeField, String scopeId, String fromDate, String toDate) {
+
+		Criteria criteria = Criteria.where(scopeField).is(scopeId);
+		if (fromDate != null && toDate != null) {
+			criteria = criteria.and("date").gte(fromDate).lte(toDate);
+		} else if (fromDate != null) {
+			criteria = criteria.and("date").gte(fromDate);
+		} else if (toDate != null) {
+			criteria = criteria.and("date").lte(toDate);
+		}
+
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.match(criteria),
+				Aggregation.group("date").sum("kwh").as("kwh").sum("runtime").as("runtime").sum("cost").as("cost"),
+				Aggregation.sort(Direction.DESC, "_id"));
+
+		return this.mongoTemplate.aggregate(aggregation, PowerConsumptionEntity.class, Document.class)
+				.getMappedResults()
+				.stream()
+				.map(this::toDailyTotal)
+				.toList();
+	}
+
+	private PowerConsumptionEntity toDailyTotal(Document document) {
+		PowerConsumptionEntity total = new PowerConsumptionEntity();
+		total.setDate(document.getString("_id"));
+		total.setKwh(((Number) document.get("kwh")).doubleValue());
+		total.setRuntime(((Number) document.get("runtime")).doubleValue());
+		total.setCost(((Number) document.get("cost")).doubleValue());
+		return total;
+	}
+
+}
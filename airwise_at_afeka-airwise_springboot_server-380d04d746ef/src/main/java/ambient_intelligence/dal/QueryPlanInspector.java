@@ -0,0 +1,76 @@
+package ambient_intelligence.dal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs explain (queryPlanner verbosity) on a find and returns the stages and index names
+ * of the winning plan, without executing the query.
+ */
+@Component
+public class QueryPlanInspector {
+
+	private final MongoTemplate mongoTemplate;
+
+	public QueryPlanInspector(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	public QueryPlan explainFind(String collection, Document filter, Document sort) {
+
+		Document find = new Document("find", collection).append("filter", filter).append("limit", 10);
+		if (sort != null && !sort.isEmpty()) {
+			find.append("sort", sort);
+		}
+
+		Document explain = this.mongoTemplate.getDb()
+				.runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+
+		Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+
+		QueryPlan plan = new QueryPlan();
+		collect(winningPlan, plan);
+		return plan;
+	}
+
+	// the winning plan is a tree (inputStage / inputStages, or queryPlan on the SBE engine)
+	private void collect(Object node, QueryPlan plan) {
+		if (node instanceof Document doc) {
+			if (doc.get("stage") instanceof String stage) {
+				plan.stages.add(stage);
+			}
+			if (doc.get("indexName") instanceof String indexName) {
+				plan.indexNames.add(indexName);
+			}
+			for (Object child : doc.values()) {
+				collect(child, plan);
+			}
+		} else if (node instanceof List<?> list) {
+			for (Object child : list) {
+				collect(child, plan);
+			}
+		}
+	}
+
+	public static class QueryPlan {
+
+		private final List<String> stages = new ArrayList<>();
+		private final List<String> indexNames = new ArrayList<>();
+
+		public List<String> getStages() {
+			return stages;
+		}
+
+		public List<String> getIndexNames() {
+			return indexNames;
+		}
+
+		public boolean isCollectionScan() {
+			return stages.contains("COLLSCAN");
+		}
+	}
+}
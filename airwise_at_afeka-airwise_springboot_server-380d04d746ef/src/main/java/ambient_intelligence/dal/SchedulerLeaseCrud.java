@@ -0,0 +1,9 @@
+package ambient_intelligence.dal;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import ambient_intelligence.data.SchedulerLeaseEntity;
+
+public interface SchedulerLeaseCrud extends MongoRepository<SchedulerLeaseEntity, String>, SchedulerLeaseCrudCustom {
+
+}
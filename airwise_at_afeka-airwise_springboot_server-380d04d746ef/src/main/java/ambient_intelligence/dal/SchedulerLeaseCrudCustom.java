@@ -0,0 +1,21 @@
+package ambient_intelligence.dal;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * SchedulerLeaseCrud operations that need MongoTemplate (conditional claims and bulk renewals).
+ */
+public interface SchedulerLeaseCrudCustom {
+
+	// takes the lease if it is free or expired (creating it on first use); false if another node holds it
+	public boolean claim(String partitionId, String owner, Date now, Date expiresAt);
+
+	// extends every unexpired lease of the owner to expiresAt and returns their ids
+	public List<String> renew(String owner, Date now, Date expiresAt);
+
+	// hands the given leases back, if the owner still holds them
+	public void release(String owner, Collection<String> partitionIds);
+
+}
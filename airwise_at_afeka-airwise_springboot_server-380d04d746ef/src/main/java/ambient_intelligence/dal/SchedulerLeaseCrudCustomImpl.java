@@ -0,0 +1,70 @@
+package ambient_intelligence.dal;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.result.UpdateResult;
+
+import ambient_intelligence.data.SchedulerLeaseEntity;
+
+public class SchedulerLeaseCrudCustomImpl implements SchedulerLeaseCrudCustom {
+
+	private final MongoTemplate mongoTemplate;
+
+	public SchedulerLeaseCrudCustomImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public boolean claim(String partitionId, String owner, Date now, Date expiresAt) {
+
+		Query claimable = new Query(Criteria.where("_id").is(partitionId).orOperator(
+				Criteria.where("owner").is(null),
+				Criteria.where("expiresAt").lt(now)));
+
+		Update take = new Update()
+				.set("owner", owner)
+				.set("expiresAt", expiresAt);
+
+		try {
+			UpdateResult result = this.mongoTemplate.upsert(claimable, take, SchedulerLeaseEntity.class);
+			return result.getModifiedCount() > 0 || result.getUpsertedId() != null;
+		} catch (DuplicateKeyException e) {
+			// the lease exists and is held: the upsert tried to insert a second document with its _id
+			return false;
+		}
+	}
+
+	@Override
+	public List<String> renew(String owner, Date now, Date expiresAt) {
+
+		this.mongoTemplate.updateMulti(
+				new Query(Criteria.where("owner").is(owner).and("expiresAt").gte(now)),
+				new Update().set("expiresAt", expiresAt),
+				SchedulerLeaseEntity.class);
+
+		Query renewed = new Query(Criteria.where("owner").is(owner).and("expiresAt").is(expiresAt));
+		renewed.fields().include("_id");
+
+		return this.mongoTemplate.find(renewed, SchedulerLeaseEntity.class).stream()
+				.map(SchedulerLeaseEntity::getId)
+				.toList();
+	}
+
+	@Override
+	public void release(String owner, Collection<String> partitionIds) {
+
+		this.mongoTemplate.updateMulti(
+				new Query(Criteria.where("_id").in(partitionIds).and("owner").is(owner)),
+				new Update().set("owner", null).set("expiresAt", new Date(0)),
+				SchedulerLeaseEntity.class);
+	}
+
+}
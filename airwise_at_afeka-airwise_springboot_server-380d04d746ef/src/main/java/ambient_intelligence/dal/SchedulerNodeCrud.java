@@ -0,0 +1,13 @@
+package ambient_intelligence.dal;
+
+import java.util.Date;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import ambient_intelligence.data.SchedulerNodeEntity;
+
+public interface SchedulerNodeCrud extends MongoRepository<SchedulerNodeEntity, String> {
+
+	public long countByExpiresAtAfter(Date now);
+
+}
@@ -1,6 +1,21 @@
 package ambient_intelligence.dal;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
 import ambient_intelligence.data.UserEntity;
+import ambient_intelligence.data.UserRole;
+
+public interface UserCrud extends MongoRepository<UserEntity, String>{
+
+	@Query(value = "{ 'role': ?0 }", fields = "{ '_id': 1, 'role': 1 }")
+	public List<UserEntity> findAllByRole(UserRole role);
+
+	// cursor over the whole collection; the caller must close the stream
+	@Query("{}")
+	public Stream<UserEntity> streamAll();
 
-public interface UserCrud extends MongoRepository<UserEntity, String>{}
+}
@@ -0,0 +1,231 @@
+package ambient_intelligence.dal.archive;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.bson.Document;
+
+import ambient_intelligence.dal.CommandFilter;
+import ambient_intelligence.dal.PageCursor;
+
+/**
+ * One immutable archive segment: a .seg file of concatenated gzip members (one per block of
+ * commands, oldest first, one Extended JSON document per line) and its sparse .idx, which
+ * holds one line per block with its byte range, record count, time range and a Bloom filter of
+ * the values the history filters match on.
+ */
+public class ArchiveSegment {
+
+	private final Path segmentFile;
+	private final Path indexFile;
+	private final List<Block> blocks;
+
+	public ArchiveSegment(Path segmentFile, Path indexFile, List<Block> blocks) {
+		this.segmentFile = segmentFile;
+		this.indexFile = indexFile;
+		this.blocks = List.copyOf(blocks);
+	}
+
+	public static ArchiveSegment load(Path segmentFile, Path indexFile) throws IOException {
+		List<Block> blocks = new ArrayList<>();
+		for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+			if (!line.isBlank()) {
+				blocks.add(Block.parse(line));
+			}
+		}
+		return new ArchiveSegment(segmentFile, indexFile, blocks);
+	}
+
+	public List<Block> getBlocks() {
+		return blocks;
+	}
+
+	public Path getSegmentFile() {
+		return segmentFile;
+	}
+
+	public Path getIndexFile() {
+		return indexFile;
+	}
+
+	public long getCount() {
+		long count = 0;
+		for (Block block : this.blocks) {
+			count += block.count();
+		}
+		return count;
+	}
+
+	// sort key of the newest archived command
+	public PageCursor getLastKey() {
+		Block last = this.blocks.getLast();
+		return new PageCursor(new Date(last.lastMillis()), last.lastId());
+	}
+
+	// the block's documents, oldest first
+	public List<Document> read(Block block) {
+		try (FileChannel channel = FileChannel.open(this.segmentFile, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(block.length());
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, block.offset() + buffer.position()) < 0) {
+					throw new IOException("truncated block at " + block.offset() + " in " + this.segmentFile);
+				}
+			}
+
+			List<Document> documents = new ArrayList<>(block.count());
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+					new GZIPInputStream(new ByteArrayInputStream(buffer.array())), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (!line.isEmpty()) {
+						documents.add(Document.parse(line));
+					}
+				}
+			}
+			return documents;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Sparse index entry: bytes [offset, offset + length) of the segment hold count commands
+	 * invoked in [firstMillis, lastMillis]; lastId breaks ties on lastMillis. keys is null for
+	 * segments written before blocks carried one, and such blocks are always read.
+	 */
+	public record Block(long offset, int length, int count, long firstMillis, long lastMillis, String lastId,
+			KeyFilter keys) {
+
+		public boolean overlaps(Date from, Date to) {
+			return (from == null || this.lastMillis >= from.getTime())
+					&& (to == null || this.firstMillis < to.getTime());
+		}
+
+		// false only when no command of the block can pass the filter's command/target/invoker parts
+		public boolean mayMatch(CommandFilter filter) {
+			if (this.keys == null) {
+				return true;
+			}
+			if (filter.command() != null && !this.keys.mightContain(KeyFilter.COMMAND, filter.command())) {
+				return false;
+			}
+			if (filter.targetObjectIds() != null && !filter.targetObjectIds().isEmpty()
+					&& !this.keys.mightContainAny(KeyFilter.TARGET, filter.targetObjectIds())) {
+				return false;
+			}
+			if (filter.invokerEmail() != null && !this.keys.mightContain(KeyFilter.INVOKER, filter.invokerEmail())) {
+				return false;
+			}
+			return true;
+		}
+
+		public String format() {
+			return this.offset + "\t" + this.length + "\t" + this.count + "\t" + this.firstMillis + "\t"
+					+ this.lastMillis + "\t" + this.lastId + (this.keys == null ? "" : "\t" + this.keys.format());
+		}
+
+		public static Block parse(String line) {
+			String[] parts = line.split("\t", 7);
+			return new Block(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+					Long.parseLong(parts[3]), Long.parseLong(parts[4]), parts[5],
+					parts.length > 6 ? KeyFilter.parse(parts[6]) : null);
+		}
+	}
+
+	/**
+	 * Bloom filter over the command names, target object ids and invoker emails of one block,
+	 * about 1% false positives at 10 bits per value. A value it rejects is certainly absent.
+	 */
+	public static final class KeyFilter {
+
+		public static final String COMMAND = "c:";
+		public static final String TARGET = "t:";
+		public static final String INVOKER = "i:";
+
+		private static final int BITS_PER_VALUE = 10;
+		private static final int HASHES = 7;
+
+		private final long[] bits;
+
+		private KeyFilter(long[] bits) {
+			this.bits = bits;
+		}
+
+		// values must carry their field prefix (COMMAND, TARGET or INVOKER)
+		public static KeyFilter of(Collection<String> prefixedValues) {
+			int words = Math.max(1, (prefixedValues.size() * BITS_PER_VALUE + 63) / 64);
+			KeyFilter filter = new KeyFilter(new long[words]);
+			for (String value : prefixedValues) {
+				long hash = hash(value);
+				for (int i = 0; i < HASHES; i++) {
+					int bit = filter.bitOf(hash, i);
+					filter.bits[bit >>> 6] |= 1L << bit;
+				}
+			}
+			return filter;
+		}
+
+		public boolean mightContain(String field, String value) {
+			long hash = hash(field + value);
+			for (int i = 0; i < HASHES; i++) {
+				int bit = this.bitOf(hash, i);
+				if ((this.bits[bit >>> 6] & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public boolean mightContainAny(String field, Collection<String> values) {
+			for (String value : values) {
+				if (this.mightContain(field, value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public String format() {
+			ByteBuffer buffer = ByteBuffer.allocate(this.bits.length * Long.BYTES);
+			buffer.asLongBuffer().put(this.bits);
+			return Base64.getEncoder().withoutPadding().encodeToString(buffer.array());
+		}
+
+		public static KeyFilter parse(String text) {
+			ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(text));
+			long[] bits = new long[buffer.remaining() / Long.BYTES];
+			buffer.asLongBuffer().get(bits);
+			return new KeyFilter(bits);
+		}
+
+		// double hashing over the two halves of a 64-bit FNV-1a hash
+		private int bitOf(long hash, int i) {
+			int combined = (int) hash + i * (int) (hash >>> 32);
+			return Math.floorMod(combined, this.bits.length * 64);
+		}
+
+		private static long hash(String value) {
+			long hash = 0xcbf29ce484222325L;
+			for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+				hash ^= b & 0xff;
+				hash *= 0x100000001b3L;
+			}
+			return hash;
+		}
+	}
+}
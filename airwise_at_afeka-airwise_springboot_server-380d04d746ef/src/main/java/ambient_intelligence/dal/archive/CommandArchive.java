@@ -0,0 +1,433 @@
+package ambient_intelligence.dal.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.dal.CommandFilter;
+import ambient_intelligence.dal.PageCursor;
+import ambient_intelligence.data.CommandEntity;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cold tier of COMMANDS: commands older than the retention cutoff are moved, oldest first, into
+ * immutable gzip-block segment files (see ArchiveSegment) and removed from Mongo.
+ *
+ * Archived keys are always older than every hot key, so newest-first readers take the hot tier
+ * first and continue here. A segment is committed by renaming its .idx into place; the Mongo
+ * delete happens after that, and an interrupted delete is finished by the next run.
+ *
+ * With several server instances the directory must be shared storage that all of them mount (declared
+ * with airwise.commands.archive.shared): whichever instance holds the retention partition writes the
+ * segments, and the others pick them up with refresh(). Leftovers of an interrupted write are then
+ * cleaned up by the next writer rather than at startup, since another instance may be writing them.
+ */
+@Component
+public class CommandArchive {
+
+	private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+	private static final String SEGMENT_SUFFIX = ".seg";
+	private static final String INDEX_SUFFIX = ".idx";
+	private static final String TMP_SUFFIX = ".tmp";
+
+	private final MongoTemplate mongoTemplate;
+	private final Path directory;
+	private final int blockSize;
+	private final boolean shared;
+
+	// oldest first; replaced as a whole so readers never see a half-updated list
+	private volatile List<ArchiveSegment> segments = List.of();
+	private Log log = LogFactory.getLog(CommandArchive.class);
+
+	public CommandArchive(MongoTemplate mongoTemplate,
+			@Value("${airwise.commands.archive.dir:./data/commands-archive}") String directory,
+			@Value("${airwise.commands.archive.block-size:256}") int blockSize,
+			@Value("${airwise.commands.archive.shared:false}") boolean shared) {
+		this.mongoTemplate = mongoTemplate;
+		this.directory = Paths.get(directory);
+		this.blockSize = Math.max(1, blockSize);
+		this.shared = shared;
+	}
+
+	@PostConstruct
+	public synchronized void load() throws IOException {
+		Files.createDirectories(this.directory);
+		this.segments = this.scan(!this.shared);
+
+		if (!this.segments.isEmpty()) {
+			log.info("loaded " + this.segments.size() + " COMMANDS archive segments (" + this.count() + " commands)");
+		}
+	}
+
+	// picks up the segments another instance committed to the shared directory
+	public synchronized void refresh() {
+		try {
+			this.segments = this.scan(false);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public boolean isShared() {
+		return this.shared;
+	}
+
+	public boolean isEmpty() {
+		return this.segments.isEmpty();
+	}
+
+	public long count() {
+		long count = 0;
+		for (ArchiveSegment segment : this.segments) {
+			count += segment.getCount();
+		}
+		return count;
+	}
+
+	public int getSegmentCount() {
+		return this.segments.size();
+	}
+
+	/**
+	 * Moves the commands invoked before cutoff out of Mongo, at most maxPerSegment per segment file.
+	 * Returns how many commands were archived.
+	 */
+	public synchronized long archiveOlderThan(Date cutoff, int maxPerSegment) {
+
+		String collection = this.mongoTemplate.getCollectionName(CommandEntity.class);
+		if (this.shared) {
+			// the previous holder of the retention partition may have written segments since
+			this.refresh();
+		}
+		PageCursor last = this.isEmpty() ? null : this.segments.getLast().getLastKey();
+
+		if (last != null) {
+			this.deleteHotUpTo(collection, last);
+		}
+
+		long archived = 0;
+		while (true) {
+			Criteria criteria = Criteria.where("invocationTimestamp").lt(cutoff);
+			if (last != null) {
+				criteria = new Criteria().andOperator(criteria, newerThan(last));
+			}
+
+			Query query = new Query(criteria).with(Sort.by(Direction.ASC, "invocationTimestamp", "_id"))
+					.limit(maxPerSegment)
+					.cursorBatchSize(this.blockSize);
+
+			ArchiveSegment segment;
+			try (Stream<Document> documents = this.mongoTemplate.stream(query, Document.class, collection)) {
+				segment = this.writeSegment(documents.iterator());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			if (segment == null) {
+				break;
+			}
+
+			List<ArchiveSegment> updated = new ArrayList<>(this.segments);
+			updated.add(segment);
+			this.segments = List.copyOf(updated);
+
+			last = segment.getLastKey();
+			this.deleteHotUpTo(collection, last);
+			archived += segment.getCount();
+
+			if (segment.getCount() < maxPerSegment) {
+				break;
+			}
+		}
+
+		return archived;
+	}
+
+	// newest first after the cursor (null = from the newest), like CommandCrud.findPageAfter;
+	// blocks outside the filter's time range, newer than the cursor, or whose key filter rules out
+	// the filter's command/target/invoker are not read
+	public List<CommandEntity> findPageAfter(CommandFilter filter, PageCursor after, int size) {
+		// a cursor without a timestamp is in the hot tier's untimestamped tail: those commands are never
+		// archived and sort after every dated one, so the whole archive comes after it
+		if (after != null && after.timestamp() == null) {
+			after = null;
+		}
+
+		List<CommandEntity> page = new ArrayList<>();
+		List<ArchiveSegment> segments = this.segments;
+
+		for (int s = segments.size() - 1; s >= 0 && page.size() < size; s--) {
+			ArchiveSegment segment = segments.get(s);
+			List<ArchiveSegment.Block> blocks = segment.getBlocks();
+
+			for (int b = blocks.size() - 1; b >= 0 && page.size() < size; b--) {
+				ArchiveSegment.Block block = blocks.get(b);
+				if (!block.overlaps(filter.from(), filter.to()) || !block.mayMatch(filter)) {
+					continue;
+				}
+				if (after != null && block.firstMillis() > after.timestamp().getTime()) {
+					continue;
+				}
+
+				List<Document> documents = segment.read(block);
+				for (int i = documents.size() - 1; i >= 0 && page.size() < size; i--) {
+					CommandEntity command = this.toEntity(documents.get(i));
+					if ((after == null || after.isAfter(command.getInvocationTimestamp(), command.getId()))
+							&& filter.matches(command)) {
+						page.add(command);
+					}
+				}
+			}
+		}
+
+		return page;
+	}
+
+	// newest first, skipping whole blocks by their index counts
+	public List<CommandEntity> findPage(long offset, int limit) {
+		List<CommandEntity> page = new ArrayList<>();
+		List<ArchiveSegment> segments = this.segments;
+		long toSkip = offset;
+
+		for (int s = segments.size() - 1; s >= 0 && page.size() < limit; s--) {
+			ArchiveSegment segment = segments.get(s);
+			List<ArchiveSegment.Block> blocks = segment.getBlocks();
+
+			for (int b = blocks.size() - 1; b >= 0 && page.size() < limit; b--) {
+				ArchiveSegment.Block block = blocks.get(b);
+				if (toSkip >= block.count()) {
+					toSkip -= block.count();
+					continue;
+				}
+
+				List<Document> documents = segment.read(block);
+				for (int i = documents.size() - 1 - (int) toSkip; i >= 0 && page.size() < limit; i--) {
+					page.add(this.toEntity(documents.get(i)));
+				}
+				toSkip = 0;
+			}
+		}
+
+		return page;
+	}
+
+	// oldest first within [from, to), reading one block at a time; the caller must close the stream
+	public Stream<CommandEntity> stream(Date from, Date to) {
+		CommandFilter range = new CommandFilter(null, null, null, from, to);
+
+		return this.segments.stream()
+				.flatMap(segment -> segment.getBlocks().stream()
+						.filter(block -> block.overlaps(from, to))
+						.flatMap(block -> segment.read(block).stream()))
+				.map(this::toEntity)
+				.filter(range::matches);
+	}
+
+	public synchronized void deleteAll() {
+		List<ArchiveSegment> segments = this.segments;
+		this.segments = List.of();
+
+		for (ArchiveSegment segment : segments) {
+			try {
+				Files.deleteIfExists(segment.getIndexFile());
+				Files.deleteIfExists(segment.getSegmentFile());
+			} catch (IOException e) {
+				log.warn("could not delete archive segment " + segment.getSegmentFile() + ": " + e.getMessage());
+			}
+		}
+	}
+
+	// committed segments, oldest first; the ones already loaded are kept. With cleanUp the leftovers of an
+	// interrupted write are deleted, their commands are still in Mongo
+	private List<ArchiveSegment> scan(boolean cleanUp) throws IOException {
+		Map<Path, ArchiveSegment> known = new HashMap<>();
+		this.segments.forEach(segment -> known.put(segment.getSegmentFile(), segment));
+
+		List<ArchiveSegment> loaded = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+
+				if (name.endsWith(TMP_SUFFIX)) {
+					if (cleanUp) {
+						Files.deleteIfExists(file);
+					}
+				} else if (name.endsWith(SEGMENT_SUFFIX)) {
+					Path index = sibling(file, INDEX_SUFFIX);
+					if (known.containsKey(file)) {
+						loaded.add(known.get(file));
+					} else if (Files.exists(index)) {
+						loaded.add(ArchiveSegment.load(file, index));
+					} else if (cleanUp) {
+						// never committed
+						Files.deleteIfExists(file);
+					}
+				}
+			}
+		}
+
+		loaded.sort((a, b) -> a.getSegmentFile().getFileName().compareTo(b.getSegmentFile().getFileName()));
+		return List.copyOf(loaded);
+	}
+
+	private ArchiveSegment writeSegment(Iterator<Document> documents) throws IOException {
+		if (!documents.hasNext()) {
+			return null;
+		}
+
+		String baseName = String.format("commands-%08d", this.nextSequence());
+		Path segmentFile = this.directory.resolve(baseName + SEGMENT_SUFFIX);
+		Path indexFile = this.directory.resolve(baseName + INDEX_SUFFIX);
+		Path segmentTmp = this.directory.resolve(baseName + SEGMENT_SUFFIX + TMP_SUFFIX);
+		Path indexTmp = this.directory.resolve(baseName + INDEX_SUFFIX + TMP_SUFFIX);
+
+		// left by a writer that stopped before committing this segment
+		Files.deleteIfExists(segmentTmp);
+		Files.deleteIfExists(indexTmp);
+
+		List<ArchiveSegment.Block> blocks = new ArrayList<>();
+		try (FileChannel out = FileChannel.open(segmentTmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			long offset = 0;
+			List<Document> pending = new ArrayList<>(this.blockSize);
+
+			while (documents.hasNext()) {
+				pending.add(documents.next());
+				if (pending.size() == this.blockSize) {
+					offset = writeBlock(out, offset, pending, blocks);
+					pending.clear();
+				}
+			}
+			if (!pending.isEmpty()) {
+				writeBlock(out, offset, pending, blocks);
+			}
+			out.force(true);
+		}
+
+		StringBuilder index = new StringBuilder();
+		for (ArchiveSegment.Block block : blocks) {
+			index.append(block.format()).append('\n');
+		}
+		try (FileChannel out = FileChannel.open(indexTmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.wrap(index.toString().getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+			out.force(true);
+		}
+
+		// the .idx rename is the commit point, see load()
+		Files.move(segmentTmp, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+		Files.move(indexTmp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+
+		ArchiveSegment segment = new ArchiveSegment(segmentFile, indexFile, blocks);
+		log.info("archived " + segment.getCount() + " commands to " + segmentFile.getFileName());
+		return segment;
+	}
+
+	private long writeBlock(FileChannel out, long offset, List<Document> documents,
+			List<ArchiveSegment.Block> blocks) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+			for (Document document : documents) {
+				writer.write(document.toJson(JSON));
+				writer.write('\n');
+			}
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		int length = buffer.remaining();
+		while (buffer.hasRemaining()) {
+			out.write(buffer, offset + (length - buffer.remaining()));
+		}
+
+		Document first = documents.getFirst();
+		Document last = documents.getLast();
+		blocks.add(new ArchiveSegment.Block(offset, length, documents.size(),
+				first.getDate("invocationTimestamp").getTime(), last.getDate("invocationTimestamp").getTime(),
+				last.getString("_id"), this.keysOf(documents)));
+
+		return offset + length;
+	}
+
+	// the values CommandFilter.matches compares, read the same way
+	private ArchiveSegment.KeyFilter keysOf(List<Document> documents) {
+		Set<String> keys = new HashSet<>();
+		for (Document document : documents) {
+			CommandEntity command = this.toEntity(document);
+			if (command.getCommand() != null) {
+				keys.add(ArchiveSegment.KeyFilter.COMMAND + command.getCommand());
+			}
+			if (command.getTargetObject() != null && command.getTargetObject().getId() != null) {
+				keys.add(ArchiveSegment.KeyFilter.TARGET + command.getTargetObject().getId().getObjectId());
+			}
+			if (command.getInvokedBy() != null && command.getInvokedBy().getUserId() != null) {
+				keys.add(ArchiveSegment.KeyFilter.INVOKER + command.getInvokedBy().getUserId().getEmail());
+			}
+		}
+		return ArchiveSegment.KeyFilter.of(keys);
+	}
+
+	private long nextSequence() {
+		if (this.isEmpty()) {
+			return 1;
+		}
+		String name = this.segments.getLast().getSegmentFile().getFileName().toString();
+		return Long.parseLong(name.substring("commands-".length(), name.length() - SEGMENT_SUFFIX.length())) + 1;
+	}
+
+	private void deleteHotUpTo(String collection, PageCursor last) {
+		Criteria archived = new Criteria().orOperator(Criteria.where("invocationTimestamp").lt(last.timestamp()),
+				Criteria.where("invocationTimestamp").is(last.timestamp()).and("_id").lte(last.id()));
+
+		this.mongoTemplate.remove(new Query(archived), collection);
+	}
+
+	private static Criteria newerThan(PageCursor last) {
+		return new Criteria().orOperator(Criteria.where("invocationTimestamp").gt(last.timestamp()),
+				Criteria.where("invocationTimestamp").is(last.timestamp()).and("_id").gt(last.id()));
+	}
+
+	private CommandEntity toEntity(Document document) {
+		return this.mongoTemplate.getConverter().read(CommandEntity.class, document);
+	}
+
+	private static Path sibling(Path file, String suffix) {
+		String name = file.getFileName().toString();
+		return file.resolveSibling(name.substring(0, name.lastIndexOf('.')) + suffix);
+	}
+}
@@ -0,0 +1,84 @@
+package ambient_intelligence.dal.migration;
+
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.utils.AliasGrams;
+
+/**
+ * Fills OBJECTS.aliasGrams for documents written before alias search used it.
+ * New and updated objects get their grams from ObjectEntity.setAlias.
+ * Documents are streamed and written in batches, so the collection is never held in memory.
+ */
+@Component
+@Order(4)
+public class AliasGramsMigration implements ApplicationRunner {
+
+	private static final int BATCH_SIZE = 1000;
+
+	private final MongoTemplate mongoTemplate;
+	private final MigrationLock migrationLock;
+	private Log log = LogFactory.getLog(AliasGramsMigration.class);
+
+	public AliasGramsMigration(MongoTemplate mongoTemplate, MigrationLock migrationLock) {
+		this.mongoTemplate = mongoTemplate;
+		this.migrationLock = migrationLock;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		this.migrationLock.runExclusively("alias-grams-migration", this::migrate);
+	}
+
+	private void migrate() {
+
+		String collection = this.mongoTemplate.getCollectionName(ObjectEntity.class);
+
+		Query pending = new Query(Criteria.where("aliasGrams").exists(false));
+		pending.fields().include("_id").include("alias");
+
+		if (!this.mongoTemplate.exists(pending, collection)) {
+			return;
+		}
+
+		log.info("building OBJECTS.aliasGrams");
+
+		BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, collection);
+		int pendingOps = 0;
+		int count = 0;
+
+		try (Stream<Document> docs = this.mongoTemplate.stream(pending, Document.class, collection)) {
+			for (Document doc : (Iterable<Document>) docs::iterator) {
+				bulk.updateOne(new Query(Criteria.where("_id").is(doc.get("_id"))),
+						new Update().set("aliasGrams", AliasGrams.of(doc.getString("alias"))));
+				count++;
+
+				if (++pendingOps == BATCH_SIZE) {
+					bulk.execute();
+					bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, collection);
+					pendingOps = 0;
+				}
+			}
+		}
+
+		if (pendingOps > 0) {
+			bulk.execute();
+		}
+
+		log.info("built aliasGrams of " + count + " OBJECTS documents");
+	}
+}
@@ -0,0 +1,128 @@
+package ambient_intelligence.dal.migration;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.dal.EnergyRollupCrud;
+import ambient_intelligence.dal.PowerConsumptionCrud;
+import ambient_intelligence.data.EnergyRollupEntity;
+import ambient_intelligence.data.PowerConsumptionEntity;
+import ambient_intelligence.data.RollupGranularity;
+import ambient_intelligence.data.RollupLevel;
+
+/**
+ * Builds ENERGY_ROLLUPS from POWER_CONSUMPTION once, then records that in MIGRATIONS.
+ * New consumption keeps both up to date, so later startups skip it.
+ *
+ * The rollup totals are computed from the whole of POWER_CONSUMPTION and written with $set, so a
+ * rebuild that stopped half way is simply run again on the next startup, without double-counting.
+ */
+@Component
+@Order(3)
+public class EnergyRollupBackfill implements ApplicationRunner {
+
+	private static final String MIGRATIONS_COLLECTION = "MIGRATIONS";
+	private static final String MARKER_ID = "energy-rollup-backfill";
+	private static final int BATCH_SIZE = 1000;
+
+	private final MongoTemplate mongoTemplate;
+	private final PowerConsumptionCrud powerConsumptionCrud;
+	private final EnergyRollupCrud energyRollupCrud;
+	private final MigrationLock migrationLock;
+	private Log log = LogFactory.getLog(EnergyRollupBackfill.class);
+
+	public EnergyRollupBackfill(MongoTemplate mongoTemplate, PowerConsumptionCrud powerConsumptionCrud,
+			EnergyRollupCrud energyRollupCrud, MigrationLock migrationLock) {
+		this.mongoTemplate = mongoTemplate;
+		this.powerConsumptionCrud = powerConsumptionCrud;
+		this.energyRollupCrud = energyRollupCrud;
+		this.migrationLock = migrationLock;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+
+		Query marker = new Query(Criteria.where("_id").is(MARKER_ID));
+
+		this.migrationLock.runExclusively(MARKER_ID, () -> {
+			// checked under the lock: another instance may have just finished
+			if (this.mongoTemplate.exists(marker, MIGRATIONS_COLLECTION)) {
+				return;
+			}
+			this.rebuild();
+			this.mongoTemplate.upsert(marker, new Update().set("completedAt", new Date()), MIGRATIONS_COLLECTION);
+		});
+	}
+
+	// sets every rollup row to the totals of the POWER_CONSUMPTION rows it covers
+	public void rebuild() {
+
+		log.info("building ENERGY_ROLLUPS from POWER_CONSUMPTION");
+
+		Map<String, EnergyRollupEntity> rollups = new LinkedHashMap<>();
+		try (Stream<PowerConsumptionEntity> days = this.powerConsumptionCrud.streamAll()) {
+			days.forEach(day -> this.addDay(rollups, day));
+		}
+
+		List<EnergyRollupEntity> rows = new ArrayList<>(rollups.values());
+		for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+			this.energyRollupCrud.setRollups(rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+		}
+
+		log.info("wrote " + rows.size() + " ENERGY_ROLLUPS rows");
+	}
+
+	// same rows as EnergyRollupCrud.addToRollups: null ids (migrated site-only history) are skipped
+	private void addDay(Map<String, EnergyRollupEntity> rollups, PowerConsumptionEntity day) {
+		LocalDate date = LocalDate.parse(day.getDate());
+
+		for (RollupLevel level : RollupLevel.values()) {
+			String scopeId = switch (level) {
+			case TENANT -> day.getTenantId();
+			case SITE -> day.getSiteId();
+			case ROOM -> day.getRoomId();
+			case AC -> day.getAcId();
+			};
+			if (scopeId == null) {
+				continue;
+			}
+
+			for (RollupGranularity granularity : RollupGranularity.values()) {
+				String periodStart = granularity.periodStartOf(date).toString();
+				EnergyRollupEntity rollup = rollups.computeIfAbsent(
+						level + "|" + scopeId + "|" + granularity + "|" + periodStart, key -> {
+							EnergyRollupEntity row = new EnergyRollupEntity();
+							row.setLevel(level);
+							row.setScopeId(scopeId);
+							row.setGranularity(granularity);
+							row.setPeriodStart(periodStart);
+							row.setTenantId(day.getTenantId());
+							row.setSiteId(level.compareTo(RollupLevel.SITE) >= 0 ? day.getSiteId() : null);
+							row.setRoomId(level.compareTo(RollupLevel.ROOM) >= 0 ? day.getRoomId() : null);
+							row.setAcId(level == RollupLevel.AC ? day.getAcId() : null);
+							return row;
+						});
+
+				rollup.setKwh(rollup.getKwh() + day.getKwh());
+				rollup.setRuntime(rollup.getRuntime() + day.getRuntime());
+				rollup.setCost(rollup.getCost() + day.getCost());
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package ambient_intelligence.dal.migration;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.dal.SchedulerLeaseCrud;
+
+/**
+ * Lets one server instance at a time run a startup migration: a named lease in SCHEDULER_LEASES, taken
+ * before the migration and released after it. The scheduler partitions are no use here, they are only
+ * handed out by the first heartbeat.
+ *
+ * An instance that does not get the lock skips the migration; the migrations are safe to repeat, so
+ * whatever the holder did not finish is done by a later startup. A holder that dies frees the lock
+ * after the ttl.
+ */
+@Component
+public class MigrationLock {
+
+	private final SchedulerLeaseCrud leaseCrud;
+	private final long ttlMillis;
+
+	// an owner of its own, so the scheduler heartbeat never renews or counts the lock as a partition
+	private final String owner = "migrations-" + UUID.randomUUID();
+	private Log log = LogFactory.getLog(MigrationLock.class);
+
+	public MigrationLock(SchedulerLeaseCrud leaseCrud,
+			@Value("${airwise.migrations.lock-ttl-ms:1800000}") long ttlMillis) {
+		this.leaseCrud = leaseCrud;
+		this.ttlMillis = ttlMillis;
+	}
+
+	// false, without running it, while another instance runs the named migration
+	public boolean runExclusively(String name, Runnable migration) {
+		String lockId = "lock:" + name;
+		Date now = new Date();
+
+		if (!this.leaseCrud.claim(lockId, this.owner, now, new Date(now.getTime() + this.ttlMillis))) {
+			log.info(name + " is running on another instance, skipped here");
+			return false;
+		}
+
+		try {
+			migration.run();
+			return true;
+		} finally {
+			this.leaseCrud.release(this.owner, List.of(lockId));
+		}
+	}
+}
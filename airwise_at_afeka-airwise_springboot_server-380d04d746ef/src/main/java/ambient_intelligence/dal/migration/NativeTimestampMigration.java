@@ -0,0 +1,103 @@
+package ambient_intelligence.dal.migration;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.data.CommandEntity;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.utils.DateUtils;
+
+/**
+ * One-shot migration of OBJECTS.creationTimestamp and COMMANDS.invocationTimestamp
+ * from formatted strings to native BSON dates. Only string values are touched,
+ * so running it on every startup is a no-op after the first time.
+ * Values that do not parse are kept as they were, renamed to legacyCreationTimestamp /
+ * legacyInvocationTimestamp, and logged for a manual fix.
+ */
+@Component
+@Order(0)
+public class NativeTimestampMigration implements ApplicationRunner {
+
+	private static final int BATCH_SIZE = 1000;
+
+	private final MongoTemplate mongoTemplate;
+	private final MigrationLock migrationLock;
+	private Log log = LogFactory.getLog(NativeTimestampMigration.class);
+
+	public NativeTimestampMigration(MongoTemplate mongoTemplate, MigrationLock migrationLock) {
+		this.mongoTemplate = mongoTemplate;
+		this.migrationLock = migrationLock;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		this.migrationLock.runExclusively("native-timestamp-migration", () -> {
+			this.migrate(this.mongoTemplate.getCollectionName(ObjectEntity.class), "creationTimestamp");
+			this.migrate(this.mongoTemplate.getCollectionName(CommandEntity.class), "invocationTimestamp");
+		});
+	}
+
+	private void migrate(String collection, String field) {
+
+		Query pending = new Query(Criteria.where(field).type(2)); // 2 = BSON string
+		pending.fields().include("_id").include(field);
+
+		if (!this.mongoTemplate.exists(pending, collection)) {
+			return;
+		}
+
+		log.info("migrating " + collection + "." + field + " to native dates");
+
+		String legacyField = "legacy" + Character.toUpperCase(field.charAt(0)) + field.substring(1);
+		BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, collection);
+		int pendingOps = 0;
+		int migrated = 0;
+		int unparseable = 0;
+
+		try (Stream<Document> docs = this.mongoTemplate.stream(pending, Document.class, collection)) {
+			for (Document doc : (Iterable<Document>) docs::iterator) {
+				String value = doc.getString(field);
+				Date date = DateUtils.parse(value);
+
+				Update update;
+				if (date != null) {
+					update = new Update().set(field, date);
+					migrated++;
+				} else {
+					log.warn(collection + " " + doc.get("_id") + ": unparseable " + field + " '" + value
+							+ "' moved to " + legacyField);
+					update = new Update().rename(field, legacyField);
+					unparseable++;
+				}
+
+				bulk.updateOne(new Query(Criteria.where("_id").is(doc.get("_id"))), update);
+				if (++pendingOps == BATCH_SIZE) {
+					bulk.execute();
+					bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, collection);
+					pendingOps = 0;
+				}
+			}
+		}
+
+		if (pendingOps > 0) {
+			bulk.execute();
+		}
+
+		log.info("migrated " + migrated + " " + collection + "." + field + " values"
+				+ (unparseable > 0 ? ", moved " + unparseable + " unparseable ones to " + legacyField : ""));
+	}
+}
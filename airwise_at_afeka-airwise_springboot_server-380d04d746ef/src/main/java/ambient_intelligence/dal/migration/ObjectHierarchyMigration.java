@@ -0,0 +1,134 @@
+package ambient_intelligence.dal.migration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBRef;
+
+import ambient_intelligence.data.ObjectEntity;
+
+/**
+ * One-shot migration of OBJECTS documents from the old @DBRef parent/childs
+ * fields to parentId + ancestors. Documents already migrated are left untouched,
+ * so running it on every startup is a no-op after the first time.
+ *
+ * Documents are streamed and written in batches; only the id -> parent id map is held
+ * in memory, since every ancestors path needs it.
+ */
+@Component
+@Order(1)
+public class ObjectHierarchyMigration implements ApplicationRunner {
+
+	private static final int BATCH_SIZE = 1000;
+
+	private final MongoTemplate mongoTemplate;
+	private final MigrationLock migrationLock;
+	private Log log = LogFactory.getLog(ObjectHierarchyMigration.class);
+
+	public ObjectHierarchyMigration(MongoTemplate mongoTemplate, MigrationLock migrationLock) {
+		this.mongoTemplate = mongoTemplate;
+		this.migrationLock = migrationLock;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		this.migrationLock.runExclusively("object-hierarchy-migration", this::migrate);
+	}
+
+	private void migrate() {
+
+		String collection = this.mongoTemplate.getCollectionName(ObjectEntity.class);
+
+		Criteria pendingCriteria = new Criteria().orOperator(Criteria.where("parent").exists(true),
+				Criteria.where("childs").exists(true), Criteria.where("ancestors").exists(false));
+
+		if (!this.mongoTemplate.exists(new Query(pendingCriteria), collection)) {
+			return;
+		}
+
+		log.info("migrating OBJECTS hierarchy to parentId/ancestors");
+
+		// 1) parent DBRef -> parentId, for the whole collection in one pass of (id, parent, parentId)
+		Query all = new Query();
+		all.fields().include("_id").include("parent").include("parentId");
+
+		Map<String, String> parentOf = new HashMap<>();
+		try (Stream<Document> docs = this.mongoTemplate.stream(all, Document.class, collection)) {
+			docs.forEach(doc -> {
+				String id = doc.getString("_id");
+				Object parent = doc.get("parent");
+
+				if (parent instanceof DBRef ref) {
+					parentOf.put(id, String.valueOf(ref.getId()));
+				} else if (doc.getString("parentId") != null) {
+					parentOf.put(id, doc.getString("parentId"));
+				}
+			});
+		}
+
+		// 2) materialize each document's ancestors path and drop the old references
+		BulkOperations bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, collection);
+		int pendingOps = 0;
+		int count = 0;
+
+		Query pending = new Query(pendingCriteria);
+		pending.fields().include("_id");
+
+		try (Stream<Document> docs = this.mongoTemplate.stream(pending, Document.class, collection)) {
+			for (Document doc : (Iterable<Document>) docs::iterator) {
+				String id = doc.getString("_id");
+
+				bulk.updateOne(new Query(Criteria.where("_id").is(id)),
+						new Update().set("parentId", parentOf.get(id))
+								.set("ancestors", ancestorsOf(id, parentOf))
+								.unset("parent")
+								.unset("childs"));
+				count++;
+
+				if (++pendingOps == BATCH_SIZE) {
+					bulk.execute();
+					bulk = this.mongoTemplate.bulkOps(BulkMode.UNORDERED, collection);
+					pendingOps = 0;
+				}
+			}
+		}
+
+		if (pendingOps > 0) {
+			bulk.execute();
+		}
+
+		log.info("migrated hierarchy of " + count + " OBJECTS documents");
+	}
+
+	private List<String> ancestorsOf(String id, Map<String, String> parentOf) {
+		List<String> ancestors = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+
+		String current = parentOf.get(id);
+		while (current != null && seen.add(current)) {
+			ancestors.add(0, current);
+			current = parentOf.get(current);
+		}
+
+		return ancestors;
+	}
+}
@@ -0,0 +1,93 @@
+package ambient_intelligence.dal.migration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.dal.PowerConsumptionCrud;
+import ambient_intelligence.data.ObjectEntity;
+
+/**
+ * One-shot move of Site objectDetails.powerConsumptionLogs into POWER_CONSUMPTION.
+ * The old logs were kept per site only, so they become site rows without room/AC.
+ * Each site's days are summed first and written with $set, so a run that stops before the
+ * logs are unset can simply be repeated.
+ */
+@Component
+@Order(2)
+public class PowerConsumptionLogMigration implements ApplicationRunner {
+
+	private final MongoTemplate mongoTemplate;
+	private final PowerConsumptionCrud powerConsumptionCrud;
+	private final MigrationLock migrationLock;
+	private Log log = LogFactory.getLog(PowerConsumptionLogMigration.class);
+
+	public PowerConsumptionLogMigration(MongoTemplate mongoTemplate, PowerConsumptionCrud powerConsumptionCrud,
+			MigrationLock migrationLock) {
+		this.mongoTemplate = mongoTemplate;
+		this.powerConsumptionCrud = powerConsumptionCrud;
+		this.migrationLock = migrationLock;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		this.migrationLock.runExclusively("power-consumption-log-migration", this::migrate);
+	}
+
+	private void migrate() {
+
+		String collection = this.mongoTemplate.getCollectionName(ObjectEntity.class);
+
+		Query pending = new Query(Criteria.where("objectDetails.powerConsumptionLogs").exists(true));
+		pending.fields().include("_id").include("parentId").include("objectDetails.powerConsumptionLogs");
+
+		List<Document> sites = this.mongoTemplate.find(pending, Document.class, collection);
+		if (sites.isEmpty()) {
+			return;
+		}
+
+		log.info("migrating powerConsumptionLogs of " + sites.size() + " sites to POWER_CONSUMPTION");
+
+		for (Document site : sites) {
+			String siteId = site.getString("_id");
+			Object logs = site.get("objectDetails", Document.class).get("powerConsumptionLogs");
+
+			// the same date may appear more than once in the old logs
+			Map<String, double[]> days = new LinkedHashMap<>();
+			if (logs instanceof List<?> entries) {
+				for (Object entry : entries) {
+					if (entry instanceof Document day && day.getString("date") != null) {
+						double[] totals = days.computeIfAbsent(day.getString("date"), date -> new double[3]);
+						totals[0] += number(day.get("kwh"));
+						totals[1] += number(day.get("runtime"));
+						totals[2] += number(day.get("cost"));
+					}
+				}
+			}
+
+			for (Map.Entry<String, double[]> day : days.entrySet()) {
+				this.powerConsumptionCrud.setConsumption(site.getString("parentId"), siteId, null, null, day.getKey(),
+						day.getValue()[0], day.getValue()[1], day.getValue()[2]);
+			}
+
+			this.mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(siteId)),
+					new Update().unset("objectDetails.powerConsumptionLogs"), collection);
+		}
+	}
+
+	private double number(Object value) {
+		return value instanceof Number number ? number.doubleValue() : 0;
+	}
+}
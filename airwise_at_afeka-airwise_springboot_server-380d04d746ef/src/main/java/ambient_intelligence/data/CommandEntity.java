@@ -1,8 +1,11 @@
 package ambient_intelligence.data;
 
+import java.util.Date;
 import java.util.Map;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import ambient_intelligence.logic.boundaries.CommandId;
 import ambient_intelligence.logic.boundaries.InvokedBy;
@@ -10,13 +13,18 @@ import ambient_intelligence.logic.boundaries.TargetObject;
 import ambient_intelligence.utils.AirwiseConfig;
 
 @Document(collection = "COMMANDS")
+@CompoundIndexes({
+		@CompoundIndex(name = "invoked", def = "{ 'invocationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "target_invoked", def = "{ 'targetObject.id.objectId': 1, 'invocationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "command_invoked", def = "{ 'command': 1, 'invocationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "invoker_invoked", def = "{ 'invokedBy.userId.email': 1, 'invocationTimestamp': -1, '_id': -1 }") })
 public class CommandEntity {
 	
 	@Id
 	private String id;
 	private String command;
 	private TargetObject targetObject;
-	private String invocationTimestamp;
+	private Date invocationTimestamp;
 	private InvokedBy invokedBy;
 	private Map<String, Object> commandAttributes;
 
@@ -47,11 +55,11 @@ public class CommandEntity {
 		this.targetObject = targetObject;
 	}
 
-	public String getInvocationTimestamp() {
+	public Date getInvocationTimestamp() {
 		return invocationTimestamp;
 	}
 
-	public void setInvocationTimestamp(String invocationTimestamp) {
+	public void setInvocationTimestamp(Date invocationTimestamp) {
 		this.invocationTimestamp = invocationTimestamp;
 	}
 
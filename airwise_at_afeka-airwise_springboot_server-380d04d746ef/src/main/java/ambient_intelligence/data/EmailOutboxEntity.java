@@ -0,0 +1,134 @@
+package ambient_intelligence.data;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "EMAIL_OUTBOX")
+@CompoundIndex(name = "status_nextAttemptAt", def = "{ 'status': 1, 'nextAttemptAt': 1 }")
+public class EmailOutboxEntity {
+
+	@Id
+	private String id;
+	private String sender;
+	private String receiver;
+	private String subject;
+	private String body;
+	private EmailOutboxStatus status;
+	private int attempts;
+	private Date createdAt;
+	private Date nextAttemptAt;
+	private Date claimedAt;
+	// only SENT emails have it: they are purged a week after delivery, failed ones are kept
+	@Indexed(name = "sentAt_ttl", expireAfter = "7d")
+	private Date sentAt;
+	private String lastError;
+
+	public EmailOutboxEntity() {
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getSender() {
+		return sender;
+	}
+
+	public void setSender(String sender) {
+		this.sender = sender;
+	}
+
+	public String getReceiver() {
+		return receiver;
+	}
+
+	public void setReceiver(String receiver) {
+		this.receiver = receiver;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public void setSubject(String subject) {
+		this.subject = subject;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	public EmailOutboxStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(EmailOutboxStatus status) {
+		this.status = status;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Date getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Date createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public Date getNextAttemptAt() {
+		return nextAttemptAt;
+	}
+
+	public void setNextAttemptAt(Date nextAttemptAt) {
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	public Date getClaimedAt() {
+		return claimedAt;
+	}
+
+	public void setClaimedAt(Date claimedAt) {
+		this.claimedAt = claimedAt;
+	}
+
+	public Date getSentAt() {
+		return sentAt;
+	}
+
+	public void setSentAt(Date sentAt) {
+		this.sentAt = sentAt;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	@Override
+	public String toString() {
+		return "EmailOutboxEntity [id=" + id + ", receiver=" + receiver + ", subject=" + subject + ", status="
+				+ status + ", attempts=" + attempts + ", nextAttemptAt=" + nextAttemptAt + "]";
+	}
+}
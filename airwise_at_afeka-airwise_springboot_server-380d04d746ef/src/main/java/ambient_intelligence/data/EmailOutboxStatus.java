@@ -0,0 +1,5 @@
+package ambient_intelligence.data;
+
+public enum EmailOutboxStatus {
+	PENDING, SENDING, SENT, FAILED
+}
@@ -0,0 +1,149 @@
+package ambient_intelligence.data;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * kWh, runtime and cost of one object (scopeId at level) over one day, week or month.
+ * The ids of the object's ancestors are kept so a report can group the rows below any of them.
+ */
+@Document(collection = "ENERGY_ROLLUPS")
+@CompoundIndexes({
+		@CompoundIndex(name = "level_scope_granularity_period", def = "{ 'level': 1, 'scopeId': 1, 'granularity': 1, 'periodStart': 1 }", unique = true),
+		@CompoundIndex(name = "level_granularity_tenant_period", def = "{ 'level': 1, 'granularity': 1, 'tenantId': 1, 'periodStart': 1 }"),
+		@CompoundIndex(name = "level_granularity_site_period", def = "{ 'level': 1, 'granularity': 1, 'siteId': 1, 'periodStart': 1 }"),
+		@CompoundIndex(name = "level_granularity_room_period", def = "{ 'level': 1, 'granularity': 1, 'roomId': 1, 'periodStart': 1 }") })
+public class EnergyRollupEntity {
+
+	@Id
+	private String id;
+	private RollupLevel level;
+	private String scopeId;
+	private String tenantId;
+	private String siteId;
+	private String roomId;
+	private String acId;
+	private RollupGranularity granularity;
+	private String periodStart;
+	private double kwh;
+	private double runtime;
+	private double cost;
+	private Date updatedAt;
+
+	public EnergyRollupEntity() {
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public RollupLevel getLevel() {
+		return level;
+	}
+
+	public void setLevel(RollupLevel level) {
+		this.level = level;
+	}
+
+	public String getScopeId() {
+		return scopeId;
+	}
+
+	public void setScopeId(String scopeId) {
+		this.scopeId = scopeId;
+	}
+
+	public String getTenantId() {
+		return tenantId;
+	}
+
+	public void setTenantId(String tenantId) {
+		this.tenantId = tenantId;
+	}
+
+	public String getSiteId() {
+		return siteId;
+	}
+
+	public void setSiteId(String siteId) {
+		this.siteId = siteId;
+	}
+
+	public String getRoomId() {
+		return roomId;
+	}
+
+	public void setRoomId(String roomId) {
+		this.roomId = roomId;
+	}
+
+	public String getAcId() {
+		return acId;
+	}
+
+	public void setAcId(String acId) {
+		this.acId = acId;
+	}
+
+	public RollupGranularity getGranularity() {
+		return granularity;
+	}
+
+	public void setGranularity(RollupGranularity granularity) {
+		this.granularity = granularity;
+	}
+
+	public String getPeriodStart() {
+		return periodStart;
+	}
+
+	public void setPeriodStart(String periodStart) {
+		this.periodStart = periodStart;
+	}
+
+	public double getKwh() {
+		return kwh;
+	}
+
+	public void setKwh(double kwh) {
+		this.kwh = kwh;
+	}
+
+	public double getRuntime() {
+		return runtime;
+	}
+
+	public void setRuntime(double runtime) {
+		this.runtime = runtime;
+	}
+
+	public double getCost() {
+		return cost;
+	}
+
+	public void setCost(double cost) {
+		this.cost = cost;
+	}
+
+	public Date getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Date updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "EnergyRollupEntity [level=" + level + ", scopeId=" + scopeId + ", granularity=" + granularity
+				+ ", periodStart=" + periodStart + ", kwh=" + kwh + ", runtime=" + runtime + ", cost=" + cost + "]";
+	}
+}
@@ -1,31 +1,52 @@
 package ambient_intelligence.data;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import ambient_intelligence.logic.boundaries.CreatedBy;
 import ambient_intelligence.logic.boundaries.ObjectId;
 import ambient_intelligence.utils.AirwiseConfig;
+import ambient_intelligence.utils.AliasGrams;
 
 @Document(collection = "OBJECTS")
+// one index per ObjectCrud filter shape, each ending with the (creationTimestamp, id) page sort
+@CompoundIndexes({
+		@CompoundIndex(name = "active_created", def = "{ 'active': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		// OPERATOR listings do not filter on active
+		@CompoundIndex(name = "created", def = "{ 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "type_created", def = "{ 'type': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "status_created", def = "{ 'status': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "type_status_created", def = "{ 'type': 1, 'status': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "alias_active_created", def = "{ 'alias': 1, 'active': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "aliasGrams_active", def = "{ 'aliasGrams': 1, 'active': 1 }"),
+		@CompoundIndex(name = "type_active_created", def = "{ 'type': 1, 'active': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "status_active_created", def = "{ 'status': 1, 'active': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "type_status_active_created", def = "{ 'type': 1, 'status': 1, 'active': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "parentId_active_created", def = "{ 'parentId': 1, 'active': 1, 'creationTimestamp': -1, '_id': -1 }"),
+		@CompoundIndex(name = "parentId_type_active", def = "{ 'parentId': 1, 'type': 1, 'active': 1 }"),
+		@CompoundIndex(name = "ancestors_type_active", def = "{ 'ancestors': 1, 'type': 1, 'active': 1 }") })
 public class ObjectEntity {
 
 	@Id
 	private String id;
 	private String type;
 	private String alias;
+	// derived from alias, see AliasGrams
+	private List<String> aliasGrams = new ArrayList<>();
 	private String status;
 	private boolean active;
-	private String creationTimestamp;
+	private Date creationTimestamp;
 	private CreatedBy createdBy;
 	private Map<String, Object> objectDetails;
 	
-	@DBRef
-	private ObjectEntity parent;
-	@DBRef
-	private List<ObjectEntity> childs;
+	// hierarchy: direct parent id and the materialized path of ancestor ids (root first)
+	private String parentId;
+	private List<String> ancestors = new ArrayList<>();
 
 	public ObjectEntity() {
 	}
@@ -56,6 +77,15 @@ public class ObjectEntity {
 
 	public void setAlias(String alias) {
 		this.alias = alias;
+		this.aliasGrams = AliasGrams.of(alias);
+	}
+
+	public List<String> getAliasGrams() {
+		return aliasGrams;
+	}
+
+	public void setAliasGrams(List<String> aliasGrams) {
+		this.aliasGrams = aliasGrams;
 	}
 
 	public String getStatus() {
@@ -74,11 +104,11 @@ public class ObjectEntity {
 		this.active = active;
 	}
 
-	public String getCreationTimestamp() {
+	public Date getCreationTimestamp() {
 		return creationTimestamp;
 	}
 
-	public void setCreationTimestamp(String creationTimestamp) {
+	public void setCreationTimestamp(Date creationTimestamp) {
 		this.creationTimestamp = creationTimestamp;
 	}
 
@@ -98,27 +128,27 @@ public class ObjectEntity {
 		this.objectDetails = objectDetails;
 	}
 	
-	public ObjectEntity getParent() {
-		return parent;
+	public String getParentId() {
+		return parentId;
 	}
 
-	public void setParent(ObjectEntity parent) {
-		this.parent = parent;
+	public void setParentId(String parentId) {
+		this.parentId = parentId;
 	}
 	
-	public List<ObjectEntity> getChilds() {
-		return childs;
+	public List<String> getAncestors() {
+		return ancestors;
 	}
 
-	public void setChilds(List<ObjectEntity> childs) {
-		this.childs = childs;
+	public void setAncestors(List<String> ancestors) {
+		this.ancestors = ancestors;
 	}
 
 	@Override
 	public String toString() {
 		return "ObjectEntity [id=" + id + ", type=" + type + ", alias=" + alias + ", status=" + status + ", active="
-				+ active + ", creationTimestamp=" + creationTimestamp + ", createdBy=" + createdBy + ", parent="
-				+ parent + ", objectDetails=" + objectDetails + "]";
+				+ active + ", creationTimestamp=" + creationTimestamp + ", createdBy=" + createdBy + ", parentId="
+				+ parentId + ", objectDetails=" + objectDetails + "]";
 	}
 
 }
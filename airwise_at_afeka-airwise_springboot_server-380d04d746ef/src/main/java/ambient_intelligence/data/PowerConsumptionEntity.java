@@ -0,0 +1,123 @@
+package ambient_intelligence.data;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Power consumption of one AC on one day (yyyy-MM-dd), accumulated with $inc.
+ * roomId/acId are null for history migrated from the old per-site logs.
+ */
+@Document(collection = "POWER_CONSUMPTION")
+@CompoundIndexes({
+		@CompoundIndex(name = "site_room_ac_date", def = "{ 'siteId': 1, 'roomId': 1, 'acId': 1, 'date': 1 }", unique = true),
+		@CompoundIndex(name = "tenant_date", def = "{ 'tenantId': 1, 'date': -1 }"),
+		@CompoundIndex(name = "site_date", def = "{ 'siteId': 1, 'date': -1 }"),
+		@CompoundIndex(name = "room_date", def = "{ 'roomId': 1, 'date': -1 }"),
+		@CompoundIndex(name = "ac_date", def = "{ 'acId': 1, 'date': -1 }") })
+public class PowerConsumptionEntity {
+
+	@Id
+	private String id;
+	private String tenantId;
+	private String siteId;
+	private String roomId;
+	private String acId;
+	private String date;
+	private double kwh;
+	private double runtime;
+	private double cost;
+	private Date updatedAt;
+
+	public PowerConsumptionEntity() {
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getTenantId() {
+		return tenantId;
+	}
+
+	public void setTenantId(String tenantId) {
+		this.tenantId = tenantId;
+	}
+
+	public String getSiteId() {
+		return siteId;
+	}
+
+	public void setSiteId(String siteId) {
+		this.siteId = siteId;
+	}
+
+	public String getRoomId() {
+		return roomId;
+	}
+
+	public void setRoomId(String roomId) {
+		this.roomId = roomId;
+	}
+
+	public String getAcId() {
+		return acId;
+	}
+
+	public void setAcId(String acId) {
+		this.acId = acId;
+	}
+
+	public String getDate() {
+		return date;
+	}
+
+	public void setDate(String date) {
+		this.date = date;
+	}
+
+	public double getKwh() {
+		return kwh;
+	}
+
+	public void setKwh(double kwh) {
+		this.kwh = kwh;
+	}
+
+	public double getRuntime() {
+		return runtime;
+	}
+
+	public void setRuntime(double runtime) {
+		this.runtime = runtime;
+	}
+
+	public double getCost() {
+		return cost;
+	}
+
+	public void setCost(double cost) {
+		this.cost = cost;
+	}
+
+	public Date getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Date updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "PowerConsumptionEntity [siteId=" + siteId + ", roomId=" + roomId + ", acId=" + acId + ", date=" + date
+				+ ", kwh=" + kwh + ", runtime=" + runtime + ", cost=" + cost + "]";
+	}
+}
@@ -0,0 +1,22 @@
+package ambient_intelligence.data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum RollupGranularity {
+	DAY, WEEK, MONTH;
+
+	// first day of the period containing day (weeks start on Monday)
+	public LocalDate periodStartOf(LocalDate day) {
+		return switch (this) {
+		case DAY -> day;
+		case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+		case MONTH -> day.withDayOfMonth(1);
+		};
+	}
+
+	public static RollupGranularity fromString(String input) {
+		return RollupGranularity.valueOf(input.trim().toUpperCase());
+	}
+}
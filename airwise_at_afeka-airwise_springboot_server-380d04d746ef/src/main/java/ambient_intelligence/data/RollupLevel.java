@@ -0,0 +1,30 @@
+package ambient_intelligence.data;
+
+public enum RollupLevel {
+	TENANT("tenantId"), SITE("siteId"), ROOM("roomId"), AC("acId");
+
+	// field of ENERGY_ROLLUPS / POWER_CONSUMPTION holding the id of an object of this level
+	private final String idField;
+
+	RollupLevel(String idField) {
+		this.idField = idField;
+	}
+
+	public String getIdField() {
+		return idField;
+	}
+
+	public static RollupLevel fromObjectType(String type) {
+		return switch (type) {
+		case "Tenant" -> TENANT;
+		case "Site" -> SITE;
+		case "Room" -> ROOM;
+		case "AirConditioner" -> AC;
+		default -> null;
+		};
+	}
+
+	public static RollupLevel fromString(String input) {
+		return RollupLevel.valueOf(input.trim().toUpperCase());
+	}
+}
@@ -0,0 +1,53 @@
+package ambient_intelligence.data;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Lease on one scheduler partition: only the owner runs the scheduled work of that partition, and
+ * only until expiresAt unless it renews the lease.
+ */
+@Document(collection = "SCHEDULER_LEASES")
+@CompoundIndex(name = "owner_expiresAt", def = "{ 'owner': 1, 'expiresAt': 1 }")
+public class SchedulerLeaseEntity {
+
+	@Id
+	private String id;
+	private String owner;
+	private Date expiresAt;
+
+	public SchedulerLeaseEntity() {
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	@Override
+	public String toString() {
+		return "SchedulerLeaseEntity [id=" + id + ", owner=" + owner + ", expiresAt=" + expiresAt + "]";
+	}
+}
@@ -0,0 +1,58 @@
+package ambient_intelligence.data;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Heartbeat of one running server instance; a node counts as live until expiresAt.
+ */
+@Document(collection = "SCHEDULER_NODES")
+public class SchedulerNodeEntity {
+
+	@Id
+	private String id;
+	private Date heartbeatAt;
+	@Indexed
+	private Date expiresAt;
+
+	public SchedulerNodeEntity() {
+	}
+
+	public SchedulerNodeEntity(String id, Date heartbeatAt, Date expiresAt) {
+		this.id = id;
+		this.heartbeatAt = heartbeatAt;
+		this.expiresAt = expiresAt;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Date getHeartbeatAt() {
+		return heartbeatAt;
+	}
+
+	public void setHeartbeatAt(Date heartbeatAt) {
+		this.heartbeatAt = heartbeatAt;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	@Override
+	public String toString() {
+		return "SchedulerNodeEntity [id=" + id + ", heartbeatAt=" + heartbeatAt + ", expiresAt=" + expiresAt + "]";
+	}
+}
@@ -1,6 +1,7 @@
 package ambient_intelligence.data;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import ambient_intelligence.logic.boundaries.UserId;
 import ambient_intelligence.utils.AirwiseConfig;
@@ -10,6 +11,7 @@ public class UserEntity {
 
 	@Id
 	private String userId;
+	@Indexed
 	private UserRole role;
 	private String username;
 	private String avatar;
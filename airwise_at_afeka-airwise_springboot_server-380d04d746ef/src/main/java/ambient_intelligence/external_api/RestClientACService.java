@@ -7,11 +7,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.HttpClientErrorException;
 import ambient_intelligence.logic.boundaries.ACResponse;
+import ambient_intelligence.logic.boundaries.ACState;
+import ambient_intelligence.logic.boundaries.ACStatesResponse;
 import ambient_intelligence.logic.exceptions.ExternalApiException;
 import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
 import ambient_intelligence.logic.exceptions.ObjectNotFoundException;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,11 +23,14 @@ public class RestClientACService {
 
     private final RestClient restClient;
     private final String baseUrl;
+    private final int batchSize;
 
     public RestClientACService(RestClient restClient,
-                               @Value("${external.api.demoac.base_url:http://localhost:3001/api/ac}") String baseUrl) {
+                               @Value("${external.api.demoac.base_url:http://localhost:3001/api/ac}") String baseUrl,
+                               @Value("${external.api.demoac.batch-size:100}") int batchSize) {
         this.restClient = restClient;
         this.baseUrl = baseUrl;
+        this.batchSize = Math.max(1, batchSize);
     }
 
     public ACResponse getACStateBySerial(String serial) {
@@ -47,6 +54,53 @@ public class RestClientACService {
         }
     }
 
+    /**
+     * Fetches the state of many ACs with one request per chunk of batch-size serials.
+     * Serials unknown to the AC api are simply absent from the returned map.
+     */
+    public Map<String, ACState> getACStatesBySerials(Collection<String> serials) {
+    	
+    	List<String> distinct = serials.stream()
+    			.filter(serial -> serial != null && !serial.isBlank())
+    			.distinct()
+    			.toList();
+    	
+    	Map<String, ACState> states = new HashMap<>();
+    	
+    	for (int from = 0; from < distinct.size(); from += this.batchSize) {
+    		
+    		List<String> chunk = distinct.subList(from, Math.min(from + this.batchSize, distinct.size()));
+    		
+    		ACStatesResponse response;
+    		try {
+    			
+    			response = restClient.post()
+    					.uri(baseUrl + "/states")
+    					.contentType(MediaType.APPLICATION_JSON)
+    					.accept(MediaType.APPLICATION_JSON)
+    					.body(Map.of("serials", chunk))
+    					.retrieve()
+    					.body(ACStatesResponse.class);
+    			
+    		} catch (HttpClientErrorException.BadRequest e) {
+    			
+    			throw new InvalidRequestInputException("Invalid input: " + e.getResponseBodyAsString(), e);
+    			
+    		} catch (Exception e) {
+    			throw new ExternalApiException("Error calling external API", e);
+    			
+    		}
+    		
+    		if (response != null && response.getAcStates() != null) {
+    			for (ACState state : response.getAcStates()) {
+    				states.put(state.getSerial(), state);
+    			}
+    		}
+    	}
+    	
+    	return states;
+    }
+
     public ACResponse setACState(String serial, boolean power, double temperature, String mode, String fanSpeed) {
         
     	Map<String, Object> body = new HashMap<>();
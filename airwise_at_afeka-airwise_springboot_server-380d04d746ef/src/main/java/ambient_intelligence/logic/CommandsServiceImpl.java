@@ -5,11 +5,11 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -23,7 +23,10 @@ import org.springframework.transaction.annotation.Transactional;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import ambient_intelligence.dal.CommandCrud;
+import ambient_intelligence.dal.CommandFilter;
 import ambient_intelligence.dal.ObjectCrud;
+import ambient_intelligence.dal.PageCursor;
+import ambient_intelligence.dal.archive.CommandArchive;
 import ambient_intelligence.dal.UserCrud;
 import ambient_intelligence.data.ActionType;
 import ambient_intelligence.data.CommandEntity;
@@ -33,27 +36,26 @@ import ambient_intelligence.data.UserEntity;
 import ambient_intelligence.data.UserRole;
 import ambient_intelligence.external_api.RestClientACService;
 import ambient_intelligence.logic.boundaries.ACResponse;
+import ambient_intelligence.logic.boundaries.AcDispatchResult;
 import ambient_intelligence.logic.boundaries.ACState;
 import ambient_intelligence.logic.boundaries.CommandBoundary;
 import ambient_intelligence.logic.boundaries.CommandId;
-import ambient_intelligence.logic.boundaries.CreatedBy;
+import ambient_intelligence.logic.boundaries.CursorPage;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 import ambient_intelligence.logic.boundaries.ObjectId;
-import ambient_intelligence.logic.boundaries.PowerConsumptionLog;
 import ambient_intelligence.logic.boundaries.TargetObject;
-import ambient_intelligence.logic.boundaries.UserId;
 import ambient_intelligence.logic.converters.CommandConverter;
 import ambient_intelligence.logic.converters.ObjectConverter;
 import ambient_intelligence.logic.exceptions.ExternalApiException;
 import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
 import ambient_intelligence.logic.exceptions.ObjectNotFoundException;
 import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import ambient_intelligence.logic.scheduling.ScheduledTaskIndex;
 import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.logic.security.SystemOperator;
 import ambient_intelligence.utils.AirWiseValidator;
 import ambient_intelligence.utils.AirwiseConfig;
 import ambient_intelligence.utils.DateUtils;
-import ambient_intelligence.utils.EmailRequest;
-import ambient_intelligence.utils.EmailService;
 import ambient_intelligence.utils.ValueParser;
 
 @Service
@@ -67,22 +69,26 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 	private final AirWiseValidator validator;
 	private final AuthorizationService authz;
 	private final RestClientACService restClient;
-	private final EmailService emailService;
 	private final ObjectsService objectsService;
+	private final SystemOperator systemOperator;
+	private final ParallelAcDispatcher acDispatcher;
+	private final NotificationService notificationService;
+	private final EnergyService energyService;
+	private final CommandArchive commandArchive;
+	private final ScheduledTaskIndex taskIndex;
     private Log log = LogFactory.getLog(CommandsServiceImpl.class);
     
     @Autowired
     private ObjectMapper objectMapper;
 
 
-	private static final String SYSTEM_OPERATOR_EMAIL = "SystemOperator@airwise.com";
-
 	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
 	public CommandsServiceImpl(CommandCrud commandCrud, ObjectCrud objectCrud, UserCrud userCrud,
 			CommandConverter commandConverter, AirWiseValidator validator, AuthorizationService authz,
-			RestClientACService restClient, EmailService emailService, ObjectsService objectsService,
-			ObjectConverter objectConverter) {
+			RestClientACService restClient, ObjectsService objectsService, ObjectConverter objectConverter,
+			SystemOperator systemOperator, ParallelAcDispatcher acDispatcher, NotificationService notificationService,
+			EnergyService energyService, CommandArchive commandArchive, ScheduledTaskIndex taskIndex) {
 
 		this.commandCrud = commandCrud;
 		this.objectCrud = objectCrud;
@@ -91,9 +97,14 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 		this.validator = validator;
 		this.authz = authz;
 		this.restClient = restClient;
-		this.emailService = emailService;
 		this.objectsService = objectsService;
 		this.objectConverter = objectConverter;
+		this.systemOperator = systemOperator;
+		this.acDispatcher = acDispatcher;
+		this.notificationService = notificationService;
+		this.energyService = energyService;
+		this.commandArchive = commandArchive;
+		this.taskIndex = taskIndex;
 	}
 
 	@Override
@@ -123,20 +134,26 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 
 		CommandEntity commandEntity = this.commandConverter.toEntity(command);
 
-		commandEntity.setInvocationTimestamp(DateUtils.getCurrentFormattedDate());
+		commandEntity.setInvocationTimestamp(new Date());
 
 		this.commandCrud.save(commandEntity);
 
-		switch (command.getCommand()) {
-		case "VERIFY_AC_BY_SERIAL_THEN_ADD" -> handleVerifyAcBySerialThenAdd(commandEntity, target);
-		case "UPDATE_AC_STATE" -> handleUpdateACState(commandEntity, target);
-		case "SCHEDULE_TASK" -> handleScheduleTask(commandEntity, target);
-		case "ROOM_ACS_CONTROL" -> handleRoomAcsControl(commandEntity, target);
-		case "DELETE_ENTITY_WITH_CHILDREN" -> handleDeleteEntityWithChildren(commandEntity, target);
-		default -> throw new InvalidRequestInputException("Unknown command: " + command.getCommand());
-		}
+		List<Object> response = new ArrayList<>();
+		response.add(this.commandConverter.toBoundary(commandEntity));
+
+		// notifications raised by the command reach each user as one notification and one email
+		this.notificationService.coalesce(() -> {
+			switch (command.getCommand()) {
+			case "VERIFY_AC_BY_SERIAL_THEN_ADD" -> handleVerifyAcBySerialThenAdd(commandEntity, target);
+			case "UPDATE_AC_STATE" -> handleUpdateACState(commandEntity, target);
+			case "SCHEDULE_TASK" -> handleScheduleTask(commandEntity, target);
+			case "ROOM_ACS_CONTROL" -> response.addAll(handleRoomAcsControl(commandEntity, target));
+			case "DELETE_ENTITY_WITH_CHILDREN" -> handleDeleteEntityWithChildren(commandEntity, target);
+			default -> throw new InvalidRequestInputException("Unknown command: " + command.getCommand());
+			}
+		});
 
-		return List.of(this.commandConverter.toBoundary(commandEntity));
+		return response;
 
 	}
 
@@ -151,8 +168,87 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 			throw new UnauthorizedException("Unauthorized action.");
 		}
 
-		return this.commandCrud.findAll(PageRequest.of(page, size)).stream().map(this.commandConverter::toBoundary)
-				.toList();
+		// newest first, served by the invocation-time index
+		Pageable pageable = PageRequest.of(page, size, Direction.DESC, "invocationTimestamp", "id");
+		List<CommandEntity> commands = new ArrayList<>(this.commandCrud.findAll(pageable).getContent());
+
+		// past the hot tier: continue in the archive, whose commands are all older
+		if (commands.size() < size && !this.commandArchive.isEmpty()) {
+			long archiveOffset = commands.isEmpty() ? Math.max(0, pageable.getOffset() - this.commandCrud.count()) : 0;
+			commands.addAll(this.commandArchive.findPage(archiveOffset, size - commands.size()));
+		}
+
+		return commands.stream().map(this.commandConverter::toBoundary).toList();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<CommandBoundary> getAllCommandsHistory(String userSystemID, String userEmail, int size,
+			String cursor) {
+		return this.searchCommandsHistory(userSystemID, userEmail, null, null, null, null, null, size, cursor);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<CommandBoundary> searchCommandsHistory(String userSystemID, String userEmail, String command,
+			String targetObjectId, String invokedBy, String from, String to, int size, String cursor) {
+
+		this.validator.isValidPaginationInputs(size, 0);
+
+		if (!this.authz.ensureRole(userSystemID, userEmail, UserRole.ADMIN)) {
+			throw new UnauthorizedException("Unauthorized action.");
+		}
+
+		PageCursor after = null;
+		if (cursor != null && !cursor.isBlank()) {
+			try {
+				after = PageCursor.decode(cursor);
+			} catch (IllegalArgumentException e) {
+				throw new InvalidRequestInputException("Invalid input - cursor param is invalid");
+			}
+		}
+
+		Date fromDate = parseHistoryBound("from", from);
+		Date toDate = parseHistoryBound("to", to);
+
+		// commands store the target either as its objectId or as the full systemID#::#objectId
+		List<String> targetIds = null;
+		if (targetObjectId != null && !targetObjectId.isBlank()) {
+			targetIds = List.of(targetObjectId,
+					AirwiseConfig.getSystemID() + AirwiseConfig.getIdSeparator() + targetObjectId);
+		}
+
+		CommandFilter filter = new CommandFilter(blankToNull(command), targetIds, blankToNull(invokedBy), fromDate,
+				toDate);
+
+		List<CommandEntity> commands = new ArrayList<>(this.commandCrud.findPageAfter(filter, after, size));
+		if (commands.size() < size && !this.commandArchive.isEmpty()) {
+			commands.addAll(this.commandArchive.findPageAfter(filter, after, size - commands.size()));
+		}
+
+		String nextCursor = null;
+		if (commands.size() == size) {
+			CommandEntity last = commands.getLast();
+			nextCursor = new PageCursor(last.getInvocationTimestamp(), last.getId()).encode();
+		}
+
+		return new CursorPage<>(commands.stream().map(this.commandConverter::toBoundary).toList(), nextCursor);
+	}
+
+	private Date parseHistoryBound(String name, String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+
+		Date date = DateUtils.parse(value);
+		if (date == null) {
+			throw new InvalidRequestInputException("Invalid input - " + name + " param is invalid");
+		}
+		return date;
+	}
+
+	private String blankToNull(String value) {
+		return value == null || value.isBlank() ? null : value;
 	}
 
 	@Override
@@ -165,6 +261,7 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 		}
 
 		this.commandCrud.deleteAll();
+		this.commandArchive.deleteAll();
 
 	}
 
@@ -191,32 +288,26 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 			throw new InvalidRequestInputException("AC Watts Of Device is invalid in command attributes.");
 		}
 
-		List<ObjectEntity> acsOfRoom = room.getChilds();
-
-		if (acsOfRoom != null && !acsOfRoom.isEmpty()) {
-
-			for (ObjectEntity acInRoom : acsOfRoom) {
-
-				if ("AirConditioner".equalsIgnoreCase(acInRoom.getType()) && acInRoom.isActive()) {
-					String serialOfAc = ValueParser.toString(acInRoom.getObjectDetails().get("serial"));
-					if (serialOfAc.equals(serial)) {
-						throw new InvalidRequestInputException(
-								"This AC serial number is already exists in the selected Room.");
-					}
-				}
+		List<ObjectEntity> acsOfRoom = this.objectCrud.findAllByParentIdAndTypeAndActiveTrue(room.getId(),
+				"AirConditioner", Pageable.unpaged());
 
+		for (ObjectEntity acInRoom : acsOfRoom) {
+			String serialOfAc = ValueParser.toString(acInRoom.getObjectDetails().get("serial"));
+			if (serial.equals(serialOfAc)) {
+				throw new InvalidRequestInputException(
+						"This AC serial number is already exists in the selected Room.");
 			}
 		}
 
 		// Call external API to fetch the latest state
-		ACResponse response;
+		ACState state;
 		try {
-			response = restClient.getACStateBySerial(serial);
+			state = restClient.getACStatesBySerials(List.of(serial)).get(serial);
 		} catch (Exception e) {
 			throw new ExternalApiException("Failed to verify AC: " + e.getMessage(), e);
 		}
 
-		if (response == null || response.getAcState() == null || response.getCode() < 200 || response.getCode() > 299) {
+		if (state == null) {
 			throw new ObjectNotFoundException("AC not found in external system.");
 		}
 
@@ -227,21 +318,9 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 		newAc.setStatus(ActionType.TURN_OFF.toString());
 		newAc.setActive(true);
 
-		// fetch or create SystemOperator user as creator (OPERATOR)
+		// SystemOperator user as creator (OPERATOR)
 		String systemId = AirwiseConfig.getSystemID();
-		String userKey = systemId + AirwiseConfig.getIdSeparator() + SYSTEM_OPERATOR_EMAIL;
-		UserEntity operator = userCrud.findById(userKey).orElseGet(() -> {
-			UserEntity newOp = new UserEntity();
-			newOp.setUserId(userKey);
-			newOp.setRole(UserRole.OPERATOR);
-			newOp.setUsername("InternalSystemOperator");
-			newOp.setAvatar("InternalSystemOperator");
-			return userCrud.save(newOp);
-		});
-
-		CreatedBy createdBy = new CreatedBy();
-		createdBy.setUserId(new UserId(systemId, SYSTEM_OPERATOR_EMAIL));
-		newAc.setCreatedBy(createdBy);
+		newAc.setCreatedBy(this.systemOperator.createdBy());
 
 		Map<String, Object> details = new HashMap<>();
 		details.put("serial", serial);
@@ -262,15 +341,15 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 
 		newAc.setObjectDetails(details);
 
-		newAc = this.objectsService.create(newAc);
+		ObjectBoundary acToCreate = newAc;
+		newAc = this.systemOperator.callAs(() -> this.objectsService.create(acToCreate));
 
 		// Update local new AC state with latest state
-		ACState acState = response.getAcState();
 		Map<String, Object> updatedDetails = newAc.getObjectDetails();
-		updatedDetails.put("power", acState.getPower());
-		updatedDetails.put("temperature", acState.getTemperature());
-		updatedDetails.put("mode", acState.getMode());
-		updatedDetails.put("fanSpeed", acState.getFanSpeed());
+		updatedDetails.put("power", state.getPower());
+		updatedDetails.put("temperature", state.getTemperature());
+		updatedDetails.put("mode", state.getMode());
+		updatedDetails.put("fanSpeed", state.getFanSpeed());
 		newAc.setObjectDetails(updatedDetails);
 
 		ObjectEntity newAcEntity = this.objectConverter.toEntity(newAc);
@@ -281,11 +360,12 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 
 		ObjectBoundary roomBoundary = this.objectConverter.toBoundary(room);
 
-		this.objectsService.bindObjects(systemId, roomBoundary.getId().getObjectId(), systemId,
-				newAc.getId().getObjectId(), systemId, SYSTEM_OPERATOR_EMAIL);
+		String acObjectId = newAc.getId().getObjectId();
+		this.systemOperator.runAs(() -> this.objectsService.bindObjects(systemId, roomBoundary.getId().getObjectId(),
+				systemId, acObjectId, systemId, SystemOperator.EMAIL));
 
 		try {
-			createNotification(command.getInvokedBy().getUserId(), "AC Verified And Added to Room",
+			this.notificationService.notifyUser(command.getInvokedBy().getUserId(), "AC Verified And Added to Room",
 					"AC '" + newAc.getAlias()
 							+ "' verified and added to room successfully. Latest state of AC has been updated.");
 		} catch (Exception e) {
@@ -353,7 +433,7 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 			}
 
 			// Log or notify
-			createNotification(target.getCreatedBy().getUserId(), "AC State Updated", response.getMessage());
+			this.notificationService.notifyUser(target.getCreatedBy().getUserId(), "AC State Updated", response.getMessage());
 
 		} else {
 			throw new ExternalApiException("Error:" + response.getMessage());
@@ -377,7 +457,8 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 		boolean useCurrentPrefs = ValueParser.toBoolean(attrs.getOrDefault("useCurrentPreferences", true));
 
 		// === Validate parent: must be AC ===
-		ObjectEntity ac = scheduledTask.getParent();
+		ObjectEntity ac = scheduledTask.getParentId() == null ? null
+				: this.objectCrud.findById(scheduledTask.getParentId()).orElse(null);
 		if (ac == null || !"AirConditioner".equalsIgnoreCase(ac.getType())) {
 			throw new InvalidRequestInputException("Scheduled task must be linked to an AirConditioner.");
 		}
@@ -421,26 +502,32 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 		scheduledTask.setObjectDetails(taskDetails);
 
 		objectCrud.save(scheduledTask);
+		this.taskIndex.put(scheduledTask);
 
 		// === Notify the user ===
-		createNotification(command.getInvokedBy().getUserId(), "Scheduled Task Confirmed",
+		this.notificationService.notifyUser(command.getInvokedBy().getUserId(), "Scheduled Task Confirmed",
 				"Your task '" + taskName + "' has been scheduled to start at " + startTime);
 	}
 
 	@Transactional(readOnly = false)
-	private void handleRoomAcsControl(CommandEntity command, ObjectEntity room) {
+	private List<AcDispatchResult> handleRoomAcsControl(CommandEntity command, ObjectEntity room) {
 
-		List<ObjectEntity> children = room.getChilds();
-		if (children == null || children.isEmpty()) {
+		List<ObjectEntity> children = this.objectCrud.findAllByParentIdAndTypeAndActiveTrue(room.getId(),
+				"AirConditioner", Pageable.unpaged());
+		if (children.isEmpty()) {
 			throw new InvalidRequestInputException("No ACs in this room.");
 		}
 
-		for (ObjectEntity ac : children) {
-			CommandEntity clonedCmd = cloneCommand(command, ac);
-			handleUpdateACState(clonedCmd, ac);
-		}
+		// ACs are updated in parallel; each one reports its own success or failure
+		List<AcDispatchResult> results = this.acDispatcher.dispatch(children,
+				ac -> handleUpdateACState(cloneCommand(command, ac), ac));
+
+		long succeeded = results.stream().filter(AcDispatchResult::isSuccess).count();
 
-		createNotification(command.getInvokedBy().getUserId(), "Group Control", "Group AC command dispatched.");
+		this.notificationService.notifyUser(command.getInvokedBy().getUserId(), "Group Control",
+				"Group AC command dispatched: " + succeeded + " of " + results.size() + " ACs updated.");
+
+		return results;
 	}
 
 	@Transactional(readOnly = false)
@@ -450,60 +537,10 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 		copy.setCommandAttributes(original.getCommandAttributes());
 		copy.setInvokedBy(original.getInvokedBy());
 		copy.setTargetObject(new TargetObject(new ObjectId(newTarget.getId(), AirwiseConfig.getSystemID())));
-		copy.setInvocationTimestamp(DateUtils.getCurrentFormattedDate());
+		copy.setInvocationTimestamp(new Date());
 		return copy;
 	}
 
-	@Transactional(readOnly = false)
-	private void createNotification(UserId userId, String title, String message) {
-
-		String tenantEmail = userId.getEmail();
-
-		Pageable pagingTenant = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
-		List<ObjectEntity> tenants = this.objectCrud.findByAliasAndActiveTrue(tenantEmail, pagingTenant);
-		if (tenants == null || tenants.isEmpty()) {
-			return;
-		}
-
-		ObjectEntity tenant = tenants.getFirst();
-
-		ObjectBoundary tenantBnd = this.objectConverter.toBoundary(tenant);
-
-		ObjectBoundary notification = new ObjectBoundary();
-
-		notification.setType("Notification");
-		notification.setAlias("info-notification-" + tenantBnd.getId().getObjectId());
-		notification.setStatus("info");
-		notification.setActive(true);
-
-		// fetch or create SystemOperator user as creator (OPERATOR)
-		String systemId = AirwiseConfig.getSystemID();
-		String userKey = systemId + AirwiseConfig.getIdSeparator() + SYSTEM_OPERATOR_EMAIL;
-		UserEntity operator = userCrud.findById(userKey).orElseGet(() -> {
-			UserEntity newOp = new UserEntity();
-			newOp.setUserId(userKey);
-			newOp.setRole(UserRole.OPERATOR);
-			newOp.setUsername("InternalSystemOperator");
-			return userCrud.save(newOp);
-		});
-
-		CreatedBy createdBy = new CreatedBy();
-		createdBy.setUserId(new UserId(systemId, SYSTEM_OPERATOR_EMAIL));
-		notification.setCreatedBy(createdBy);
-
-		Map<String, Object> details = new HashMap<>();
-		details.put("message", message);
-		notification.setObjectDetails(details);
-
-		notification = this.objectsService.create(notification);
-
-		try {
-			this.emailService.sendEmail(new EmailRequest("noreply@airwise.com", userId.getEmail(), title, message));
-		} catch (Exception e) {
-			// optionally log
-		}
-	}
-
 	@Transactional(readOnly = false)
 	public void updateAcStateViaCommand(CommandEntity command, ObjectEntity ac) {
 		this.handleUpdateACState(command, ac);
@@ -527,16 +564,18 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 
 	    ObjectEntity tenant = tenants.getFirst();
 
-	    ObjectEntity room = ac.getParent();
-	    if (room == null) {
+	    // AC ancestors path: [..., site, room]
+	    List<String> acAncestors = ac.getAncestors();
+	    if (ac.getParentId() == null || acAncestors == null || acAncestors.isEmpty()) {
 	        throw new ObjectNotFoundException("No room parent for AC Id: " + ac.getId());
 	    }
 
-	    ObjectEntity site = room.getParent();
-	    if (site == null) {
-	        throw new ObjectNotFoundException("No site parent for room Id: " + room.getId());
+	    if (acAncestors.size() < 2) {
+	        throw new ObjectNotFoundException("No site parent for room Id: " + ac.getParentId());
 	    }
 
+	    String siteId = acAncestors.get(acAncestors.size() - 2);
+
 	    ObjectBoundary tenantBoundary = objectConverter.toBoundary(tenant);
 
 	    Pageable paging = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
@@ -572,31 +611,6 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 	        return;
 	    }
 
-	    // Init or get existing logs
-	    Map<String, Object> siteDetails = site.getObjectDetails();
-	    if (siteDetails == null) {
-	        siteDetails = new HashMap<>();
-	    }
-
-	    Object powerLogsObj = siteDetails.get("powerConsumptionLogs");
-	    Map<String, PowerConsumptionLog> pclMap = new HashMap<>();
-
-	    ObjectMapper mapper = new ObjectMapper();
-
-	    if (powerLogsObj instanceof List) {
-	        @SuppressWarnings("unchecked")
-	        List<Object> rawList = (List<Object>) powerLogsObj;
-
-	        for (Object raw : rawList) {
-	            try {
-	                PowerConsumptionLog pcl = mapper.convertValue(raw, PowerConsumptionLog.class);
-	                pclMap.put(pcl.getDate(), pcl);
-	            } catch (Exception e) {
-	                log.warn("Failed to deserialize PowerConsumptionLog entry: {}" +  e.getMessage());
-	            }
-	        }
-	    }
-
 	    OffsetDateTime current = start;
 	    while (!current.toLocalDate().isAfter(end.toLocalDate())) {
 	        LocalDate day = current.toLocalDate();
@@ -616,28 +630,17 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 	        double cost = (kwh * (costPerKwh / 60)) * (1 + vatRate);
 
 	        String dateKey = day.format(DATE_FORMAT);
-	        PowerConsumptionLog pcl = pclMap.getOrDefault(dateKey, new PowerConsumptionLog(dateKey, 0, 0, 0));
-
-	        pcl.setRuntime(pcl.getRuntime() + minutes);
-	        pcl.setKwh(pcl.getKwh() + kwh);
-	        pcl.setCost(pcl.getCost() + cost);
 
-	        pclMap.put(dateKey, pcl);
+	        // atomic upsert-increments of the (site, room, ac, day) row and its rollups; concurrent power-offs add up
+	        this.energyService.recordConsumption(tenant.getId(), siteId, ac.getParentId(), ac.getId(), day,
+	        		kwh, minutes, cost);
 
-	        log.info("Added/Updated PowerConsumptionLog for day {}: runtime={} min, kWh={}, cost={}" + dateKey + " " + minutes + " " + kwh + " " + cost);
+	        log.info("Added PowerConsumption for day {}: runtime={} min, kWh={}, cost={}" + dateKey + " " + minutes + " " + kwh + " " + cost);
 
 	        current = dayEnd;
 	    }
 
-	    List<PowerConsumptionLog> sortedLogs = new ArrayList<>(pclMap.values());
-	    sortedLogs.sort((a, b) -> b.getDate().compareTo(a.getDate())); // newest first
-
-	    siteDetails.put("powerConsumptionLogs", sortedLogs);
-	    site.setObjectDetails(siteDetails);
-
-	    objectCrud.save(site);
-
-	    log.info("Power consumption logs successfully saved to site ID: {} " + site.getId());
+	    log.info("Power consumption saved for AC ID: {} " + ac.getId());
 	}
 
 
@@ -653,66 +656,41 @@ public class CommandsServiceImpl implements CommandsServiceWithPagination {
 		}
 	}
 
-	// DELETE Entity methods
+	// DELETE Entity methods: the subtree is found through the ancestors path in a single indexed query
 	private void deleteSite(ObjectEntity site) {
-
-		// Get all Rooms belonging to this Site
-		List<ObjectEntity> rooms = site.getChilds();
-		if (rooms != null) {
-			rooms = rooms.stream().filter(child -> "Room".equalsIgnoreCase(child.getType()))
-					.collect(Collectors.toList());
-
-			// Delete all Rooms (which will cascade to ACs and Tasks)
-			for (ObjectEntity room : rooms) {
-				deleteRoom(room);
-			}
-		}
-
-		// Soft delete the Site itself
-		site.setActive(false);
-		objectCrud.save(site);
+		deleteWithDescendants(site, List.of("Room", "AirConditioner", "Task"));
 	}
 
 	private void deleteRoom(ObjectEntity room) {
-		// Get all ACs belonging to this Room
-		List<ObjectEntity> acs = room.getChilds();
-		if (acs != null) {
-			acs = acs.stream().filter(child -> "AirConditioner".equalsIgnoreCase(child.getType()))
-					.collect(Collectors.toList());
-
-			// Delete all ACs (which will cascade to Tasks)
-			for (ObjectEntity ac : acs) {
-				deleteAC(ac);
-			}
-		}
-
-		// Soft delete the Room itself
-		room.setActive(false);
-		objectCrud.save(room);
+		deleteWithDescendants(room, List.of("AirConditioner", "Task"));
 	}
 
 	private void deleteAC(ObjectEntity ac) {
-		// Get all Tasks belonging to this AC
-		List<ObjectEntity> tasks = ac.getChilds();
-		if (tasks != null) {
-			tasks = tasks.stream().filter(child -> "Task".equalsIgnoreCase(child.getType()))
-					.collect(Collectors.toList());
-
-			// Delete all Tasks
-			for (ObjectEntity task : tasks) {
-				deleteTask(task);
-			}
-		}
-
-		// Soft delete the AC itself
-		ac.setActive(false);
-		objectCrud.save(ac);
+		deleteWithDescendants(ac, List.of("Task"));
 	}
 
 	private void deleteTask(ObjectEntity task) {
 		// Soft delete the Task
-		task.setActive(false);
-		objectCrud.save(task);
+		deleteWithDescendants(task, List.of());
+	}
+
+	private void deleteWithDescendants(ObjectEntity root, List<String> descendantTypes) {
+
+		// ids of the tasks that leave the scheduler, before they stop being active
+		List<String> taskIds = new ArrayList<>();
+		if ("Task".equals(root.getType())) {
+			taskIds.add(root.getId());
+		}
+		if (descendantTypes.contains("Task")) {
+			this.objectCrud.findActiveByTypeAndAncestorsIn("Task", List.of(root.getId()))
+					.forEach(task -> taskIds.add(task.getId()));
+		}
+
+		// Soft delete the entity and its descendants in one updateMany, whatever the size of the subtree
+		this.objectCrud.deactivateSubtree(root.getId(), descendantTypes);
+		root.setActive(false);
+
+		taskIds.forEach(this.taskIndex::remove);
 	}
 
 	// DEPRECATED METHODS BELOW
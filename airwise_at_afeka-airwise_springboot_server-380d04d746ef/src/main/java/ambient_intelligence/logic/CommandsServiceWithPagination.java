@@ -3,9 +3,19 @@ package ambient_intelligence.logic;
 import java.util.List;
 
 import ambient_intelligence.logic.boundaries.CommandBoundary;
+import ambient_intelligence.logic.boundaries.CursorPage;
 
 public interface CommandsServiceWithPagination extends CommandsService {
 	
 	public List<CommandBoundary> getAllCommandsHistory(String userSystemID, String userEmail, int size, int page);
+
+	// keyset variant, newest first: cursor is the nextCursor of the previous page, or empty for the first page
+	public CursorPage<CommandBoundary> getAllCommandsHistory(String userSystemID, String userEmail, int size,
+			String cursor);
+
+	// same, narrowed by any of: command type, target object (objectId of the target), invoking user's email
+	// and invocation time range [from, to)
+	public CursorPage<CommandBoundary> searchCommandsHistory(String userSystemID, String userEmail, String command,
+			String targetObjectId, String invokedBy, String from, String to, int size, String cursor);
 	
 }
@@ -0,0 +1,25 @@
+package ambient_intelligence.logic;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import ambient_intelligence.logic.boundaries.EnergyRollupBoundary;
+import ambient_intelligence.logic.boundaries.PowerConsumptionLog;
+
+public interface EnergyService {
+
+	// adds one day slice of an AC's consumption to POWER_CONSUMPTION and to the rollups
+	public void recordConsumption(String tenantId, String siteId, String roomId, String acId, LocalDate day,
+			double kwh, double runtime, double cost);
+
+	// daily consumption of everything below (and including) the object, newest day first;
+	// from/to are optional inclusive yyyy-MM-dd bounds
+	public List<PowerConsumptionLog> getPowerConsumption(String systemID, String objectId, String userSystemID,
+			String userEmail, String from, String to);
+
+	// DAY/WEEK/MONTH totals of the object, or of each object of level groupBy below it,
+	// for the periods overlapping [from, to]
+	public List<EnergyRollupBoundary> getEnergyRollups(String systemID, String objectId, String userSystemID,
+			String userEmail, String groupBy, String granularity, String from, String to, int size, int page);
+
+}
@@ -0,0 +1,167 @@
+package ambient_intelligence.logic;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ambient_intelligence.dal.EnergyRollupCrud;
+import ambient_intelligence.dal.ObjectCrud;
+import ambient_intelligence.dal.PowerConsumptionCrud;
+import ambient_intelligence.data.EnergyRollupEntity;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.RollupGranularity;
+import ambient_intelligence.data.RollupLevel;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.boundaries.EnergyRollupBoundary;
+import ambient_intelligence.logic.boundaries.ObjectId;
+import ambient_intelligence.logic.boundaries.PowerConsumptionLog;
+import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
+import ambient_intelligence.logic.exceptions.ObjectNotFoundException;
+import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.utils.AirWiseValidator;
+import ambient_intelligence.utils.AirwiseConfig;
+
+@Service
+public class EnergyServiceImpl implements EnergyService {
+
+	private final ObjectCrud objectCrud;
+	private final PowerConsumptionCrud powerConsumptionCrud;
+	private final EnergyRollupCrud energyRollupCrud;
+	private final AirWiseValidator validator;
+	private final AuthorizationService authz;
+
+	public EnergyServiceImpl(ObjectCrud objectCrud, PowerConsumptionCrud powerConsumptionCrud,
+			EnergyRollupCrud energyRollupCrud, AirWiseValidator validator, AuthorizationService authz) {
+		this.objectCrud = objectCrud;
+		this.powerConsumptionCrud = powerConsumptionCrud;
+		this.energyRollupCrud = energyRollupCrud;
+		this.validator = validator;
+		this.authz = authz;
+	}
+
+	@Override
+	@Transactional(readOnly = false)
+	public void recordConsumption(String tenantId, String siteId, String roomId, String acId, LocalDate day,
+			double kwh, double runtime, double cost) {
+
+		this.powerConsumptionCrud.addConsumption(tenantId, siteId, roomId, acId, day.toString(), kwh, runtime, cost);
+		this.energyRollupCrud.addToRollups(tenantId, siteId, roomId, acId, day, kwh, runtime, cost);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<PowerConsumptionLog> getPowerConsumption(String systemID, String objectId, String userSystemID,
+			String userEmail, String from, String to) {
+
+		ObjectEntity scope = this.readableObject(systemID, objectId, userSystemID, userEmail);
+		String fromDate = validDate(from, "from");
+		String toDate = validDate(to, "to");
+
+		return this.powerConsumptionCrud
+				.sumByDate(levelOf(scope).getIdField(), scope.getId(), fromDate, toDate)
+				.stream()
+				.map(day -> new PowerConsumptionLog(day.getDate(), day.getKwh(), day.getRuntime(), day.getCost()))
+				.toList();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<EnergyRollupBoundary> getEnergyRollups(String systemID, String objectId, String userSystemID,
+			String userEmail, String groupBy, String granularity, String from, String to, int size, int page) {
+
+		this.validator.isValidPaginationInputs(size, page);
+
+		ObjectEntity scope = this.readableObject(systemID, objectId, userSystemID, userEmail);
+		RollupLevel scopeLevel = levelOf(scope);
+
+		RollupLevel level;
+		RollupGranularity periods;
+		try {
+			level = groupBy == null || groupBy.isBlank() ? scopeLevel : RollupLevel.fromString(groupBy);
+			periods = RollupGranularity.fromString(granularity);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidRequestInputException(
+					"Invalid input - groupBy must be TENANT/SITE/ROOM/AC and granularity DAY/WEEK/MONTH");
+		}
+
+		if (level.compareTo(scopeLevel) < 0) {
+			throw new InvalidRequestInputException("Invalid input - groupBy " + level + " is above the " + scopeLevel
+					+ " the report is scoped to");
+		}
+
+		String fromDate = validDate(from, "from");
+		String toDate = validDate(to, "to");
+		if (fromDate == null || toDate == null) {
+			throw new InvalidRequestInputException("Invalid input - from and to dates are required");
+		}
+
+		// the period containing 'from' overlaps the range even though it starts before it
+		String fromPeriod = periods.periodStartOf(LocalDate.parse(fromDate)).toString();
+
+		return this.energyRollupCrud
+				.findRollups(level, periods, scopeLevel, scope.getId(), fromPeriod, toDate, PageRequest.of(page, size))
+				.stream()
+				.map(this::toBoundary)
+				.toList();
+	}
+
+	private ObjectEntity readableObject(String systemID, String objectId, String userSystemID, String userEmail) {
+
+		if (!this.validator.checkValidObjectId(new ObjectId(objectId, systemID))) {
+			throw new InvalidRequestInputException("The objectId is invalid");
+		}
+
+		String completeId = systemID + AirwiseConfig.getIdSeparator() + objectId;
+		Optional<ObjectEntity> object;
+
+		if (this.authz.ensureRole(userSystemID, userEmail, UserRole.OPERATOR)) {
+			object = this.objectCrud.findById(completeId);
+		} else if (this.authz.ensureRole(userSystemID, userEmail, UserRole.END_USER)) {
+			object = this.objectCrud.findByIdAndActiveTrue(completeId);
+		} else {
+			throw new UnauthorizedException("Not authorized");
+		}
+
+		return object.orElseThrow(() -> new ObjectNotFoundException("ObjectId not found: " + objectId));
+	}
+
+	private RollupLevel levelOf(ObjectEntity object) {
+		RollupLevel level = RollupLevel.fromObjectType(object.getType());
+		if (level == null) {
+			throw new InvalidRequestInputException(
+					"Power consumption is kept for Tenant, Site, Room and AirConditioner objects only.");
+		}
+		return level;
+	}
+
+	private EnergyRollupBoundary toBoundary(EnergyRollupEntity entity) {
+		String[] id = entity.getScopeId().split(AirwiseConfig.getIdSeparator());
+
+		EnergyRollupBoundary boundary = new EnergyRollupBoundary();
+		boundary.setObjectId(new ObjectId(id[1], id[0]));
+		boundary.setLevel(entity.getLevel().toString());
+		boundary.setGranularity(entity.getGranularity().toString());
+		boundary.setPeriodStart(entity.getPeriodStart());
+		boundary.setKwh(entity.getKwh());
+		boundary.setRuntime(entity.getRuntime());
+		boundary.setCost(entity.getCost());
+		return boundary;
+	}
+
+	private String validDate(String date, String name) {
+		if (date == null || date.isBlank()) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(date).toString();
+		} catch (DateTimeParseException e) {
+			throw new InvalidRequestInputException("Invalid " + name + " date, expected yyyy-MM-dd: " + date);
+		}
+	}
+}
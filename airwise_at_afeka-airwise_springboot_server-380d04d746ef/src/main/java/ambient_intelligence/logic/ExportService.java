@@ -0,0 +1,11 @@
+package ambient_intelligence.logic;
+
+public interface ExportService {
+
+	// admin only; validated and authorized before anything is written
+	public NdjsonExport exportUsers(String userSystemID, String userEmail);
+
+	// from/to are optional bounds on invocationTimestamp (from inclusive, to exclusive), oldest first
+	public NdjsonExport exportCommands(String userSystemID, String userEmail, String from, String to);
+
+}
@@ -0,0 +1,130 @@
+package ambient_intelligence.logic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import ambient_intelligence.dal.CommandCrud;
+import ambient_intelligence.dal.UserCrud;
+import ambient_intelligence.dal.archive.CommandArchive;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.converters.CommandConverter;
+import ambient_intelligence.logic.converters.UserConverter;
+import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
+import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.utils.DateUtils;
+
+@Service
+public class ExportServiceImpl implements ExportService {
+
+	private static final byte NEWLINE = '\n';
+
+	private final UserCrud userCrud;
+	private final CommandCrud commandCrud;
+	private final CommandArchive commandArchive;
+	private final UserConverter userConverter;
+	private final CommandConverter commandConverter;
+	private final AuthorizationService authz;
+	private final ObjectWriter writer;
+	private final int batchSize;
+	private Log log = LogFactory.getLog(ExportServiceImpl.class);
+
+	public ExportServiceImpl(UserCrud userCrud, CommandCrud commandCrud, CommandArchive commandArchive,
+			UserConverter userConverter, CommandConverter commandConverter, AuthorizationService authz,
+			ObjectMapper objectMapper,
+			@Value("${airwise.export.batch-size:500}") int batchSize) {
+		this.userCrud = userCrud;
+		this.commandCrud = commandCrud;
+		this.commandArchive = commandArchive;
+		this.userConverter = userConverter;
+		this.commandConverter = commandConverter;
+		this.authz = authz;
+		this.writer = objectMapper.writer();
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	@Override
+	public NdjsonExport exportUsers(String userSystemID, String userEmail) {
+
+		this.ensureAdmin(userSystemID, userEmail);
+
+		return out -> this.write("USERS", List.of(this.userCrud::streamAll), this.userConverter::toBoundary, out);
+	}
+
+	@Override
+	public NdjsonExport exportCommands(String userSystemID, String userEmail, String from, String to) {
+
+		this.ensureAdmin(userSystemID, userEmail);
+
+		Date fromDate = this.parseBound("from", from);
+		Date toDate = this.parseBound("to", to);
+		if (fromDate != null && toDate != null && !fromDate.before(toDate)) {
+			throw new InvalidRequestInputException("Invalid input - from must be before to");
+		}
+
+		// archived commands are all older than the hot ones, so oldest-first is archive then Mongo;
+		// the Mongo cursor is only opened once the archive is written, so it does not idle and time out
+		return out -> this.write("COMMANDS",
+				List.of(() -> this.commandArchive.stream(fromDate, toDate),
+						() -> this.commandCrud.streamByInvocationBetween(fromDate, toDate, this.batchSize)),
+				this.commandConverter::toBoundary, out);
+	}
+
+	// one document in memory at a time: a slow client blocks out.write, which stops the cursor from advancing.
+	// The sources are opened one after the other, each when the one before it is written and closed.
+	private <E> long write(String collection, List<Supplier<Stream<E>>> sources, Function<E, ?> toBoundary,
+			OutputStream out) throws IOException {
+
+		long count = 0;
+		for (Supplier<Stream<E>> source : sources) {
+			try (Stream<E> stream = source.get()) {
+				Iterator<E> it = stream.iterator();
+				while (it.hasNext()) {
+					out.write(this.writer.writeValueAsBytes(toBoundary.apply(it.next())));
+					out.write(NEWLINE);
+
+					if (++count % this.batchSize == 0) {
+						out.flush();
+					}
+				}
+			}
+		}
+		out.flush();
+
+		log.info("exported " + count + " " + collection + " documents");
+		return count;
+	}
+
+	private void ensureAdmin(String userSystemID, String userEmail) {
+		if (!this.authz.ensureRole(userSystemID, userEmail, UserRole.ADMIN)) {
+			throw new UnauthorizedException("Unauthorized action.");
+		}
+	}
+
+	private Date parseBound(String name, String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+
+		Date date = DateUtils.parse(value);
+		if (date == null) {
+			throw new InvalidRequestInputException("Invalid input - " + name + " must be a timestamp like "
+					+ DateUtils.getCurrentFormattedDate());
+		}
+		return date;
+	}
+}
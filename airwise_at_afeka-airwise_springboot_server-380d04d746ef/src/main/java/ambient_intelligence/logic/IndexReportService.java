@@ -0,0 +1,12 @@
+package ambient_intelligence.logic;
+
+import java.util.List;
+
+import ambient_intelligence.logic.boundaries.IndexReportEntry;
+
+public interface IndexReportService {
+
+	// explain of every repository query shape; entries with collectionScan=true are missing an index
+	public List<IndexReportEntry> getIndexReport(String userSystemID, String userEmail);
+
+}
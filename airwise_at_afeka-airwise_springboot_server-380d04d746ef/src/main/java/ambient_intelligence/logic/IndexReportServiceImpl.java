@@ -0,0 +1,151 @@
+package ambient_intelligence.logic;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.springframework.stereotype.Service;
+
+import ambient_intelligence.dal.QueryPlanInspector;
+import ambient_intelligence.dal.QueryPlanInspector.QueryPlan;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.boundaries.IndexReportEntry;
+import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import ambient_intelligence.logic.security.AuthorizationService;
+
+@Service
+public class IndexReportServiceImpl implements IndexReportService {
+
+	private static final String OBJECTS = "OBJECTS";
+	private static final String COMMANDS = "COMMANDS";
+	private static final String USERS = "USERS";
+
+	// the (creationTimestamp, id) sort every paged ObjectCrud query uses
+	private static final Document BY_CREATION = new Document("creationTimestamp", -1).append("_id", -1);
+	private static final Document BY_INVOCATION = new Document("invocationTimestamp", -1).append("_id", -1);
+
+	private final QueryPlanInspector inspector;
+	private final AuthorizationService authz;
+	private Log log = LogFactory.getLog(IndexReportServiceImpl.class);
+
+	public IndexReportServiceImpl(QueryPlanInspector inspector, AuthorizationService authz) {
+		this.inspector = inspector;
+		this.authz = authz;
+	}
+
+	@Override
+	public List<IndexReportEntry> getIndexReport(String userSystemID, String userEmail) {
+
+		if (!this.authz.ensureRole(userSystemID, userEmail, UserRole.ADMIN)) {
+			throw new UnauthorizedException("Unauthorized action.");
+		}
+
+		List<IndexReportEntry> report = new ArrayList<>();
+
+		// ObjectCrud derived queries
+		report.add(explain("findAllByActiveTrue", OBJECTS, new Document("active", true), BY_CREATION));
+		report.add(explain("findByAlias", OBJECTS, new Document("alias", "a"), BY_CREATION));
+		report.add(explain("findByAliasAndActiveTrue", OBJECTS,
+				new Document("alias", "a").append("active", true), BY_CREATION));
+		report.add(explain("findByAliasContaining", OBJECTS,
+				new Document("aliasGrams", new Document("$all", List.of("abc", "bcd")))
+						.append("alias", new Document("$regex", "abcd")).append("active", true),
+				BY_CREATION));
+		report.add(explain("findByAliasStartingWith", OBJECTS,
+				new Document("alias", new Document("$regex", "^abc")).append("active", true), BY_CREATION));
+		report.add(explain("findByType", OBJECTS, new Document("type", "Site"), BY_CREATION));
+		report.add(explain("findByTypeAndActiveTrue", OBJECTS,
+				new Document("type", "Site").append("active", true), BY_CREATION));
+		report.add(explain("findByStatus", OBJECTS, new Document("status", "ON"), BY_CREATION));
+		report.add(explain("findByStatusAndActiveTrue", OBJECTS,
+				new Document("status", "ON").append("active", true), BY_CREATION));
+		report.add(explain("findByTypeAndStatus", OBJECTS,
+				new Document("type", "Task").append("status", "SCHEDULED"), BY_CREATION));
+		report.add(explain("findByTypeAndStatusAndActiveTrue", OBJECTS,
+				new Document("type", "Task").append("status", "SCHEDULED").append("active", true), BY_CREATION));
+		report.add(explain("findAllByParentId", OBJECTS, new Document("parentId", "p"), BY_CREATION));
+		report.add(explain("findAllByParentIdAndActiveTrue", OBJECTS,
+				new Document("parentId", "p").append("active", true), BY_CREATION));
+		report.add(explain("findAllByParentIdAndTypeAndActiveTrue", OBJECTS,
+				new Document("parentId", "p").append("type", "AirConditioner").append("active", true), null));
+
+		// ObjectCrudCustom.findPageAfter: the keyset listings, first page and seeking past a cursor;
+		// OPERATOR callers see inactive objects too, so only end users filter on active
+		for (Document equalities : List.of(new Document(), new Document("type", "Site"), new Document("status", "ON"),
+				new Document("type", "Task").append("status", "SCHEDULED"), new Document("active", true),
+				new Document("type", "Site").append("active", true))) {
+			String shape = "findPageAfter" + equalities.keySet();
+			report.add(explain(shape, OBJECTS, equalities, BY_CREATION));
+			report.add(explain(shape + " after cursor", OBJECTS, afterCursor(equalities), BY_CREATION));
+		}
+
+		// ObjectCrudCustom set queries
+		report.add(explain("findActiveByAliasIn", OBJECTS,
+				new Document("alias", new Document("$in", List.of("a", "b"))).append("active", true), BY_CREATION));
+		report.add(explain("findActiveByParentIdIn", OBJECTS,
+				new Document("parentId", new Document("$in", List.of("p", "q"))).append("active", true), null));
+		report.add(explain("findActiveByTypeAndAncestorsIn", OBJECTS,
+				new Document("ancestors", new Document("$in", List.of("p", "q"))).append("type", "AirConditioner")
+						.append("active", true),
+				null));
+		report.add(explain("deactivateSubtree", OBJECTS,
+				new Document("$or", List.of(new Document("_id", "p"), new Document("ancestors", "p").append("type",
+						new Document("$in", List.of("Room", "AirConditioner", "Task"))))).append("active", true),
+				null));
+		report.add(explain("updateTaskStatusByRepeat", OBJECTS,
+				new Document("type", "Task").append("status", "EXECUTED").append("active", true)
+						.append("objectDetails.repeat", new Document("$regex", "^\\s*(EVERY[ _]DAY)\\s*$")),
+				null));
+
+		// COMMANDS and USERS
+		report.add(explain("commandsByInvocation", COMMANDS, new Document(), BY_INVOCATION));
+		report.add(explain("commandsOfTarget", COMMANDS, new Document("targetObject.id.objectId", "o"), BY_INVOCATION));
+		report.add(explain("commandsByType", COMMANDS, new Document("command", "TURN_ON_AC"), BY_INVOCATION));
+		report.add(explain("commandsByInvoker", COMMANDS, new Document("invokedBy.userId.email", "u@x.com"),
+				BY_INVOCATION));
+		report.add(explain("findAllByRole", USERS, new Document("role", UserRole.END_USER.name()), null));
+
+		// scheduler leases, renewed and counted on every heartbeat
+		report.add(explain("renewLeases", "SCHEDULER_LEASES",
+				new Document("owner", "n").append("expiresAt", new Document("$gte", new Date())), null));
+		report.add(explain("countByExpiresAtAfter", "SCHEDULER_NODES",
+				new Document("expiresAt", new Document("$gt", new Date())), null));
+
+		report.stream().filter(IndexReportEntry::isCollectionScan)
+				.forEach(entry -> log.warn("collection scan for " + entry.getQueryShape() + " on " + entry.getCollection()));
+
+		return report;
+	}
+
+	// the filter ObjectCrudCustom.findPageAfter builds: the equalities and PageCursor.after("creationTimestamp")
+	private static Document afterCursor(Document equalities) {
+		Date timestamp = new Date();
+		Document seek = new Document("$or", List.of(
+				new Document("creationTimestamp", new Document("$lt", timestamp)),
+				new Document("$and", List.of(new Document("creationTimestamp", timestamp),
+						new Document("_id", new Document("$lt", "x")))),
+				new Document("creationTimestamp", null)));
+
+		List<Document> parts = new ArrayList<>();
+		equalities.forEach((field, value) -> parts.add(new Document(field, value)));
+		parts.add(seek);
+		return new Document("$and", parts);
+	}
+
+	private IndexReportEntry explain(String queryShape, String collection, Document filter, Document sort) {
+		QueryPlan plan = this.inspector.explainFind(collection, filter, sort);
+
+		IndexReportEntry entry = new IndexReportEntry();
+		entry.setQueryShape(queryShape);
+		entry.setCollection(collection);
+		entry.setFilter(filter.toJson());
+		entry.setSort(sort == null ? null : sort.toJson());
+		entry.setStages(plan.getStages());
+		entry.setIndexNames(plan.getIndexNames());
+		entry.setCollectionScan(plan.isCollectionScan());
+		return entry;
+	}
+}
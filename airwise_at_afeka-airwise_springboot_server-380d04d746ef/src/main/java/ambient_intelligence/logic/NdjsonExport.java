@@ -0,0 +1,15 @@
+package ambient_intelligence.logic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An authorized export that has not been written yet: writeTo streams it as
+ * newline-delimited JSON, one record per line, and returns the number of records.
+ */
+@FunctionalInterface
+public interface NdjsonExport {
+
+	public long writeTo(OutputStream out) throws IOException;
+
+}
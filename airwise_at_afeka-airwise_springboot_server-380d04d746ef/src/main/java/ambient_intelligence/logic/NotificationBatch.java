@@ -0,0 +1,89 @@
+package ambient_intelligence.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import ambient_intelligence.logic.boundaries.UserId;
+
+/**
+ * Notifications raised while a unit of work (a command invocation, a scheduler
+ * tick) runs on the current thread. NotificationService collects into the bound
+ * batch and flushes it once the unit of work ends.
+ */
+public final class NotificationBatch {
+
+	private static final ThreadLocal<NotificationBatch> CURRENT = new ThreadLocal<>();
+
+	// filled concurrently by ParallelAcDispatcher workers
+	private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+
+	NotificationBatch() {
+	}
+
+	public static Optional<NotificationBatch> current() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+
+	static void bind(NotificationBatch batch) {
+		CURRENT.set(batch);
+	}
+
+	static void clear() {
+		CURRENT.remove();
+	}
+
+	// carries the batch of the submitting thread into a worker thread
+	public static <T> Callable<T> wrap(Callable<T> task) {
+		NotificationBatch batch = CURRENT.get();
+		return () -> {
+			NotificationBatch previous = CURRENT.get();
+			CURRENT.set(batch);
+			try {
+				return task.call();
+			} finally {
+				if (previous == null) {
+					CURRENT.remove();
+				} else {
+					CURRENT.set(previous);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Runs one item of the unit of work (one AC of a group command, one due task of a tick): what it
+	 * raises joins the bound batch only if it completes, so a failing item sends nothing while the
+	 * others still do.
+	 */
+	public static void runItem(Runnable item) {
+		NotificationBatch outer = CURRENT.get();
+		if (outer == null) {
+			item.run();
+			return;
+		}
+
+		NotificationBatch own = new NotificationBatch();
+		CURRENT.set(own);
+		try {
+			item.run();
+		} finally {
+			CURRENT.set(outer);
+		}
+		outer.entries.addAll(own.entries);
+	}
+
+	void add(UserId recipient, String title, String message) {
+		this.entries.add(new Entry(recipient, title, message));
+	}
+
+	List<Entry> entries() {
+		return new ArrayList<>(this.entries);
+	}
+
+	record Entry(UserId recipient, String title, String message) {
+	}
+}
@@ -0,0 +1,152 @@
+package ambient_intelligence.logic;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Service;
+
+import ambient_intelligence.dal.ObjectCrud;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.logic.boundaries.ObjectBoundary;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.logic.converters.ObjectConverter;
+import ambient_intelligence.logic.security.SystemOperator;
+import ambient_intelligence.utils.EmailRequest;
+import ambient_intelligence.utils.EmailService;
+
+/**
+ * Info notifications to a tenant (a Notification object plus an email).
+ * Inside {@link #coalesce(Supplier)} they are collected and each recipient gets
+ * one aggregated notification and one email when the work completes; nothing is
+ * sent when it throws.
+ */
+@Service
+public class NotificationService {
+
+	private final ObjectCrud objectCrud;
+	private final ObjectConverter objectConverter;
+	private final ObjectsService objectsService;
+	private final EmailService emailService;
+	private final SystemOperator systemOperator;
+	private Log log = LogFactory.getLog(NotificationService.class);
+
+	public NotificationService(ObjectCrud objectCrud, ObjectConverter objectConverter, ObjectsService objectsService,
+			EmailService emailService, SystemOperator systemOperator) {
+		this.objectCrud = objectCrud;
+		this.objectConverter = objectConverter;
+		this.objectsService = objectsService;
+		this.emailService = emailService;
+		this.systemOperator = systemOperator;
+	}
+
+	public void notifyUser(UserId userId, String title, String message) {
+		NotificationBatch.current().ifPresentOrElse(
+				batch -> batch.add(userId, title, message),
+				() -> this.publish(userId, title, message, null));
+	}
+
+	public <T> T coalesce(Supplier<T> work) {
+		// nested units of work join the outer batch, which flushes once
+		if (NotificationBatch.current().isPresent()) {
+			return work.get();
+		}
+
+		NotificationBatch batch = new NotificationBatch();
+		NotificationBatch.bind(batch);
+		T result;
+		try {
+			result = work.get();
+		} finally {
+			NotificationBatch.clear();
+		}
+
+		// reached only when the work completed: a failed unit of work discards what it collected
+		this.flush(batch);
+		return result;
+	}
+
+	public void coalesce(Runnable work) {
+		this.coalesce(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	private void flush(NotificationBatch batch) {
+		Map<String, List<NotificationBatch.Entry>> byRecipient = batch.entries().stream()
+				.collect(Collectors.groupingBy(entry -> entry.recipient().getEmail(), LinkedHashMap::new,
+						Collectors.toList()));
+
+		for (List<NotificationBatch.Entry> entries : byRecipient.values()) {
+			try {
+				NotificationBatch.Entry first = entries.getFirst();
+
+				if (entries.size() == 1) {
+					this.publish(first.recipient(), first.title(), first.message(), null);
+					continue;
+				}
+
+				String message = entries.stream()
+						.map(entry -> entry.title() + ": " + entry.message())
+						.collect(Collectors.joining("\n"));
+
+				this.publish(first.recipient(), entries.size() + " AirWise updates", message, entries);
+
+			} catch (Exception e) {
+				log.error("failed to publish notifications", e);
+			}
+		}
+	}
+
+	private void publish(UserId userId, String title, String message, List<NotificationBatch.Entry> items) {
+
+		String tenantEmail = userId.getEmail();
+
+		Pageable pagingTenant = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
+		List<ObjectEntity> tenants = this.objectCrud.findByAliasAndActiveTrue(tenantEmail, pagingTenant);
+		if (tenants == null || tenants.isEmpty()) {
+			return;
+		}
+
+		ObjectEntity tenant = tenants.getFirst();
+
+		ObjectBoundary tenantBnd = this.objectConverter.toBoundary(tenant);
+
+		ObjectBoundary notification = new ObjectBoundary();
+
+		notification.setType("Notification");
+		notification.setAlias("info-notification-" + tenantBnd.getId().getObjectId());
+		notification.setStatus("info");
+		notification.setActive(true);
+
+		// SystemOperator user as creator (OPERATOR)
+		notification.setCreatedBy(this.systemOperator.createdBy());
+
+		Map<String, Object> details = new HashMap<>();
+		details.put("message", message);
+		if (items != null) {
+			details.put("title", title);
+			details.put("items", items.stream()
+					.map(item -> Map.of("title", item.title(), "message", item.message()))
+					.toList());
+		}
+		notification.setObjectDetails(details);
+
+		this.systemOperator.callAs(() -> this.objectsService.create(notification));
+
+		try {
+			this.emailService.sendEmail(new EmailRequest("noreply@airwise.com", userId.getEmail(), title, message));
+		} catch (Exception e) {
+			// optionally log
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package ambient_intelligence.logic;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.apache.commons.logging.Log;
@@ -12,14 +14,17 @@ import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ambient_intelligence.dal.ObjectCrud;
+import ambient_intelligence.dal.PageCursor;
 import ambient_intelligence.data.ObjectEntity;
 import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.boundaries.CursorPage;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 import ambient_intelligence.logic.boundaries.ObjectId;
 import ambient_intelligence.logic.converters.ObjectConverter;
 import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
 import ambient_intelligence.logic.exceptions.ObjectNotFoundException;
 import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import ambient_intelligence.logic.scheduling.ScheduledTaskIndex;
 import ambient_intelligence.logic.security.AuthorizationService;
 import ambient_intelligence.utils.AirWiseValidator;
 import ambient_intelligence.utils.AirwiseConfig;
@@ -32,14 +37,16 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 	private final ObjectConverter objectConverter;
 	private final AirWiseValidator validator;
 	private final AuthorizationService authz;
+	private final ScheduledTaskIndex taskIndex;
 	private Log log = LogFactory.getLog(ObjectsServiceImpl.class);
 
 	public ObjectsServiceImpl(ObjectCrud objectsCrud, ObjectConverter objectConverter, AirWiseValidator validator,
-			AuthorizationService authz) {
+			AuthorizationService authz, ScheduledTaskIndex taskIndex) {
 		this.objectsCrud = objectsCrud;
 		this.objectConverter = objectConverter;
 		this.validator = validator;
 		this.authz = authz;
+		this.taskIndex = taskIndex;
 	}
 
 	@Override
@@ -68,6 +75,7 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 
 		ObjectEntity entity = objectConverter.toEntity(object);
 		ObjectEntity savedEntity = this.objectsCrud.save(entity);
+		this.taskIndex.put(savedEntity);
 
 		return objectConverter.toBoundary(savedEntity);
 	}
@@ -114,6 +122,7 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 		existing.setActive(update.isActive());
 
 		this.objectsCrud.save(existing);
+		this.taskIndex.put(existing);
 
 	}
 
@@ -223,17 +232,25 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 		ObjectEntity child = this.objectsCrud.findById(completeIdChild).orElseThrow(() -> new ObjectNotFoundException(
 				"Child object not found with systemID: " + childSystemID + " and objectId: " + childObjectId));
 
-		if (parent.getChilds() == null)
-			parent.setChilds(new ArrayList<>());
+		List<String> ancestors = new ArrayList<>();
+		if (parent.getAncestors() != null) {
+			ancestors.addAll(parent.getAncestors());
+		}
+
+		if (completeIdChild.equals(completeIdParent) || ancestors.contains(completeIdChild)) {
+			throw new InvalidRequestInputException("An object cannot be bound under itself or its descendants");
+		}
 
-		child.setParent(parent);
-		List<ObjectEntity> list = parent.getChilds();
-		list.add(child);
-		parent.setChilds(list);
+		ancestors.add(parent.getId());
+
+		child.setParentId(parent.getId());
+		child.setAncestors(ancestors);
 
-		this.objectsCrud.save(parent);
 		this.objectsCrud.save(child);
 
+		// the subtree that was already below the child moves with it
+		this.objectsCrud.updateAncestorsOfDescendants(child.getId(), ancestors);
+
 	}
 	
 	@Override
@@ -265,11 +282,12 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 			throw new UnauthorizedException("Not authorized");
 		}
 
-		if (parentEntities == null || parentEntities.isEmpty()) {
+		if (parentEntities == null || parentEntities.isEmpty() || parentEntities.get(0).getParentId() == null) {
 			throw new ObjectNotFoundException("No parents found for child object ID: " + childObjectId);
 		}
-				
-		return List.of(parentEntities.get(0).getParent()).stream().map(this.objectConverter::toBoundary).toList();
+
+		return this.objectsCrud.findById(parentEntities.get(0).getParentId()).stream()
+				.map(this.objectConverter::toBoundary).toList();
 		
 		// return parentEntities.stream().map(this.objectConverter::toBoundary).toList();
 
@@ -295,17 +313,19 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 
 		if (this.authz.ensureRole(userSystemID, userEmail, UserRole.OPERATOR)) {
 
-			ObjectEntity parent = this.objectsCrud.findById(completeIdParent)
-					.orElseThrow(() -> new ObjectNotFoundException("parentObjectId not found: " + parentObjectId));
+			if (!this.objectsCrud.existsById(completeIdParent)) {
+				throw new ObjectNotFoundException("parentObjectId not found: " + parentObjectId);
+			}
 
-			childEntities = this.objectsCrud.findAllByParent_Id(parent.getId(), pageable);
+			childEntities = this.objectsCrud.findAllByParentId(completeIdParent, pageable);
 
 		} else if (this.authz.ensureRole(userSystemID, userEmail, UserRole.END_USER)) {
 
-			ObjectEntity parent = this.objectsCrud.findById(completeIdParent)
-					.orElseThrow(() -> new ObjectNotFoundException("parentObjectId not found: " + parentObjectId));
+			if (!this.objectsCrud.existsById(completeIdParent)) {
+				throw new ObjectNotFoundException("parentObjectId not found: " + parentObjectId);
+			}
 
-			childEntities = this.objectsCrud.findAllByParent_IdAndActiveTrue(parent.getId(), pageable);
+			childEntities = this.objectsCrud.findAllByParentIdAndActiveTrue(completeIdParent, pageable);
 
 		} else {
 			throw new UnauthorizedException("Not authorized");
@@ -328,6 +348,7 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 		}
 
 		this.objectsCrud.deleteAll();
+		this.taskIndex.clear();
 
 	}
 
@@ -367,8 +388,8 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 
 	@Override
 	@Transactional(readOnly = true)
-	public List<ObjectBoundary> searchByAliasPattern(String pattern, String userSystemID, String userEmail, int size,
-			int page) {
+	public List<ObjectBoundary> searchByAliasPattern(String pattern, String match, String userSystemID,
+			String userEmail, int size, int page) {
 
 		this.validator.isValidPaginationInputs(size, page);
 
@@ -377,16 +398,27 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 			throw new InvalidRequestInputException("Pattern cannot be null or empty");
 		}
 
-		Pageable pageable = PageRequest.of(page, size, Direction.DESC, "creationTimestamp");
+		boolean prefix;
+		if (match == null || match.equalsIgnoreCase("contains")) {
+			prefix = false;
+		} else if (match.equalsIgnoreCase("prefix")) {
+			prefix = true;
+		} else {
+			throw new InvalidRequestInputException("match must be 'contains' or 'prefix'");
+		}
+
+		Pageable pageable = PageRequest.of(page, size);
 		List<ObjectEntity> entities;
 
 		if (this.authz.ensureRole(userSystemID, userEmail, UserRole.OPERATOR)) {
 
-			entities = objectsCrud.findByAliasLike("*" + pattern + "*", pageable);
+			entities = prefix ? objectsCrud.findByAliasStartingWith(pattern, false, pageable)
+					: objectsCrud.findByAliasContaining(pattern, false, pageable);
 
 		} else if (this.authz.ensureRole(userSystemID, userEmail, UserRole.END_USER)) {
 
-			entities = objectsCrud.findByAliasLikeAndActiveTrue("*" + pattern + "*", pageable);
+			entities = prefix ? objectsCrud.findByAliasStartingWith(pattern, true, pageable)
+					: objectsCrud.findByAliasContaining(pattern, true, pageable);
 
 			if (entities.isEmpty()) {
 				throw new ObjectNotFoundException("No objects found matching pattern: " + pattern);
@@ -502,6 +534,105 @@ public class ObjectsServiceImpl implements ObjectsServicePagination {
 		return entities.stream().map(objectConverter::toBoundary).toList();
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<ObjectBoundary> getAllObjects(String userSystemID, String userEmail, int size, String cursor) {
+		return this.keysetPage(new LinkedHashMap<>(), userSystemID, userEmail, size, cursor, "No objects found");
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<ObjectBoundary> searchByType(String type, String userSystemID, String userEmail, int size,
+			String cursor) {
+
+		if (type == null || type.isEmpty()) {
+			throw new InvalidRequestInputException("Type cannot be null or empty");
+		}
+
+		Map<String, Object> equalities = new LinkedHashMap<>();
+		equalities.put("type", type);
+		return this.keysetPage(equalities, userSystemID, userEmail, size, cursor,
+				"No objects found with type: " + type);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<ObjectBoundary> searchByStatus(String status, String userSystemID, String userEmail, int size,
+			String cursor) {
+
+		if (status == null || status.isEmpty()) {
+			throw new InvalidRequestInputException("Status cannot be null or empty");
+		}
+
+		Map<String, Object> equalities = new LinkedHashMap<>();
+		equalities.put("status", status);
+		return this.keysetPage(equalities, userSystemID, userEmail, size, cursor,
+				"No objects found with status: " + status);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<ObjectBoundary> searchByTypeAndStatus(String type, String status, String userSystemID,
+			String userEmail, int size, String cursor) {
+
+		if (type == null || type.isEmpty()) {
+			throw new InvalidRequestInputException("Type cannot be null or empty");
+		}
+		if (status == null || status.isEmpty()) {
+			throw new InvalidRequestInputException("Status cannot be null or empty");
+		}
+
+		Map<String, Object> equalities = new LinkedHashMap<>();
+		equalities.put("type", type);
+		equalities.put("status", status);
+		return this.keysetPage(equalities, userSystemID, userEmail, size, cursor,
+				"No objects found with type: " + type + " and status: " + status);
+	}
+
+	// seeks past the cursor on (creationTimestamp, id) instead of skipping page * size documents
+	private CursorPage<ObjectBoundary> keysetPage(Map<String, Object> equalities, String userSystemID,
+			String userEmail, int size, String cursor, String notFoundMessage) {
+
+		this.validator.isValidPaginationInputs(size, 0);
+		PageCursor after = decodeCursor(cursor);
+
+		boolean activeOnly;
+		if (this.authz.ensureRole(userSystemID, userEmail, UserRole.OPERATOR)) {
+			activeOnly = false;
+		} else if (this.authz.ensureRole(userSystemID, userEmail, UserRole.END_USER)) {
+			activeOnly = true;
+			equalities.put("active", true);
+		} else {
+			throw new UnauthorizedException("not authorized to search objects");
+		}
+
+		List<ObjectEntity> entities = this.objectsCrud.findPageAfter(equalities, after, size);
+
+		// like the page variants, an end user's empty result is reported, but only for the first page
+		if (entities.isEmpty() && after == null && activeOnly) {
+			throw new ObjectNotFoundException(notFoundMessage);
+		}
+
+		String nextCursor = null;
+		if (entities.size() == size) {
+			ObjectEntity last = entities.getLast();
+			nextCursor = new PageCursor(last.getCreationTimestamp(), last.getId()).encode();
+		}
+
+		return new CursorPage<>(entities.stream().map(objectConverter::toBoundary).toList(), nextCursor);
+	}
+
+	private PageCursor decodeCursor(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			return PageCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidRequestInputException("Invalid input - cursor param is invalid");
+		}
+	}
+
 	// START DEPRECATED METHODS
 
 	@Override
@@ -1,6 +1,7 @@
 package ambient_intelligence.logic;
 
 import java.util.List;
+import ambient_intelligence.logic.boundaries.CursorPage;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 
 public interface ObjectsServicePagination extends ObjectsService {
@@ -17,7 +18,8 @@ public interface ObjectsServicePagination extends ObjectsService {
 	public List<ObjectBoundary> searchByExactAlias(String alias, String userSystemID, String userEmail, 
 			int size, int page);
 
-	public List<ObjectBoundary> searchByAliasPattern(String pattern, String userSystemID, String userEmail, 
+	// match: "contains" (default) or "prefix"
+	public List<ObjectBoundary> searchByAliasPattern(String pattern, String match, String userSystemID, String userEmail,
 			int size, int page);
 
 	public List<ObjectBoundary> searchByType(String type, String userSystemID, String userEmail, 
@@ -28,4 +30,17 @@ public interface ObjectsServicePagination extends ObjectsService {
 
 	public List<ObjectBoundary> searchByTypeAndStatus(String type, String status, String userSystemID, String userEmail,
 			int size, int page);
+
+	// keyset variants: cursor is the nextCursor of the previous page, or empty for the first page
+
+	public CursorPage<ObjectBoundary> getAllObjects(String userSystemID, String userEmail, int size, String cursor);
+
+	public CursorPage<ObjectBoundary> searchByType(String type, String userSystemID, String userEmail, int size,
+			String cursor);
+
+	public CursorPage<ObjectBoundary> searchByStatus(String status, String userSystemID, String userEmail, int size,
+			String cursor);
+
+	public CursorPage<ObjectBoundary> searchByTypeAndStatus(String type, String status, String userSystemID,
+			String userEmail, int size, String cursor);
 }
@@ -0,0 +1,84 @@
+package ambient_intelligence.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.logic.boundaries.AcDispatchResult;
+import ambient_intelligence.logic.boundaries.ObjectId;
+import ambient_intelligence.logic.security.CallerContext;
+import ambient_intelligence.utils.AirwiseConfig;
+import ambient_intelligence.utils.ValueParser;
+
+/**
+ * Runs one action per AC on virtual threads, with at most maxConcurrency in flight.
+ * A failing or slow AC does not stop the others; every AC gets its own result.
+ */
+@Component
+public class ParallelAcDispatcher {
+
+	private final int maxConcurrency;
+	private Log log = LogFactory.getLog(ParallelAcDispatcher.class);
+
+	public ParallelAcDispatcher(@Value("${airwise.commands.room-control.max-concurrency:8}") int maxConcurrency) {
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+
+	public List<AcDispatchResult> dispatch(List<ObjectEntity> acs, Consumer<ObjectEntity> action) {
+
+		Semaphore permits = new Semaphore(this.maxConcurrency);
+		List<Future<AcDispatchResult>> futures = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+			for (ObjectEntity ac : acs) {
+				futures.add(executor.submit(NotificationBatch.wrap(CallerContext.wrap(() -> {
+					permits.acquire();
+					try {
+						NotificationBatch.runItem(() -> action.accept(ac));
+						return result(ac, true, "AC state updated");
+					} catch (Exception e) {
+						log.warn("AC " + ac.getAlias() + " failed: " + e.getMessage());
+						return result(ac, false, e.getMessage());
+					} finally {
+						permits.release();
+					}
+				}))));
+			}
+
+			List<AcDispatchResult> results = new ArrayList<>();
+			for (int i = 0; i < futures.size(); i++) {
+				results.add(await(futures.get(i), acs.get(i)));
+			}
+			return results;
+		}
+	}
+
+	private AcDispatchResult await(Future<AcDispatchResult> future, ObjectEntity ac) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return result(ac, false, "Interrupted");
+		} catch (ExecutionException e) {
+			return result(ac, false, e.getCause().getMessage());
+		}
+	}
+
+	private AcDispatchResult result(ObjectEntity ac, boolean success, String message) {
+		String objectId = ac.getId().split(AirwiseConfig.getIdSeparator())[1];
+		String serial = ac.getObjectDetails() == null ? null : ValueParser.toString(ac.getObjectDetails().get("serial"));
+		return new AcDispatchResult(new ObjectId(objectId, AirwiseConfig.getSystemID()), serial, success, message);
+	}
+}
@@ -15,6 +15,7 @@ import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
 import ambient_intelligence.logic.exceptions.ObjectNotFoundException;
 import ambient_intelligence.logic.exceptions.UnauthorizedException;
 import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.logic.security.SystemOperator;
 import ambient_intelligence.utils.AirWiseValidator;
 import ambient_intelligence.utils.AirwiseConfig;
 
@@ -27,12 +28,15 @@ public class UsersServiceImpl implements UsersServiceWithPagination {
 	private final UserConverter userConverter;
 	private final AirWiseValidator validator;
 	private final AuthorizationService authz;
+	private final SystemOperator systemOperator;
 
-	public UsersServiceImpl(UserCrud userCrud, UserConverter userConverter, AirWiseValidator validator, AuthorizationService authz) {
+	public UsersServiceImpl(UserCrud userCrud, UserConverter userConverter, AirWiseValidator validator,
+			AuthorizationService authz, SystemOperator systemOperator) {
 		this.userCrud = userCrud;
 		this.userConverter = userConverter;
 		this.validator = validator;
 		this.authz = authz;
+		this.systemOperator = systemOperator;
 	}
 
 	@Override
@@ -62,7 +66,12 @@ public class UsersServiceImpl implements UsersServiceWithPagination {
 
 		UserEntity userEntity = this.userConverter.toEntity(newUser);
 
-		return this.userConverter.toBoundary(this.userCrud.save(userEntity));
+		UserBoundary created = this.userConverter.toBoundary(this.userCrud.save(userEntity));
+
+		// creating over an existing id replaces its role
+		this.authz.invalidate(AirwiseConfig.getSystemID(), newUser.getUserId().getEmail());
+
+		return created;
 	}
 
 	@Override
@@ -120,6 +129,8 @@ public class UsersServiceImpl implements UsersServiceWithPagination {
 
 		this.userCrud.save(existingUser);
 
+		this.authz.invalidate(systemID, userEmail);
+
 	}
 	
 	@Override
@@ -149,6 +160,9 @@ public class UsersServiceImpl implements UsersServiceWithPagination {
 		
 		this.userCrud.deleteAll();
 		
+		this.authz.invalidateAll();
+		this.systemOperator.reset();
+		
 	}
 	
 	
@@ -0,0 +1,42 @@
+package ambient_intelligence.logic.boundaries;
+
+import java.util.List;
+
+public class ACStatesResponse {
+    private String message;
+    private List<ACState> acStates;
+    private List<String> missing;
+    private int code;
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<ACState> getAcStates() {
+        return acStates;
+    }
+
+    public void setAcStates(List<ACState> acStates) {
+        this.acStates = acStates;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+
+	public int getCode() {
+		return code;
+	}
+
+	public void setCode(int code) {
+		this.code = code;
+	}
+}
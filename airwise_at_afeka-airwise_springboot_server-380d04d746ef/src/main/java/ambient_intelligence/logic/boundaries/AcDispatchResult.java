@@ -0,0 +1,57 @@
+package ambient_intelligence.logic.boundaries;
+
+public class AcDispatchResult {
+
+	private ObjectId acId;
+	private String serial;
+	private boolean success;
+	private String message;
+
+	public AcDispatchResult() {
+	}
+
+	public AcDispatchResult(ObjectId acId, String serial, boolean success, String message) {
+		this.acId = acId;
+		this.serial = serial;
+		this.success = success;
+		this.message = message;
+	}
+
+	public ObjectId getAcId() {
+		return acId;
+	}
+
+	public void setAcId(ObjectId acId) {
+		this.acId = acId;
+	}
+
+	public String getSerial() {
+		return serial;
+	}
+
+	public void setSerial(String serial) {
+		this.serial = serial;
+	}
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	public void setSuccess(boolean success) {
+		this.success = success;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "AcDispatchResult [acId=" + acId + ", serial=" + serial + ", success=" + success + ", message="
+				+ message + "]";
+	}
+}
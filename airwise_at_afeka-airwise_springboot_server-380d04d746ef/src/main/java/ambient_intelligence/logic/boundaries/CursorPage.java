@@ -0,0 +1,39 @@
+package ambient_intelligence.logic.boundaries;
+
+import java.util.List;
+
+// one keyset page; nextCursor is null on the last page
+public class CursorPage<T> {
+
+	private List<T> items;
+	private String nextCursor;
+
+	public CursorPage() {
+	}
+
+	public CursorPage(List<T> items, String nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	@Override
+	public String toString() {
+		return "CursorPage [items=" + items + ", nextCursor=" + nextCursor + "]";
+	}
+}
@@ -0,0 +1,77 @@
+package ambient_intelligence.logic.boundaries;
+
+public class EnergyRollupBoundary {
+
+	private ObjectId objectId;
+	private String level;
+	private String granularity;
+	private String periodStart;
+	private double kwh;
+	private double runtime;
+	private double cost;
+
+	public EnergyRollupBoundary() {
+	}
+
+	public ObjectId getObjectId() {
+		return objectId;
+	}
+
+	public void setObjectId(ObjectId objectId) {
+		this.objectId = objectId;
+	}
+
+	public String getLevel() {
+		return level;
+	}
+
+	public void setLevel(String level) {
+		this.level = level;
+	}
+
+	public String getGranularity() {
+		return granularity;
+	}
+
+	public void setGranularity(String granularity) {
+		this.granularity = granularity;
+	}
+
+	public String getPeriodStart() {
+		return periodStart;
+	}
+
+	public void setPeriodStart(String periodStart) {
+		this.periodStart = periodStart;
+	}
+
+	public double getKwh() {
+		return kwh;
+	}
+
+	public void setKwh(double kwh) {
+		this.kwh = kwh;
+	}
+
+	public double getRuntime() {
+		return runtime;
+	}
+
+	public void setRuntime(double runtime) {
+		this.runtime = runtime;
+	}
+
+	public double getCost() {
+		return cost;
+	}
+
+	public void setCost(double cost) {
+		this.cost = cost;
+	}
+
+	@Override
+	public String toString() {
+		return "EnergyRollupBoundary [objectId=" + objectId + ", level=" + level + ", granularity=" + granularity
+				+ ", periodStart=" + periodStart + ", kwh=" + kwh + ", runtime=" + runtime + ", cost=" + cost + "]";
+	}
+}
@@ -0,0 +1,80 @@
+package ambient_intelligence.logic.boundaries;
+
+import java.util.List;
+
+public class IndexReportEntry {
+
+	private String queryShape;
+	private String collection;
+	private String filter;
+	private String sort;
+	private List<String> stages;
+	private List<String> indexNames;
+	private boolean collectionScan;
+
+	public IndexReportEntry() {
+	}
+
+	public String getQueryShape() {
+		return queryShape;
+	}
+
+	public void setQueryShape(String queryShape) {
+		this.queryShape = queryShape;
+	}
+
+	public String getCollection() {
+		return collection;
+	}
+
+	public void setCollection(String collection) {
+		this.collection = collection;
+	}
+
+	public String getFilter() {
+		return filter;
+	}
+
+	public void setFilter(String filter) {
+		this.filter = filter;
+	}
+
+	public String getSort() {
+		return sort;
+	}
+
+	public void setSort(String sort) {
+		this.sort = sort;
+	}
+
+	public List<String> getStages() {
+		return stages;
+	}
+
+	public void setStages(List<String> stages) {
+		this.stages = stages;
+	}
+
+	public List<String> getIndexNames() {
+		return indexNames;
+	}
+
+	public void setIndexNames(List<String> indexNames) {
+		this.indexNames = indexNames;
+	}
+
+	public boolean isCollectionScan() {
+		return collectionScan;
+	}
+
+	public void setCollectionScan(boolean collectionScan) {
+		this.collectionScan = collectionScan;
+	}
+
+	@Override
+	public String toString() {
+		return "IndexReportEntry [queryShape=" + queryShape + ", collection=" + collection + ", filter=" + filter
+				+ ", sort=" + sort + ", stages=" + stages + ", indexNames=" + indexNames + ", collectionScan="
+				+ collectionScan + "]";
+	}
+}
@@ -0,0 +1,24 @@
+package ambient_intelligence.logic.boundaries;
+
+import java.util.List;
+
+public class TelemetryBatch {
+
+	private List<TelemetryEvent> events;
+
+	public TelemetryBatch() {
+	}
+
+	public List<TelemetryEvent> getEvents() {
+		return events;
+	}
+
+	public void setEvents(List<TelemetryEvent> events) {
+		this.events = events;
+	}
+
+	@Override
+	public String toString() {
+		return "TelemetryBatch [events=" + events + "]";
+	}
+}
@@ -0,0 +1,77 @@
+package ambient_intelligence.logic.boundaries;
+
+public class TelemetryEvent {
+
+	private String serial;
+	private Boolean motion;
+	private Boolean power;
+	private Number temperature;
+	private String mode;
+	private String fanSpeed;
+	private String timestamp;
+
+	public TelemetryEvent() {
+	}
+
+	public String getSerial() {
+		return serial;
+	}
+
+	public void setSerial(String serial) {
+		this.serial = serial;
+	}
+
+	public Boolean getMotion() {
+		return motion;
+	}
+
+	public void setMotion(Boolean motion) {
+		this.motion = motion;
+	}
+
+	public Boolean getPower() {
+		return power;
+	}
+
+	public void setPower(Boolean power) {
+		this.power = power;
+	}
+
+	public Number getTemperature() {
+		return temperature;
+	}
+
+	public void setTemperature(Number temperature) {
+		this.temperature = temperature;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	public void setMode(String mode) {
+		this.mode = mode;
+	}
+
+	public String getFanSpeed() {
+		return fanSpeed;
+	}
+
+	public void setFanSpeed(String fanSpeed) {
+		this.fanSpeed = fanSpeed;
+	}
+
+	public String getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(String timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "TelemetryEvent [serial=" + serial + ", motion=" + motion + ", power=" + power + ", temperature="
+				+ temperature + ", mode=" + mode + ", fanSpeed=" + fanSpeed + ", timestamp=" + timestamp + "]";
+	}
+}
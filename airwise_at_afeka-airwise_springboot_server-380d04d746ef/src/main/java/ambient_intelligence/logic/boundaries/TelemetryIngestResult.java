@@ -0,0 +1,36 @@
+package ambient_intelligence.logic.boundaries;
+
+public class TelemetryIngestResult {
+
+	private int accepted;
+	private int dropped;
+
+	public TelemetryIngestResult() {
+	}
+
+	public TelemetryIngestResult(int accepted, int dropped) {
+		this.accepted = accepted;
+		this.dropped = dropped;
+	}
+
+	public int getAccepted() {
+		return accepted;
+	}
+
+	public void setAccepted(int accepted) {
+		this.accepted = accepted;
+	}
+
+	public int getDropped() {
+		return dropped;
+	}
+
+	public void setDropped(int dropped) {
+		this.dropped = dropped;
+	}
+
+	@Override
+	public String toString() {
+		return "TelemetryIngestResult [accepted=" + accepted + ", dropped=" + dropped + "]";
+	}
+}
@@ -6,6 +6,7 @@ import ambient_intelligence.data.CommandEntity;
 import ambient_intelligence.logic.boundaries.CommandBoundary;
 import ambient_intelligence.logic.boundaries.CommandId;
 import ambient_intelligence.utils.AirwiseConfig;
+import ambient_intelligence.utils.DateUtils;
 
 @Component
 public class CommandConverter {
@@ -23,7 +24,7 @@ public class CommandConverter {
 
 		rv.setId(commandId);
 		rv.setCommand(entity.getCommand());
-		rv.setInvocationTimestamp(entity.getInvocationTimestamp());
+		rv.setInvocationTimestamp(DateUtils.format(entity.getInvocationTimestamp()));
 		rv.setCommandAttributes(entity.getCommandAttributes());
 		rv.setInvokedBy(entity.getInvokedBy());
 		rv.setTargetObject(entity.getTargetObject());
@@ -36,7 +37,7 @@ public class CommandConverter {
 		
 		rv.setId(boundary.getId());
 		rv.setCommand(boundary.getCommand());
-		rv.setInvocationTimestamp(boundary.getInvocationTimestamp());
+		rv.setInvocationTimestamp(DateUtils.parse(boundary.getInvocationTimestamp()));
 		rv.setCommandAttributes(boundary.getCommandAttributes());
 		rv.setInvokedBy(boundary.getInvokedBy());
 		rv.setTargetObject(boundary.getTargetObject());
@@ -6,6 +6,7 @@ import ambient_intelligence.data.ObjectEntity;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 import ambient_intelligence.logic.boundaries.ObjectId;
 import ambient_intelligence.utils.AirwiseConfig;
+import ambient_intelligence.utils.DateUtils;
 
 @Component
 public class ObjectConverter {
@@ -29,7 +30,7 @@ public class ObjectConverter {
 		rv.setActive(entity.isActive());
 		rv.setAlias(entity.getAlias());
 		rv.setCreatedBy(entity.getCreatedBy());
-		rv.setCreationTimestamp(entity.getCreationTimestamp());
+		rv.setCreationTimestamp(DateUtils.format(entity.getCreationTimestamp()));
 		rv.setObjectDetails(entity.getObjectDetails());
 		rv.setStatus(entity.getStatus());
 		rv.setType(entity.getType());
@@ -44,7 +45,7 @@ public class ObjectConverter {
 		rv.setActive(boundary.isActive());
 		rv.setAlias(boundary.getAlias());
 		rv.setCreatedBy(boundary.getCreatedBy());
-		rv.setCreationTimestamp(boundary.getCreationTimestamp());
+		rv.setCreationTimestamp(DateUtils.parse(boundary.getCreationTimestamp()));
 		rv.setId(boundary.getId());
 		rv.setObjectDetails(boundary.getObjectDetails());
 		rv.setStatus(boundary.getStatus());
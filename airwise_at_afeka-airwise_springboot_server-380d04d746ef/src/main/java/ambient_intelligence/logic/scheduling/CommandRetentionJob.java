@@ -0,0 +1,93 @@
+package ambient_intelligence.logic.scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ambient_intelligence.dal.archive.CommandArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps only the last hot-days of COMMANDS in Mongo; older commands are moved to the
+ * on-disk CommandArchive, which the history and export APIs keep reading from.
+ *
+ * The node owning the retention partition archives, and the partition moves between nodes. So with more
+ * than one live node the archive directory must be shared (airwise.commands.archive.shared); a node-local
+ * one would split the archive between the nodes while the commands leave the shared Mongo. Archiving is
+ * skipped, with a warning, until it is.
+ */
+@Service
+public class CommandRetentionJob {
+
+	private static final String RETENTION_PARTITION_KEY = "command-retention";
+
+	private final CommandArchive commandArchive;
+	private final SchedulerPartitions partitions;
+	private final long hotDays;
+	private final int maxPerSegment;
+	private final Counter archivedCounter;
+	private Log log = LogFactory.getLog(CommandRetentionJob.class);
+
+	public CommandRetentionJob(CommandArchive commandArchive, SchedulerPartitions partitions,
+			MeterRegistry meterRegistry,
+			@Value("${airwise.commands.retention.hot-days:90}") long hotDays,
+			@Value("${airwise.commands.archive.max-per-segment:100000}") int maxPerSegment) {
+		this.commandArchive = commandArchive;
+		this.partitions = partitions;
+		this.hotDays = hotDays;
+		this.maxPerSegment = Math.max(1, maxPerSegment);
+
+		this.archivedCounter = Counter.builder("airwise.commands.archived")
+				.description("commands moved from Mongo to archive segments")
+				.register(meterRegistry);
+		Gauge.builder("airwise.commands.archive.segments", commandArchive, CommandArchive::getSegmentCount)
+				.register(meterRegistry);
+	}
+
+	@Scheduled(cron = "${airwise.commands.retention.cron:0 30 3 * * *}")
+	public void archiveColdCommands() {
+		// one node moves the commands, like the recurring task reset
+		if (this.hotDays <= 0 || !this.partitions.owns(RETENTION_PARTITION_KEY)) {
+			return;
+		}
+		if (!this.commandArchive.isShared() && this.partitions.getLiveNodes() > 1) {
+			log.warn("command archiving skipped: " + this.partitions.getLiveNodes() + " live nodes but the archive"
+					+ " directory is node-local, set airwise.commands.archive.shared on shared storage");
+			return;
+		}
+
+		Date cutoff = Date.from(Instant.now().minus(Duration.ofDays(this.hotDays)));
+		try {
+			long archived = this.commandArchive.archiveOlderThan(cutoff, this.maxPerSegment);
+			this.archivedCounter.increment(archived);
+			if (archived > 0) {
+				log.info("archived " + archived + " commands invoked before " + cutoff);
+			}
+		} catch (RuntimeException e) {
+			// nothing is deleted from Mongo before its segment is committed, so the next run retries
+			log.error("command archiving failed: " + e.getMessage(), e);
+		}
+	}
+
+	// the segments written by whichever node archived last
+	@Scheduled(fixedDelayString = "${airwise.commands.archive.refresh-ms:60000}")
+	public void refreshArchive() {
+		if (!this.commandArchive.isShared()) {
+			return;
+		}
+
+		try {
+			this.commandArchive.refresh();
+		} catch (RuntimeException e) {
+			log.warn("could not refresh the command archive: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package ambient_intelligence.logic.scheduling;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ambient_intelligence.dal.EmailOutboxCrud;
+import ambient_intelligence.data.EmailOutboxEntity;
+import ambient_intelligence.data.EmailOutboxStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Delivers EMAIL_OUTBOX messages in batches. Each batch is claimed atomically,
+ * sent over a single SMTP connection, and failed messages are retried with
+ * exponential backoff until max-attempts is reached.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+	private final EmailOutboxCrud emailOutboxCrud;
+	private final JavaMailSender mailSender;
+	private final int batchSize;
+	private final int maxAttempts;
+	private final long backoffBaseMillis;
+	private final long backoffMaxMillis;
+	private final long staleClaimMillis;
+	private final boolean pollingEnabled;
+
+	private final AtomicLong queueDepth = new AtomicLong();
+	private final Timer deliveryLatency;
+	private final Counter sentCounter;
+	private final Counter failedCounter;
+
+	private Log log = LogFactory.getLog(EmailOutboxDispatcher.class);
+
+	public EmailOutboxDispatcher(EmailOutboxCrud emailOutboxCrud,
+			JavaMailSender mailSender,
+			MeterRegistry meterRegistry,
+			@Value("${airwise.mail.outbox.batch-size:50}") int batchSize,
+			@Value("${airwise.mail.outbox.max-attempts:6}") int maxAttempts,
+			@Value("${airwise.mail.outbox.backoff-base-ms:30000}") long backoffBaseMillis,
+			@Value("${airwise.mail.outbox.backoff-max-ms:3600000}") long backoffMaxMillis,
+			@Value("${airwise.mail.outbox.stale-claim-ms:600000}") long staleClaimMillis,
+			@Value("${airwise.mail.outbox.polling-enabled:true}") boolean pollingEnabled) {
+		this.emailOutboxCrud = emailOutboxCrud;
+		this.mailSender = mailSender;
+		this.batchSize = Math.max(1, batchSize);
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.backoffBaseMillis = backoffBaseMillis;
+		this.backoffMaxMillis = backoffMaxMillis;
+		this.staleClaimMillis = staleClaimMillis;
+		this.pollingEnabled = pollingEnabled;
+
+		Gauge.builder("airwise.mail.outbox.depth", this.queueDepth, AtomicLong::get)
+				.description("emails waiting in EMAIL_OUTBOX")
+				.register(meterRegistry);
+		this.deliveryLatency = Timer.builder("airwise.mail.delivery.latency")
+				.description("time from enqueue to successful SMTP delivery")
+				.register(meterRegistry);
+		this.sentCounter = Counter.builder("airwise.mail.outbox.sent").register(meterRegistry);
+		this.failedCounter = Counter.builder("airwise.mail.outbox.failed")
+				.description("emails given up after max-attempts")
+				.register(meterRegistry);
+	}
+
+	@Scheduled(initialDelayString = "${airwise.mail.outbox.poll-interval-ms:5000}",
+			fixedDelayString = "${airwise.mail.outbox.poll-interval-ms:5000}")
+	public void poll() {
+		// off in the tests, which call dispatch() themselves
+		if (this.pollingEnabled) {
+			this.dispatch();
+		}
+	}
+
+	public void dispatch() {
+		try {
+			List<EmailOutboxEntity> batch;
+			do {
+				batch = this.claimBatch();
+				if (!batch.isEmpty()) {
+					this.deliver(batch);
+				}
+			} while (batch.size() == this.batchSize);
+
+		} finally {
+			this.queueDepth.set(this.emailOutboxCrud.countByStatusIn(
+					List.of(EmailOutboxStatus.PENDING, EmailOutboxStatus.SENDING)));
+		}
+	}
+
+	private List<EmailOutboxEntity> claimBatch() {
+		Date now = new Date();
+		Date staleBefore = new Date(now.getTime() - this.staleClaimMillis);
+
+		List<EmailOutboxEntity> batch = new ArrayList<>();
+		EmailOutboxEntity claimed;
+		while (batch.size() < this.batchSize && (claimed = this.emailOutboxCrud.claimNext(now, staleBefore)) != null) {
+			batch.add(claimed);
+		}
+		return batch;
+	}
+
+	private void deliver(List<EmailOutboxEntity> batch) {
+
+		Map<SimpleMailMessage, EmailOutboxEntity> byMessage = new IdentityHashMap<>();
+		for (EmailOutboxEntity email : batch) {
+			SimpleMailMessage message = new SimpleMailMessage();
+			message.setFrom(email.getSender());
+			message.setTo(email.getReceiver());
+			message.setSubject(email.getSubject());
+			message.setText(email.getBody());
+			byMessage.put(message, email);
+		}
+
+		Map<Object, Exception> failed = new IdentityHashMap<>();
+		try {
+			// one connection for the whole batch
+			this.mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+
+		} catch (MailSendException e) {
+			failed.putAll(e.getFailedMessages());
+			if (failed.isEmpty()) {
+				byMessage.keySet().forEach(message -> failed.put(message, e));
+			}
+
+		} catch (MailException e) {
+			byMessage.keySet().forEach(message -> failed.put(message, e));
+		}
+
+		Date now = new Date();
+		for (Map.Entry<SimpleMailMessage, EmailOutboxEntity> entry : byMessage.entrySet()) {
+			EmailOutboxEntity email = entry.getValue();
+			Exception error = failed.get(entry.getKey());
+
+			if (error == null) {
+				email.setStatus(EmailOutboxStatus.SENT);
+				email.setSentAt(now);
+				email.setLastError(null);
+				this.sentCounter.increment();
+				this.deliveryLatency.record(now.getTime() - email.getCreatedAt().getTime(), TimeUnit.MILLISECONDS);
+
+			} else if (email.getAttempts() >= this.maxAttempts) {
+				email.setStatus(EmailOutboxStatus.FAILED);
+				email.setLastError(error.getMessage());
+				this.failedCounter.increment();
+				log.error("giving up on email " + email.getId() + " to " + email.getReceiver() + ": " + error.getMessage());
+
+			} else {
+				email.setStatus(EmailOutboxStatus.PENDING);
+				email.setNextAttemptAt(new Date(now.getTime() + this.backoffMillis(email.getAttempts())));
+				email.setLastError(error.getMessage());
+				log.warn("email " + email.getId() + " failed (attempt " + email.getAttempts() + "), retrying at "
+						+ email.getNextAttemptAt());
+			}
+			email.setClaimedAt(null);
+		}
+
+		this.emailOutboxCrud.saveAll(batch);
+	}
+
+	// base, 2*base, 4*base ... capped at backoff-max
+	long backoffMillis(int attempts) {
+		int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+		return Math.min(this.backoffBaseMillis << exponent, this.backoffMaxMillis);
+	}
+}
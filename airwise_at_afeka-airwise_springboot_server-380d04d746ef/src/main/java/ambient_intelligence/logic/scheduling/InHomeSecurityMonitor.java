@@ -1,209 +1,96 @@
 package ambient_intelligence.logic.scheduling;
 
-import ambient_intelligence.data.*;
-import ambient_intelligence.dal.ObjectCrud;
-import ambient_intelligence.dal.UserCrud;
-import ambient_intelligence.logic.boundaries.ACResponse;
 import ambient_intelligence.logic.boundaries.ACState;
-import ambient_intelligence.logic.boundaries.CreatedBy;
-import ambient_intelligence.logic.boundaries.ObjectBoundary;
-import ambient_intelligence.logic.boundaries.UserBoundary;
 import ambient_intelligence.external_api.RestClientACService;
-import ambient_intelligence.logic.boundaries.UserId;
-import ambient_intelligence.logic.ObjectsServiceImpl;
-import ambient_intelligence.logic.converters.ObjectConverter;
-import ambient_intelligence.logic.converters.UserConverter;
-import ambient_intelligence.utils.*;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort.Direction;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import java.util.*;
 
+/**
+ * Reconciliation fallback for motion alerts: motion is normally pushed to
+ * TelemetryIngestService, this sweep polls the AC api for anything missed.
+ */
 @Service
 public class InHomeSecurityMonitor {
 
-	private static final String SYSTEM_OPERATOR_EMAIL = "SystemOperator@airwise.com";
-
-
-    private final ObjectCrud objectCrud;
-    private final UserCrud userCrud;
     private final RestClientACService externalAcRestClient;
-    private final ObjectsServiceImpl objectsService;
-    private final EmailService emailService;
-    private final UserConverter userConverter;
-    private final ObjectConverter objectConverter;
+    private final SecurityAlertService securityAlertService;
+    private final MeterRegistry meterRegistry;
+    private final SchedulerPartitions partitions;
+    private final Timer sweepTimer;
     private Log log = LogFactory.getLog(InHomeSecurityMonitor.class);
     
-    public InHomeSecurityMonitor(ObjectCrud objectCrud,
-                                  UserCrud userCrud,
-                                  RestClientACService externalAcRestClient,
-                                  ObjectsServiceImpl objectsService,
-                                  EmailService emailService, UserConverter userConverter,
-                                  ObjectConverter objectConverter ) {
-        this.objectCrud = objectCrud;
-        this.userCrud = userCrud;
+    public InHomeSecurityMonitor(RestClientACService externalAcRestClient,
+                                  SecurityAlertService securityAlertService,
+                                  MeterRegistry meterRegistry,
+                                  SchedulerPartitions partitions) {
         this.externalAcRestClient = externalAcRestClient;
-        this.objectsService = objectsService;
-        this.emailService = emailService;
-        this.userConverter = userConverter;
-        this.objectConverter = objectConverter;
+        this.securityAlertService = securityAlertService;
+        this.meterRegistry = meterRegistry;
+        this.partitions = partitions;
+        this.sweepTimer = Timer.builder("airwise.security.sweep.duration")
+        		.description("duration of one in-home security sweep")
+        		.register(meterRegistry);
     }
 
-    @Scheduled(cron = "0 * * * * *") // every minute
+    @Scheduled(cron = "${airwise.security.reconcile.cron:0 * * * * *}")
     public void monitorInHomeSecurity() {
     	
     	log.info("monitorInHomeSecurity start");
     	
-        List<UserEntity> endUsers = userCrud.findAll();
+    	Timer.Sample sample = Timer.start(this.meterRegistry);
+    	try {
+    		// each node sweeps only the tenants of the partitions it leases
+    		this.checkMotionDetection(this.securityAlertService.findAwayTargets(this.partitions::owns));
+    	} finally {
+    		sample.stop(this.sweepTimer);
+    	}
         
-        for (UserEntity user : endUsers) {
-        	
-        	if(!user.getRole().toString().equals(UserRole.END_USER.toString()))
-        		continue;
-        	
-        	
-        	UserBoundary userBoundary = this.userConverter.toBoundary(user);
-        	
-            String userEmail = userBoundary.getUserId().getEmail();
-            
-            Pageable paging = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
-            List<ObjectEntity> tenants = objectCrud.findByAliasAndActiveTrue(userEmail, paging);
-            
-            if(tenants == null || tenants.isEmpty()) continue;
-                        
-            ObjectEntity tenant = tenants.getFirst();
-            
-            if (tenant == null || !tenant.getType().equals("Tenant")) continue;
-                      
-            List<ObjectEntity> sites = this.objectCrud.findAllByParent_IdAndActiveTrue(tenant.getId(), Pageable.unpaged());
-            if(sites != null && !sites.isEmpty()) {
-                for (ObjectEntity site : sites) {
-                	
-                	  if(site.getObjectDetails() != null) {                		  
-                		  boolean inSite = ValueParser.toBoolean(site.getObjectDetails().get("inSite"));
-                		  if(inSite) continue;
-                		  
-                		  List<ObjectEntity> rooms = this.objectCrud.findAllByParent_IdAndActiveTrue(site.getId(), Pageable.unpaged());
-                		  if(rooms != null && !rooms.isEmpty()) {
-                			                  			  
-                			  for (ObjectEntity room : rooms) {
-                				  
-                				  List<ObjectEntity> acs = this.objectCrud.findAllByParent_IdAndActiveTrue(room.getId(), Pageable.unpaged());
-                				  if(acs != null && !acs.isEmpty()) {
-	                				  for (ObjectEntity ac : acs) {
-	                					  if ("AirConditioner".equalsIgnoreCase(ac.getType())) {
-	                						  this.checkMotionDetection(userBoundary, site, ac);
-	                					  }
-	                				  }
-                				  }
-                			  }
-                			  
-                		  }
-                		  
-                	  }
-                }
-            }
-            
-            log.info("monitorInHomeSecurity ends");
-        }
+        log.info("monitorInHomeSecurity ends");
     }
     
     
-    private void checkMotionDetection(UserBoundary userBoundary, ObjectEntity site, ObjectEntity ac) {
+    private void checkMotionDetection(List<MotionTarget> targets) {
+    	
+    	if (targets.isEmpty()) return;
+    	
+    	Map<String, ACState> states;
     	try {
         	
-    		log.info("send request api for ac: " + ac.getAlias());
+    		log.info("send batch request api for " + targets.size() + " acs");
         	
-        	ACResponse response = externalAcRestClient.getACStateBySerial(ac.getAlias());
+    		states = externalAcRestClient.getACStatesBySerials(
+    				targets.stream().map(target -> target.ac().getAlias()).toList());
         	
-        	log.info("response of api : " + response.getCode());
+        	log.info("batch response of api : " + states.size() + " states");
         	
-            if (response != null && response.getCode() >= 200 && response.getCode() < 300) {
-            	
-            	ACState state = response.getAcState();
-            	
-            	log.info("state of ac : " + state.toString());
-            	
-            	               		
-        		if(state.isMotion()) {            
-        			log.info("create security notfication: " + userBoundary.getUserId().getEmail());
-        			this.createNotification(userBoundary.getUserId(),
-        					"Security Alert: Motion Detected",
-        					"Motion detected in your Site: " + site.getAlias() + ", while marked as 'Away'. Please check immediately.");
-        		}
-            	
-            }
-            
         } catch (Exception e) {
-        	e.printStackTrace();
+        	log.error("security sweep could not fetch AC states", e);
+        	return;
         }
-    }
-
-
-    @Transactional
-    private void createNotification(UserId userId, String title, String message) {
     	
-    	String tenantEmail = userId.getEmail();
-		
-    	Pageable pagingTenant = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
-		List<ObjectEntity> tenants = this.objectCrud.findByAliasAndActiveTrue(tenantEmail, pagingTenant);
-		if(tenants == null || tenants.isEmpty()) {
-			return;
-		}
-		
-		ObjectEntity tenant = tenants.getFirst();
-		
-        ObjectBoundary tenantBnd = this.objectConverter.toBoundary(tenant);
-		
-		Pageable pagingNotifs = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
-		List<ObjectEntity> notifs = this.objectCrud.findByAliasAndActiveTrue("alert-notification-"+tenantBnd.getId().getObjectId(), pagingNotifs);
-		if(notifs != null && !notifs.isEmpty()) {
-			ObjectEntity notf = notifs.getFirst();	
-			long minutesDiff = DateUtils.getMinutesDiffFromNow(notf.getCreationTimestamp());
-			if(minutesDiff < 30) return;
-		}
-		
-        ObjectBoundary notification = new ObjectBoundary();
-        notification.setType("Notification");
-        notification.setAlias("alert-notification-"+tenantBnd.getId().getObjectId());
-        notification.setStatus("warning");
-        notification.setActive(true);
-
-        String systemId = AirwiseConfig.getSystemID();
-        String userKey = systemId + AirwiseConfig.getIdSeparator() + SYSTEM_OPERATOR_EMAIL;
-        UserEntity operator = userCrud.findById(userKey).orElseGet(() -> {
-            UserEntity newOp = new UserEntity();
-            newOp.setUserId(userKey);
-            newOp.setRole(UserRole.OPERATOR);
-            newOp.setUsername("InternalSystemOperator");
-            newOp.setAvatar("InternalSystemOperator");
-            return userCrud.save(newOp);
-        });
-
-        CreatedBy createdBy = new CreatedBy();
-        createdBy.setUserId(new UserId(systemId, SYSTEM_OPERATOR_EMAIL));
-        notification.setCreatedBy(createdBy);
-
-        Map<String, Object> details = new HashMap<>();
-        details.put("title", title);
-        details.put("message", message);
-        notification.setObjectDetails(details);
-
-        notification = this.objectsService.create(notification);
-        
-        try {
-        	this.log.info("trying to send email of security alert");
-            this.emailService.sendEmail(
-                    new EmailRequest("noreply@airwise.com", tenantEmail, title, message));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    	for (MotionTarget target : targets) {
+    		try {
+    			
+    			ACState state = states.get(target.ac().getAlias());
+    			if (state == null) continue;
+    			
+    			log.info("state of ac : " + state.toString());
+    			
+    			if(state.isMotion()) {            
+    				this.securityAlertService.raiseMotionAlert(target);
+    			}
+    			
+    		} catch (Exception e) {
+    			log.error("failed to check motion of ac " + target.ac().getAlias(), e);
+    		}
+    	}
     }
 }
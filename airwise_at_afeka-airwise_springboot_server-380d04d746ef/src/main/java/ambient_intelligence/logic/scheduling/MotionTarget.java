@@ -0,0 +1,10 @@
+package ambient_intelligence.logic.scheduling;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.logic.boundaries.UserBoundary;
+
+/**
+ * An AC in a site marked 'Away', together with the site and the END_USER who owns it.
+ */
+public record MotionTarget(UserBoundary user, ObjectEntity site, ObjectEntity ac) {
+}
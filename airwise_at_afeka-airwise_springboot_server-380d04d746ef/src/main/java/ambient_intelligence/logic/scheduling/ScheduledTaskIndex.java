@@ -0,0 +1,359 @@
+package ambient_intelligence.logic.scheduling;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.dal.ObjectCrud;
+import ambient_intelligence.data.ActionType;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.RepeatPattern;
+import ambient_intelligence.utils.ValueParser;
+
+/**
+ * Timing wheel of the SCHEDULED tasks: one slot per minute of the day, each holding the ids of the tasks
+ * that fire in that minute (start time, and end time for TURN_ON tasks). A tick only loads the tasks of
+ * its own slot.
+ *
+ * Built after the migrations at startup, kept up to date by the code paths that schedule, update, run or
+ * delete tasks, and rebuilt from the database periodically as a safety net.
+ * With several server instances each keeps its own index: a change of a filed task is recorded in
+ * SCHEDULER_TASK_CHANGES (one document per task, stamped with the database clock), and the other
+ * instances reload just the changed tasks on their next sync. Changes made straight in the database
+ * (bulk updates) are recorded for all tasks at once, and make the other instances rebuild.
+ *
+ * Loads from the database (rebuild, reload) run outside the lock. A put or remove that lands while one is
+ * in flight is newer than what it read, so the load leaves that task as the put or remove filed it.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ScheduledTaskIndex implements ApplicationRunner {
+
+	private static final int MINUTES_PER_DAY = 24 * 60;
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+	private static final String CHANGES_COLLECTION = "SCHEDULER_TASK_CHANGES";
+	private static final String ALL_TASKS = "*";
+	private static final Duration CHANGE_TTL = Duration.ofHours(1);
+	// changes may commit slightly out of order, so each sync also re-reads this far before the newest one seen
+	private static final long SYNC_OVERLAP_MILLIS = 10_000;
+
+	private final ObjectCrud objectCrud;
+	private final MongoTemplate mongoTemplate;
+	private final String instanceId = UUID.randomUUID().toString();
+
+	// sync state, only used by the (non-overlapping) sync and by reconcile: the database time of the newest
+	// change applied, and the changes inside the overlap window that were already applied
+	private volatile Date syncedUpTo = new Date(0);
+	private final Map<String, Date> appliedChanges = new HashMap<>();
+
+	private final List<Set<String>> wheel = new ArrayList<>(MINUTES_PER_DAY);
+	private final Map<String, Slots> slotsByTask = new HashMap<>();
+
+	// change generation of the index, and while loads are in flight the generation each task was last put
+	// or removed at
+	private long generation;
+	private int loadsInFlight;
+	private final Map<String, Long> touchedAt = new HashMap<>();
+	private Log log = LogFactory.getLog(ScheduledTaskIndex.class);
+
+	public ScheduledTaskIndex(ObjectCrud objectCrud, MongoTemplate mongoTemplate) {
+		this.objectCrud = objectCrud;
+		this.mongoTemplate = mongoTemplate;
+		for (int i = 0; i < MINUTES_PER_DAY; i++) {
+			this.wheel.add(new HashSet<>());
+		}
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		// old change records expire on their own
+		this.mongoTemplate.indexOps(CHANGES_COLLECTION)
+				.ensureIndex(new Index().on("at", Direction.ASC).expire(CHANGE_TTL));
+		this.reconcile();
+	}
+
+	@Scheduled(cron = "${airwise.tasks.index.reconcile-cron:0 */15 * * * *}")
+	public void reconcile() {
+		// changes recorded from here on are applied again by sync(), which is harmless
+		Date newestChange = this.newestChange();
+		long loadStart = this.beginLoad();
+		List<ObjectEntity> tasks;
+		try {
+			tasks = this.objectCrud.findByTypeAndStatusAndActiveTrue("Task", "SCHEDULED", Pageable.unpaged());
+		} catch (RuntimeException e) {
+			this.endLoad();
+			throw e;
+		}
+
+		synchronized (this) {
+			// tasks put or removed during the load keep their filing, null when they were removed
+			Map<String, Slots> touched = new HashMap<>();
+			this.touchedAt.forEach((taskId, at) -> {
+				if (at > loadStart) {
+					touched.put(taskId, this.slotsByTask.get(taskId));
+				}
+			});
+
+			this.wheel.forEach(Set::clear);
+			this.slotsByTask.clear();
+			tasks.stream().filter(task -> !touched.containsKey(task.getId())).forEach(this::file);
+			touched.forEach((taskId, slots) -> {
+				if (slots != null) {
+					this.file(taskId, slots);
+				}
+			});
+			this.endLoad();
+		}
+		if (newestChange.after(this.syncedUpTo)) {
+			this.syncedUpTo = newestChange;
+		}
+		log.debug("scheduled task index rebuilt with " + this.size() + " tasks");
+	}
+
+	// reloads the tasks other instances have changed since the last sync
+	@Scheduled(fixedDelayString = "${airwise.tasks.index.sync-ms:5000}")
+	public void sync() {
+		Query recent = new Query(Criteria.where("at").gte(new Date(this.syncedUpTo.getTime() - SYNC_OVERLAP_MILLIS))
+				.and("node").ne(this.instanceId));
+
+		Set<String> changedTasks = new HashSet<>();
+		Date newest = this.syncedUpTo;
+		for (Document change : this.mongoTemplate.find(recent, Document.class, CHANGES_COLLECTION)) {
+			String taskId = change.getString("_id");
+			Date at = change.getDate("at");
+			if (!at.equals(this.appliedChanges.put(taskId, at))) {
+				changedTasks.add(taskId);
+			}
+			if (at.after(newest)) {
+				newest = at;
+			}
+		}
+
+		if (changedTasks.contains(ALL_TASKS)) {
+			this.reconcile();
+		} else if (!changedTasks.isEmpty()) {
+			this.reload(changedTasks);
+		}
+
+		this.syncedUpTo = newest;
+		long windowStart = newest.getTime() - SYNC_OVERLAP_MILLIS;
+		this.appliedChanges.values().removeIf(at -> at.getTime() < windowStart);
+	}
+
+	/**
+	 * Files the task under its fire minutes, or drops it when it is no longer an active SCHEDULED task
+	 * with a valid schedule. Call after every save of a Task.
+	 */
+	public void put(ObjectEntity task) {
+		boolean changed;
+		synchronized (this) {
+			boolean wasFiled = this.slotsByTask.containsKey(task.getId());
+			this.file(task);
+			this.touched(task.getId());
+
+			// other objects, and tasks that never fire, need no sync: a stale entry is dropped when its tick
+			// re-reads the task
+			changed = wasFiled || this.slotsByTask.containsKey(task.getId());
+		}
+		if (changed) {
+			this.recordChange(task.getId());
+		}
+	}
+
+	public void remove(String taskId) {
+		boolean changed;
+		synchronized (this) {
+			changed = this.slotsByTask.containsKey(taskId);
+			this.unfile(taskId);
+			this.touched(taskId);
+		}
+		if (changed) {
+			this.recordChange(taskId);
+		}
+	}
+
+	public void clear() {
+		synchronized (this) {
+			this.wheel.forEach(Set::clear);
+			this.slotsByTask.clear();
+		}
+		this.recordChange(ALL_TASKS);
+	}
+
+	// for changes made straight in the database (bulk updates): the other instances rebuild on their next
+	// sync, the caller rebuilds this one with reconcile()
+	public void invalidate() {
+		this.recordChange(ALL_TASKS);
+	}
+
+	// ids of the tasks firing at the given minute
+	public synchronized Set<String> due(LocalTime time) {
+		return new HashSet<>(this.wheel.get(minuteOfDay(time)));
+	}
+
+	// the AC key the task was filed with, null if it is not filed
+	public synchronized String filedAcKey(String taskId) {
+		Slots slots = this.slotsByTask.get(taskId);
+		return slots == null ? null : slots.acKey();
+	}
+
+	public synchronized int size() {
+		return this.slotsByTask.size();
+	}
+
+	private void file(ObjectEntity task) {
+		this.unfile(task.getId());
+
+		Slots slots = slotsOf(task);
+		if (slots != null) {
+			this.file(task.getId(), slots);
+		}
+	}
+
+	private void file(String taskId, Slots slots) {
+		this.slotsByTask.put(taskId, slots);
+		this.wheel.get(slots.start()).add(taskId);
+		if (slots.end() >= 0) {
+			this.wheel.get(slots.end()).add(taskId);
+		}
+	}
+
+	private void unfile(String taskId) {
+		Slots slots = this.slotsByTask.remove(taskId);
+		if (slots == null) {
+			return;
+		}
+
+		this.wheel.get(slots.start()).remove(taskId);
+		if (slots.end() >= 0) {
+			this.wheel.get(slots.end()).remove(taskId);
+		}
+	}
+
+	private void reload(Set<String> taskIds) {
+		long loadStart = this.beginLoad();
+		Map<String, ObjectEntity> stored = new HashMap<>();
+		try {
+			this.objectCrud.findAllById(taskIds).forEach(task -> stored.put(task.getId(), task));
+		} catch (RuntimeException e) {
+			this.endLoad();
+			throw e;
+		}
+
+		synchronized (this) {
+			for (String taskId : taskIds) {
+				if (this.touchedAt.getOrDefault(taskId, loadStart) > loadStart) {
+					continue; // put or removed here after it was read
+				}
+
+				ObjectEntity task = stored.get(taskId);
+				if (task != null) {
+					this.file(task);
+				} else {
+					this.unfile(taskId);
+				}
+			}
+			this.endLoad();
+		}
+		log.debug("reloaded " + taskIds.size() + " changed scheduled tasks");
+	}
+
+	private synchronized long beginLoad() {
+		this.loadsInFlight++;
+		return this.generation;
+	}
+
+	private synchronized void endLoad() {
+		if (--this.loadsInFlight == 0) {
+			this.touchedAt.clear();
+		}
+	}
+
+	// callers hold the lock
+	private void touched(String taskId) {
+		this.generation++;
+		if (this.loadsInFlight > 0) {
+			this.touchedAt.put(taskId, this.generation);
+		}
+	}
+
+	// stamped with the database clock, so the instances agree on the order whatever their own clocks say
+	private void recordChange(String taskId) {
+		this.mongoTemplate.upsert(new Query(Criteria.where("_id").is(taskId)),
+				new Update().currentDate("at").set("node", this.instanceId), CHANGES_COLLECTION);
+	}
+
+	private Date newestChange() {
+		Query newest = new Query().with(Sort.by(Direction.DESC, "at")).limit(1);
+		Document change = this.mongoTemplate.findOne(newest, Document.class, CHANGES_COLLECTION);
+		return change == null ? new Date(0) : change.getDate("at");
+	}
+
+	/**
+	 * The minutes of the day the task fires at (end is -1 unless it is a TURN_ON task), or null when the
+	 * task should not fire at all: inactive, not SCHEDULED, or with a missing / invalid schedule.
+	 */
+	static Slots slotsOf(ObjectEntity task) {
+		if (!"Task".equals(task.getType()) || !"SCHEDULED".equals(task.getStatus()) || !task.isActive()) {
+			return null;
+		}
+
+		Map<String, Object> details = task.getObjectDetails();
+		if (details == null || !details.containsKey("startTime") || !details.containsKey("action")) {
+			return null;
+		}
+
+		boolean turnOn = ActionType.TURN_ON.toString().equals(ValueParser.toString(details.get("action")));
+		if (turnOn && !details.containsKey("endTime")) {
+			return null;
+		}
+
+		try {
+			RepeatPattern.fromString(String.valueOf(details.get("repeat")));
+			int start = minuteOfDay(LocalTime.parse(String.valueOf(details.get("startTime")), TIME_FORMAT));
+			int end = turnOn ? minuteOfDay(LocalTime.parse(String.valueOf(details.get("endTime")), TIME_FORMAT))
+					: -1;
+			return new Slots(start, end, acKey(task));
+		} catch (Exception e) {
+			return null; // unknown pattern or invalid time format
+		}
+	}
+
+	static int minuteOfDay(LocalTime time) {
+		return time.getHour() * 60 + time.getMinute();
+	}
+
+	// tasks are children of their AC, so the parent id stands for the AC serial
+	static String acKey(ObjectEntity task) {
+		return task.getParentId() != null ? task.getParentId() : task.getId();
+	}
+
+	record Slots(int start, int end, String acKey) {
+	}
+}
@@ -0,0 +1,158 @@
+package ambient_intelligence.logic.scheduling;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.dal.SchedulerLeaseCrud;
+import ambient_intelligence.dal.SchedulerNodeCrud;
+import ambient_intelligence.data.SchedulerNodeEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Splits the scheduled work between the running server instances. Work items (ACs, tenants, jobs) hash
+ * into a fixed number of partitions, and each partition is leased in SCHEDULER_LEASES by one node at
+ * a time. Every heartbeat a node renews its leases, gives back what is above its fair share of the
+ * live nodes (so a joining node gets some), and claims free or expired partitions up to that share
+ * (so the partitions of a dead node are picked up once its leases expire).
+ *
+ * A node stops acting on its partitions as soon as its own leases would have expired, even if it
+ * could not reach the database to renew them.
+ */
+@Component
+public class SchedulerPartitions {
+
+	private final SchedulerLeaseCrud leaseCrud;
+	private final SchedulerNodeCrud nodeCrud;
+	private final MeterRegistry meterRegistry;
+	private final int partitions;
+	private final long leaseTtlMillis;
+	private final String nodeId;
+
+	private volatile Set<Integer> owned = Set.of();
+	private volatile long ownedUntil;
+	private volatile long liveNodes = 1;
+	private Log log = LogFactory.getLog(SchedulerPartitions.class);
+
+	public SchedulerPartitions(SchedulerLeaseCrud leaseCrud, SchedulerNodeCrud nodeCrud, MeterRegistry meterRegistry,
+			@Value("${airwise.scheduler.partitions:16}") int partitions,
+			@Value("${airwise.scheduler.lease-ttl-ms:20000}") long leaseTtlMillis,
+			@Value("${airwise.scheduler.node-id:}") String nodeId) {
+		this.leaseCrud = leaseCrud;
+		this.nodeCrud = nodeCrud;
+		this.meterRegistry = meterRegistry;
+		this.partitions = Math.max(1, partitions);
+		this.leaseTtlMillis = leaseTtlMillis;
+		this.nodeId = nodeId == null || nodeId.isBlank() ? generateNodeId() : nodeId;
+	}
+
+	// once constructed, so the gauge never sees a half-initialized instance
+	@PostConstruct
+	public void registerMetrics() {
+		Gauge.builder("airwise.scheduler.partitions.owned", this, partitionsOwner -> partitionsOwner.getOwned().size())
+				.description("scheduler partitions leased by this node")
+				.register(this.meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${airwise.scheduler.heartbeat-ms:5000}")
+	public synchronized void heartbeat() {
+		Date now = new Date();
+		Date expiresAt = new Date(now.getTime() + this.leaseTtlMillis);
+
+		try {
+			this.nodeCrud.save(new SchedulerNodeEntity(this.nodeId, now, expiresAt));
+			long liveNodes = Math.max(1, this.nodeCrud.countByExpiresAtAfter(now));
+			int fairShare = (int) Math.ceil((double) this.partitions / liveNodes);
+
+			TreeSet<String> held = new TreeSet<>(this.leaseCrud.renew(this.nodeId, now, expiresAt));
+
+			// give back the surplus so a node that just joined can claim it
+			if (held.size() > fairShare) {
+				List<String> surplus = new ArrayList<>(held).subList(fairShare, held.size());
+				this.leaseCrud.release(this.nodeId, surplus);
+				surplus.forEach(held::remove);
+			}
+
+			// take free or expired partitions up to the fair share
+			for (int partition = 0; partition < this.partitions && held.size() < fairShare; partition++) {
+				String partitionId = String.valueOf(partition);
+				if (!held.contains(partitionId) && this.leaseCrud.claim(partitionId, this.nodeId, now, expiresAt)) {
+					held.add(partitionId);
+				}
+			}
+
+			Set<Integer> ownedNow = new TreeSet<>();
+			held.forEach(partitionId -> ownedNow.add(Integer.valueOf(partitionId)));
+			if (!ownedNow.equals(this.owned)) {
+				log.info("node " + this.nodeId + " owns scheduler partitions " + ownedNow + " of " + this.partitions
+						+ " (" + liveNodes + " live nodes)");
+			}
+
+			this.owned = Set.copyOf(ownedNow);
+			this.ownedUntil = expiresAt.getTime();
+			this.liveNodes = liveNodes;
+		} catch (RuntimeException e) {
+			// keep the current view until the leases run out; the other nodes take over after that
+			log.warn("scheduler heartbeat failed: " + e.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		List<String> held = this.getOwned().stream().map(String::valueOf).toList();
+		this.owned = Set.of();
+		this.ownedUntil = 0;
+
+		try {
+			this.leaseCrud.release(this.nodeId, held);
+			this.nodeCrud.deleteById(this.nodeId);
+		} catch (RuntimeException e) {
+			log.warn("could not release scheduler leases on shutdown: " + e.getMessage());
+		}
+	}
+
+	// true if this node currently runs the scheduled work of the given AC / tenant / job key
+	public boolean owns(String key) {
+		return this.getOwned().contains(this.partitionOf(key));
+	}
+
+	public int partitionOf(String key) {
+		return Math.floorMod(key.hashCode(), this.partitions);
+	}
+
+	public Set<Integer> getOwned() {
+		return System.currentTimeMillis() < this.ownedUntil ? this.owned : Set.of();
+	}
+
+	// as of the last heartbeat
+	public long getLiveNodes() {
+		return liveNodes;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	private static String generateNodeId() {
+		String host;
+		try {
+			host = InetAddress.getLocalHost().getHostName();
+		} catch (Exception e) {
+			host = "node";
+		}
+		return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+	}
+}
@@ -0,0 +1,212 @@
+package ambient_intelligence.logic.scheduling;
+
+import ambient_intelligence.data.*;
+import ambient_intelligence.dal.ObjectCrud;
+import ambient_intelligence.dal.UserCrud;
+import ambient_intelligence.logic.boundaries.ObjectBoundary;
+import ambient_intelligence.logic.boundaries.UserBoundary;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.logic.ObjectsServiceImpl;
+import ambient_intelligence.logic.converters.ObjectConverter;
+import ambient_intelligence.logic.converters.UserConverter;
+import ambient_intelligence.logic.security.SystemOperator;
+import ambient_intelligence.utils.*;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Motion alert logic shared by the pushed telemetry consumer and the
+ * reconciliation sweep of InHomeSecurityMonitor.
+ */
+@Service
+public class SecurityAlertService {
+
+    private final ObjectCrud objectCrud;
+    private final UserCrud userCrud;
+    private final ObjectsServiceImpl objectsService;
+    private final EmailService emailService;
+    private final UserConverter userConverter;
+    private final ObjectConverter objectConverter;
+    private final SystemOperator systemOperator;
+    private Log log = LogFactory.getLog(SecurityAlertService.class);
+
+    public SecurityAlertService(ObjectCrud objectCrud,
+                                UserCrud userCrud,
+                                ObjectsServiceImpl objectsService,
+                                EmailService emailService, UserConverter userConverter,
+                                ObjectConverter objectConverter, SystemOperator systemOperator) {
+        this.objectCrud = objectCrud;
+        this.userCrud = userCrud;
+        this.objectsService = objectsService;
+        this.emailService = emailService;
+        this.userConverter = userConverter;
+        this.objectConverter = objectConverter;
+        this.systemOperator = systemOperator;
+    }
+
+    public void raiseMotionAlert(MotionTarget target) {
+    	log.info("create security notfication: " + target.user().getUserId().getEmail());
+    	this.createNotification(target.user().getUserId(),
+    			"Security Alert: Motion Detected",
+    			"Motion detected in your Site: " + target.site().getAlias() + ", while marked as 'Away'. Please check immediately.");
+    }
+
+    // every active AC of every 'Away' site of the END_USER tenants accepted by tenantFilter (tenant object id),
+    // one query per hierarchy level
+    public List<MotionTarget> findAwayTargets(Predicate<String> tenantFilter) {
+    	
+    	// users -> their tenants (tenant alias is the user's email)
+    	Map<String, UserBoundary> usersByEmail = new HashMap<>();
+    	for (UserEntity user : this.userCrud.findAllByRole(UserRole.END_USER)) {
+    		UserBoundary userBoundary = this.userConverter.toBoundary(user);
+    		usersByEmail.put(userBoundary.getUserId().getEmail(), userBoundary);
+    	}
+    	
+    	// newest object per alias, same as the single lookup used elsewhere
+    	Map<String, UserBoundary> usersByTenantId = new HashMap<>();
+    	Set<String> seenAliases = new HashSet<>();
+    	for (ObjectEntity tenant : this.objectCrud.findActiveByAliasIn(usersByEmail.keySet(), "alias", "type")) {
+    		if (!seenAliases.add(tenant.getAlias())) continue;
+    		if (!"Tenant".equals(tenant.getType())) continue;
+    		if (!tenantFilter.test(tenant.getId())) continue;
+    		usersByTenantId.put(tenant.getId(), usersByEmail.get(tenant.getAlias()));
+    	}
+    	
+    	// tenants -> sites marked 'Away'
+    	Map<String, ObjectEntity> awaySites = new HashMap<>();
+    	for (ObjectEntity site : this.objectCrud.findActiveByParentIdIn(usersByTenantId.keySet(),
+    			"alias", "parentId", "objectDetails.inSite")) {
+    		if (site.getObjectDetails() == null) continue;
+    		if (ValueParser.toBoolean(site.getObjectDetails().get("inSite"))) continue;
+    		awaySites.put(site.getId(), site);
+    	}
+    	
+    	// sites -> active rooms
+    	Set<String> activeRoomIds = new HashSet<>();
+    	for (ObjectEntity room : this.objectCrud.findActiveByParentIdIn(awaySites.keySet())) {
+    		activeRoomIds.add(room.getId());
+    	}
+    	
+    	// sites -> ACs of those rooms
+    	List<MotionTarget> targets = new ArrayList<>();
+    	for (ObjectEntity ac : this.objectCrud.findActiveByTypeAndAncestorsIn("AirConditioner", awaySites.keySet(),
+    			"alias", "parentId", "ancestors")) {
+    		if (!activeRoomIds.contains(ac.getParentId())) continue;
+    		
+    		ObjectEntity site = awaySites.get(siteIdOf(ac));
+    		if (site == null) continue;
+    		
+    		targets.add(new MotionTarget(usersByTenantId.get(site.getParentId()), site, ac));
+    	}
+    	
+    	return targets;
+    }
+    
+    // ancestors of an AC are [tenant, site, room]
+    private String siteIdOf(ObjectEntity ac) {
+    	List<String> ancestors = ac.getAncestors();
+    	return ancestors.size() >= 2 ? ancestors.get(ancestors.size() - 2) : null;
+    }
+    
+    
+    // the away targets of the given AC serials only (AC alias is its serial)
+    public List<MotionTarget> findAwayTargetsBySerials(Collection<String> serials) {
+    	
+    	List<ObjectEntity> acs = this.objectCrud.findActiveByAliasIn(serials, "alias", "type", "parentId", "ancestors")
+    			.stream()
+    			.filter(ac -> "AirConditioner".equals(ac.getType()) && ac.getAncestors().size() >= 3)
+    			.toList();
+    	
+    	if (acs.isEmpty()) return List.of();
+    	
+    	// rooms, sites and tenants of those ACs in one lookup
+    	Set<String> hierarchyIds = new HashSet<>();
+    	for (ObjectEntity ac : acs) {
+    		hierarchyIds.addAll(ac.getAncestors());
+    	}
+    	Map<String, ObjectEntity> hierarchy = new HashMap<>();
+    	for (ObjectEntity object : this.objectCrud.findAllById(hierarchyIds)) {
+    		if (object.isActive()) hierarchy.put(object.getId(), object);
+    	}
+    	
+    	Map<String, Optional<UserBoundary>> endUsersByTenantId = new HashMap<>();
+    	List<MotionTarget> targets = new ArrayList<>();
+    	
+    	for (ObjectEntity ac : acs) {
+    		List<String> ancestors = ac.getAncestors();
+    		ObjectEntity room = hierarchy.get(ancestors.get(ancestors.size() - 1));
+    		ObjectEntity site = hierarchy.get(ancestors.get(ancestors.size() - 2));
+    		ObjectEntity tenant = hierarchy.get(ancestors.get(ancestors.size() - 3));
+    		
+    		if (room == null || site == null || tenant == null) continue;
+    		if (!"Tenant".equals(tenant.getType()) || site.getObjectDetails() == null) continue;
+    		if (ValueParser.toBoolean(site.getObjectDetails().get("inSite"))) continue;
+    		
+    		Optional<UserBoundary> user = endUsersByTenantId.computeIfAbsent(tenant.getId(),
+    				id -> this.userCrud.findById(AirwiseConfig.getSystemID() + AirwiseConfig.getIdSeparator() + tenant.getAlias())
+    						.filter(entity -> entity.getRole() == UserRole.END_USER)
+    						.map(this.userConverter::toBoundary));
+    		
+    		user.ifPresent(owner -> targets.add(new MotionTarget(owner, site, ac)));
+    	}
+    	
+    	return targets;
+    }
+
+
+    @Transactional
+    private void createNotification(UserId userId, String title, String message) {
+    	
+    	String tenantEmail = userId.getEmail();
+		
+    	Pageable pagingTenant = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
+		List<ObjectEntity> tenants = this.objectCrud.findByAliasAndActiveTrue(tenantEmail, pagingTenant);
+		if(tenants == null || tenants.isEmpty()) {
+			return;
+		}
+		
+		ObjectEntity tenant = tenants.getFirst();
+		
+        ObjectBoundary tenantBnd = this.objectConverter.toBoundary(tenant);
+		
+		Pageable pagingNotifs = PageRequest.of(0, 1, Direction.DESC, "creationTimestamp", "id");
+		List<ObjectEntity> notifs = this.objectCrud.findByAliasAndActiveTrue("alert-notification-"+tenantBnd.getId().getObjectId(), pagingNotifs);
+		if(notifs != null && !notifs.isEmpty()) {
+			ObjectEntity notf = notifs.getFirst();	
+			if(notf.getCreationTimestamp() != null
+					&& DateUtils.getMinutesDiffFromNow(notf.getCreationTimestamp()) < 30) return;
+		}
+		
+        ObjectBoundary notification = new ObjectBoundary();
+        notification.setType("Notification");
+        notification.setAlias("alert-notification-"+tenantBnd.getId().getObjectId());
+        notification.setStatus("warning");
+        notification.setActive(true);
+
+        notification.setCreatedBy(this.systemOperator.createdBy());
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("title", title);
+        details.put("message", message);
+        notification.setObjectDetails(details);
+
+        this.systemOperator.callAs(() -> this.objectsService.create(notification));
+        
+        try {
+        	this.log.info("trying to send email of security alert");
+            this.emailService.sendEmail(
+                    new EmailRequest("noreply@airwise.com", tenantEmail, title, message));
+        } catch (Exception e) {
+            log.error("failed to queue security alert email for " + tenantEmail, e);
+        }
+    }
+}
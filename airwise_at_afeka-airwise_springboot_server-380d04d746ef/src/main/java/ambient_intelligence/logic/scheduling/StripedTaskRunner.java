@@ -0,0 +1,62 @@
+package ambient_intelligence.logic.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.logic.NotificationBatch;
+
+/**
+ * Runs a batch of work items on at most `lanes` virtual threads. Items with the same key always land on
+ * the same lane and run there one after another in list order, so two tasks of one AC never overlap;
+ * different lanes run in parallel. A failing item does not stop the rest of its lane.
+ */
+@Component
+public class StripedTaskRunner {
+
+	private final int lanes;
+	private Log log = LogFactory.getLog(StripedTaskRunner.class);
+
+	public StripedTaskRunner(@Value("${airwise.tasks.worker-lanes:16}") int lanes) {
+		this.lanes = Math.max(1, lanes);
+	}
+
+	// returns once every item has run
+	public <T> void runAll(List<T> items, Function<T, String> key, Consumer<T> action) {
+
+		List<List<T>> byLane = new ArrayList<>();
+		for (int i = 0; i < this.lanes; i++) {
+			byLane.add(new ArrayList<>());
+		}
+		for (T item : items) {
+			byLane.get(Math.floorMod(key.apply(item).hashCode(), this.lanes)).add(item);
+		}
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (List<T> lane : byLane) {
+				if (lane.isEmpty()) {
+					continue;
+				}
+
+				executor.submit(NotificationBatch.wrap(() -> {
+					for (T item : lane) {
+						try {
+							NotificationBatch.runItem(() -> action.accept(item));
+						} catch (Exception e) {
+							log.warn("scheduled work failed for " + key.apply(item) + ": " + e.getMessage());
+						}
+					}
+					return null;
+				}));
+			}
+		}
+	}
+}
@@ -4,6 +4,7 @@ import ambient_intelligence.data.*;
 import ambient_intelligence.dal.ObjectCrud;
 import ambient_intelligence.dal.UserCrud;
 import ambient_intelligence.logic.CommandsServiceImpl;
+import ambient_intelligence.logic.NotificationService;
 import ambient_intelligence.logic.boundaries.InvokedBy;
 import ambient_intelligence.logic.boundaries.ObjectId;
 import ambient_intelligence.logic.boundaries.TargetObject;
@@ -13,12 +14,22 @@ import ambient_intelligence.utils.AirwiseConfig;
 import ambient_intelligence.utils.DateUtils;
 import ambient_intelligence.utils.ValueParser;
 
-import org.springframework.data.domain.Pageable;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
@@ -27,143 +38,183 @@ public class TaskSchedulerService {
     private final ObjectCrud objectCrud;
     private final CommandsServiceImpl commandsService;
     private final UserCrud userCrud;
+    private final NotificationService notificationService;
+    private final ScheduledTaskIndex taskIndex;
+    private final SchedulerPartitions partitions;
+    private final StripedTaskRunner taskRunner;
+    private final long graceMinutes;
+    private final Timer tickLag;
+    private final Counter evaluatedCounter;
+    private final Counter executedCounter;
+    private final Counter lateCounter;
+    private final Counter resetCounter;
+
+    private static final String RESET_PARTITION_KEY = "recurring-task-reset";
 
-    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    // minute of the previous tick; only the (non-overlapping) tick itself reads and writes it
+    private LocalDateTime lastTickMinute;
+    private Log log = LogFactory.getLog(TaskSchedulerService.class);
 
-    public TaskSchedulerService(ObjectCrud objectCrud, CommandsServiceImpl commandsService, UserCrud userCrud) {
+    public TaskSchedulerService(ObjectCrud objectCrud, CommandsServiceImpl commandsService, UserCrud userCrud,
+    		NotificationService notificationService, ScheduledTaskIndex taskIndex, SchedulerPartitions partitions,
+    		StripedTaskRunner taskRunner, MeterRegistry meterRegistry,
+    		@Value("${airwise.tasks.catch-up-grace-minutes:10}") long graceMinutes) {
         this.objectCrud = objectCrud;
         this.commandsService = commandsService;
         this.userCrud = userCrud;
+        this.notificationService = notificationService;
+        this.taskIndex = taskIndex;
+        this.partitions = partitions;
+        this.taskRunner = taskRunner;
+        this.graceMinutes = Math.max(0, graceMinutes);
+        this.tickLag = Timer.builder("airwise.tasks.tick.lag")
+        		.description("delay between the minute a scheduler tick was due and its actual start")
+        		.register(meterRegistry);
+        this.evaluatedCounter = Counter.builder("airwise.tasks.evaluated")
+        		.description("due tasks loaded and checked by the scheduler")
+        		.register(meterRegistry);
+        this.executedCounter = Counter.builder("airwise.tasks.executed").register(meterRegistry);
+        this.lateCounter = Counter.builder("airwise.tasks.executed.late")
+        		.description("tasks run by a later tick, within the catch-up grace period")
+        		.register(meterRegistry);
+        this.resetCounter = Counter.builder("airwise.tasks.reset")
+        		.description("recurring EXECUTED tasks moved back to SCHEDULED by the midnight reset")
+        		.register(meterRegistry);
     }
 
     @Scheduled(cron = "0 * * * * *") // every minute
     public void runScheduledTasks() {
-    	List<ObjectEntity> allTasks = this.objectCrud.findByTypeAndStatusAndActiveTrue("Task", "SCHEDULED", Pageable.unpaged());
+    	// all tasks firing in this tick notify each user once
+    	this.notificationService.coalesce(this::runDueTasks);
+    }
 
-        for (ObjectEntity task : allTasks) {
-            Map<String, Object> details = task.getObjectDetails();
-            if (details == null || !details.containsKey("startTime") || !details.containsKey("action"))
-                continue;
-            
-            String action = ValueParser.toString(details.get("action"));
-            if(action.equals(ActionType.TURN_ON.toString()) && !details.containsKey("endTime")) {
-            	continue;
+    private void runDueTasks() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime tickMinute = started.truncatedTo(ChronoUnit.MINUTES);
+
+        // every minute since the previous tick (several after a slow tick or a pause), but no further back
+        // than the grace period; after a restart, the whole grace period
+        LocalDateTime from = tickMinute.minusMinutes(this.graceMinutes);
+        if (this.lastTickMinute != null && this.lastTickMinute.plusMinutes(1).isAfter(from))
+            from = this.lastTickMinute.plusMinutes(1);
+
+        LocalDateTime scheduledAt = this.lastTickMinute != null ? this.lastTickMinute.plusMinutes(1) : tickMinute;
+        Duration lag = Duration.between(scheduledAt, started);
+        this.tickLag.record(lag.isNegative() ? Duration.ZERO : lag);
+        this.lastTickMinute = tickMinute;
+
+        // only the tasks filed under those minutes, and only those of the ACs whose partition this node
+        // leases, so all tasks of an AC run on one node
+        Map<String, List<LocalDateTime>> fireTimesById = new HashMap<>();
+        for (LocalDateTime minute = from; !minute.isAfter(tickMinute); minute = minute.plusMinutes(1)) {
+            for (String taskId : this.taskIndex.due(minute.toLocalTime())) {
+                String acKey = this.taskIndex.filedAcKey(taskId);
+                if (acKey != null && this.partitions.owns(acKey))
+                    fireTimesById.computeIfAbsent(taskId, id -> new ArrayList<>()).add(minute);
             }
+        }
+        if (fireTimesById.isEmpty())
+            return;
+
+        List<DueTask> due = new ArrayList<>();
+        for (ObjectEntity task : this.objectCrud.findAllById(fireTimesById.keySet())) {
+            this.evaluatedCounter.increment();
 
-            String repeatStr = String.valueOf(details.get("repeat"));
-            RepeatPattern repeatPattern;
-            try {
-                repeatPattern = RepeatPattern.fromString(repeatStr);
-            } catch (Exception e) {
-                continue; // unknown pattern
+            // the index may be behind the database: re-check the stored task and refile it if it moved
+            ScheduledTaskIndex.Slots slots = ScheduledTaskIndex.slotsOf(task);
+            if (slots == null || !this.partitions.owns(slots.acKey())) {
+                this.taskIndex.put(task);
+                continue;
             }
 
-            
-            LocalTime now = LocalTime.now().truncatedTo(java.time.temporal.ChronoUnit.MINUTES);
-            boolean isEndTime = false;
-            
-            // parse scheduled time
-            if(action.equals(ActionType.TURN_ON.toString())) {   
-            	
-            	// Here is a TURN_ON action, so we need start time AND end time
-            	String startTimeStr = String.valueOf(details.get("startTime"));
-            	String endTimeStr = String.valueOf(details.get("endTime"));
-
-                LocalTime scheduledStartTime;
-                try {
-                	scheduledStartTime = LocalTime.parse(startTimeStr, TIME_FORMAT);
-                } catch (Exception e) {
-                    continue; // invalid time format
-                }
-                
-                LocalTime scheduledEndTime;
-                try {
-                	scheduledEndTime = LocalTime.parse(endTimeStr, TIME_FORMAT);
-                } catch (Exception e) {
-                    continue; // invalid time format
-                }
-                
-            	
-                if (!now.equals(scheduledStartTime.truncatedTo(java.time.temporal.ChronoUnit.MINUTES))
-                		&& !now.equals(scheduledEndTime.truncatedTo(java.time.temporal.ChronoUnit.MINUTES))) {                	
-                	continue;
-                }
-                
-                if(now.equals(scheduledEndTime.truncatedTo(java.time.temporal.ChronoUnit.MINUTES))) {
-                	isEndTime = true;
+            String repeatStr = String.valueOf(task.getObjectDetails().get("repeat"));
+            RepeatPattern repeatPattern = RepeatPattern.fromString(repeatStr);
+            Date lastExecution = DateUtils.parse(ValueParser.toString(task.getObjectDetails().get("lastExecution")));
+
+            for (LocalDateTime fireAt : fireTimesById.get(task.getId())) {
+                int minute = ScheduledTaskIndex.minuteOfDay(fireAt.toLocalTime());
+                if (slots.start() != minute && slots.end() != minute) {
+                    this.taskIndex.put(task);
+                    continue;
                 }
 
-            } else {
-            	
-            	// Here is a TURN_OFF action, so we need just start time
-            	String startTimeStr = String.valueOf(details.get("startTime"));
+                // already ran for this fire time, e.g. before a restart
+                if (lastExecution != null && !lastExecution.before(toDate(fireAt)))
+                    continue;
 
-                LocalTime scheduledTime;
-                try {
-                    scheduledTime = LocalTime.parse(startTimeStr, TIME_FORMAT);
-                } catch (Exception e) {
-                    continue; // invalid time format
-                }
-                
-            	
-                if (!now.equals(scheduledTime.truncatedTo(java.time.temporal.ChronoUnit.MINUTES)))
+                if (!shouldRunOn(repeatStr, fireAt.toLocalDate()))
                     continue;
-            }
-            
-            if (!shouldRunToday(repeatStr))
-                continue;
 
-            try {
-                runTask(task, repeatPattern, isEndTime);
-            } catch (Exception e) {
-                e.printStackTrace();
+                // a TURN_ON task turns the AC off again at its end time
+                due.add(new DueTask(task, repeatPattern, slots.end() == minute, fireAt));
             }
-            
+        }
+
+        // per AC: in fire time order, tasks ending in a minute before those starting in it, then creation order
+        due.sort(Comparator.comparing(DueTask::fireAt)
+                .thenComparing((DueTask dueTask) -> !dueTask.endTime())
+                .thenComparing(dueTask -> dueTask.task().getCreationTimestamp(),
+                        Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        // ACs run in parallel, the tasks of one AC in order; the whole window is decided up front,
+        // so a task that starts late still runs
+        this.taskRunner.runAll(due, DueTask::acKey, dueTask -> {
+            runTask(dueTask.task(), dueTask.repeatPattern(), dueTask.endTime());
+            this.executedCounter.increment();
+            if (dueTask.fireAt().isBefore(tickMinute))
+                this.lateCounter.increment();
+        });
+
+        long elapsed = Duration.between(started, LocalDateTime.now()).toMillis();
+        if (elapsed > 60_000) {
+            log.warn(due.size() + " scheduled tasks of " + tickMinute + " took " + elapsed + "ms, past their minute");
+        }
+    }
+
+    private record DueTask(ObjectEntity task, RepeatPattern repeatPattern, boolean endTime, LocalDateTime fireAt) {
+
+        String acKey() {
+            return ScheduledTaskIndex.acKey(task);
         }
     }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
     
     @Scheduled(cron = "0 0 0 * * *") // Runs at midnight every day
     public void resetRecurringTaskStatuses() {
-        List<ObjectEntity> executedTasks = objectCrud
-                .findByTypeAndStatusAndActiveTrue("Task", "EXECUTED", Pageable.unpaged());
-
-        for (ObjectEntity task : executedTasks) {
-            Map<String, Object> details = task.getObjectDetails();
-            if (details == null || !details.containsKey("repeat")) continue;
-
-            String repeatStr = String.valueOf(details.get("repeat"));
+        // one bulk update covers the tasks of every partition, so only one node runs it
+        if (!this.partitions.owns(RESET_PARTITION_KEY)) return;
 
-            RepeatPattern repeatPattern;
-            try {
-                repeatPattern = RepeatPattern.fromString(repeatStr);
-            } catch (IllegalArgumentException e) {
-                continue;
-            }
+        // Only reset recurring patterns, server side without loading the tasks
+        long reset = this.objectCrud.updateTaskStatusByRepeat("EXECUTED", "SCHEDULED",
+                EnumSet.complementOf(EnumSet.of(RepeatPattern.ONCE)));
+        this.resetCounter.increment(reset);
+        log.info(reset + " recurring tasks reset to SCHEDULED");
 
-            // Only reset recurring patterns
-            if ( repeatPattern != RepeatPattern.ONCE ) {
-                task.setStatus("SCHEDULED");
-                objectCrud.save(task);
-            }
-        }
+        // the reset tasks fire again from today: rebuild the index here, and on the other nodes through its sync
+        this.taskIndex.invalidate();
+        this.taskIndex.reconcile();
     }
 
 
-    private boolean shouldRunToday(String repeat) {
-        Calendar calendar = Calendar.getInstance();
-        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+    // a caught-up fire time can be on the previous day
+    private boolean shouldRunOn(String repeat, LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
 
         return switch (RepeatPattern.fromString(repeat)) {
             case ONCE -> true;
             case EVERY_DAY -> true;
-            case EVERY_WEEKDAY -> (dayOfWeek >= Calendar.MONDAY && dayOfWeek <= Calendar.FRIDAY);
-            case WEEKENDS -> (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY);
+            case EVERY_WEEKDAY -> (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY);
+            case WEEKENDS -> (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY);
         };
     }
 
     private void runTask(ObjectEntity task, RepeatPattern repeatPattern, boolean endTime) {
     	
-        ObjectEntity ac = task.getParent();
+        ObjectEntity ac = task.getParentId() == null ? null
+        		: this.objectCrud.findById(task.getParentId()).orElse(null);
         
         if (ac == null || !"AirConditioner".equalsIgnoreCase(ac.getType())) {
             throw new InvalidRequestInputException("Scheduled task must be linked to an AirConditioner.");
@@ -189,10 +240,12 @@ public class TaskSchedulerService {
                 "fanSpeed", fanSpeed
         );
 
-        // Walk up the hierarchy to find the Tenant (User entity is linked to tenant alias)
-        ObjectEntity room = ac.getParent();
-        ObjectEntity site = room != null ? room.getParent() : null;
-        ObjectEntity tenant = site != null ? site.getParent() : null;
+        // The Tenant is the site's parent in the task's ancestors path [..., tenant, site, room, ac]
+        // (User entity is linked to tenant alias)
+        List<String> ancestors = task.getAncestors();
+        ObjectEntity tenant = ancestors != null && ancestors.size() >= 4
+        		? this.objectCrud.findById(ancestors.get(ancestors.size() - 4)).orElse(null)
+        		: null;
 
         if (tenant == null || tenant.getCreatedBy() == null) {
             throw new InvalidRequestInputException("Tenant information is missing for the scheduled task.");
@@ -208,7 +261,7 @@ public class TaskSchedulerService {
         fakeCmd.setCommand("UPDATE_AC_STATE");
         fakeCmd.setCommandAttributes(new HashMap<>(attrs));
         fakeCmd.setTargetObject(new TargetObject(new ObjectId(ac.getId(), AirwiseConfig.getSystemID())));
-        fakeCmd.setInvocationTimestamp(DateUtils.getCurrentFormattedDate());
+        fakeCmd.setInvocationTimestamp(new Date());
         InvokedBy invkBy = new InvokedBy();
         invkBy.setUserId(tenant.getCreatedBy().getUserId());
         fakeCmd.setInvokedBy(invkBy);
@@ -220,5 +273,6 @@ public class TaskSchedulerService {
          task.getObjectDetails().put("lastExecution", DateUtils.getCurrentFormattedDate());
 	
 	     objectCrud.save(task);
+	     this.taskIndex.put(task);
     }
 }
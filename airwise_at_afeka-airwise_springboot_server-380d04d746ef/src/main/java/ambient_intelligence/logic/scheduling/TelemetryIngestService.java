@@ -0,0 +1,172 @@
+package ambient_intelligence.logic.scheduling;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import ambient_intelligence.logic.boundaries.TelemetryBatch;
+import ambient_intelligence.logic.boundaries.TelemetryEvent;
+import ambient_intelligence.logic.boundaries.TelemetryIngestResult;
+import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
+import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Telemetry pushed by the AC side. Events are buffered in a bounded queue and a
+ * single consumer thread feeds motion into SecurityAlertService; when the queue
+ * is full new events are dropped and reported back to the sender.
+ *
+ * Pushes must carry the configured X-Ingest-Token; without a configured token every
+ * push is rejected. The demo profile (local demoac) configures a shared dev token that
+ * the demoac compose file sends.
+ */
+@Service
+public class TelemetryIngestService {
+
+	private final SecurityAlertService securityAlertService;
+	private final String ingestToken;
+	private final int drainBatchSize;
+	private final BlockingQueue<TelemetryEvent> queue;
+
+	private final Counter acceptedCounter;
+	private final Counter droppedCounter;
+
+	private Thread consumer;
+	private Log log = LogFactory.getLog(TelemetryIngestService.class);
+
+	public TelemetryIngestService(SecurityAlertService securityAlertService,
+			MeterRegistry meterRegistry,
+			@Value("${airwise.telemetry.ingest-token:}") String ingestToken,
+			@Value("${airwise.telemetry.queue-capacity:10000}") int queueCapacity,
+			@Value("${airwise.telemetry.drain-batch-size:500}") int drainBatchSize) {
+		this.securityAlertService = securityAlertService;
+		this.ingestToken = ingestToken == null ? "" : ingestToken;
+		this.drainBatchSize = Math.max(1, drainBatchSize);
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+		this.acceptedCounter = Counter.builder("airwise.telemetry.events.accepted").register(meterRegistry);
+		this.droppedCounter = Counter.builder("airwise.telemetry.events.dropped")
+				.description("events rejected because the ingest queue was full")
+				.register(meterRegistry);
+		Gauge.builder("airwise.telemetry.queue.depth", this.queue, BlockingQueue::size).register(meterRegistry);
+
+		if (this.ingestToken.isEmpty()) {
+			log.warn("airwise.telemetry.ingest-token is not set: telemetry pushes are rejected");
+		}
+	}
+
+	public TelemetryIngestResult ingest(String token, TelemetryBatch batch) {
+
+		if (this.ingestToken.isEmpty() || token == null || !MessageDigest.isEqual(
+				this.ingestToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+			throw new UnauthorizedException("Invalid ingest token.");
+		}
+
+		if (batch == null || batch.getEvents() == null) {
+			throw new InvalidRequestInputException("Invalid input - events are missing.");
+		}
+
+		// a bad batch is rejected as a whole, before any of its events is queued
+		for (TelemetryEvent event : batch.getEvents()) {
+			if (event == null || event.getSerial() == null || event.getSerial().isBlank()) {
+				throw new InvalidRequestInputException("Invalid input - every event needs a serial.");
+			}
+		}
+
+		int accepted = 0;
+		int dropped = 0;
+
+		for (TelemetryEvent event : batch.getEvents()) {
+			if (this.queue.offer(event)) {
+				accepted++;
+			} else {
+				dropped++;
+			}
+		}
+
+		this.acceptedCounter.increment(accepted);
+		this.droppedCounter.increment(dropped);
+
+		return new TelemetryIngestResult(accepted, dropped);
+	}
+
+	@PostConstruct
+	public void start() {
+		this.consumer = Thread.ofPlatform().daemon().name("telemetry-consumer").start(this::consume);
+	}
+
+	@PreDestroy
+	public void stop() {
+		this.consumer.interrupt();
+	}
+
+	private void consume() {
+		List<TelemetryEvent> events = new ArrayList<>();
+
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				TelemetryEvent first = this.queue.poll(1, TimeUnit.SECONDS);
+				if (first == null) {
+					continue;
+				}
+
+				events.add(first);
+				this.queue.drainTo(events, this.drainBatchSize - 1);
+
+				this.process(events);
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				log.error("failed to process telemetry events", e);
+			} finally {
+				events.clear();
+			}
+		}
+	}
+
+	private void process(List<TelemetryEvent> events) {
+
+		// the last reported motion of each serial in this batch wins
+		Map<String, Boolean> motionBySerial = new LinkedHashMap<>();
+		for (TelemetryEvent event : events) {
+			if (event.getMotion() != null) {
+				motionBySerial.put(event.getSerial(), event.getMotion());
+			}
+		}
+
+		List<String> motionSerials = motionBySerial.entrySet().stream()
+				.filter(Map.Entry::getValue)
+				.map(Map.Entry::getKey)
+				.toList();
+
+		if (motionSerials.isEmpty()) {
+			return;
+		}
+
+		log.info("motion reported by " + motionSerials.size() + " acs");
+
+		for (MotionTarget target : this.securityAlertService.findAwayTargetsBySerials(motionSerials)) {
+			try {
+				this.securityAlertService.raiseMotionAlert(target);
+			} catch (Exception e) {
+				log.error("failed to raise motion alert for ac " + target.ac().getAlias(), e);
+			}
+		}
+	}
+}
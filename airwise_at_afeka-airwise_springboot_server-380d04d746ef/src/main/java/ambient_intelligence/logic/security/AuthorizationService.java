@@ -4,6 +4,7 @@ package ambient_intelligence.logic.security;
 import java.util.Arrays;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import ambient_intelligence.dal.UserCrud;
@@ -13,20 +14,37 @@ import ambient_intelligence.logic.exceptions.InvalidRequestInputException;
 import ambient_intelligence.logic.exceptions.UnauthorizedException;
 import ambient_intelligence.utils.AirWiseValidator;
 import ambient_intelligence.utils.AirwiseConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class AuthorizationService {
 
     private final AirWiseValidator validator;
     private final UserCrud userCrud;
+    private final RoleCache roleCache;
 
     public AuthorizationService(AirWiseValidator validator,
-    		UserCrud userCrud) {
+    		UserCrud userCrud,
+    		MeterRegistry meterRegistry,
+    		@Value("${airwise.security.role-cache.max-size:10000}") int cacheMaxSize,
+    		@Value("${airwise.security.role-cache.ttl-seconds:60}") long cacheTtlSeconds) {
         this.validator = validator;
         this.userCrud = userCrud;
+        this.roleCache = new RoleCache(cacheMaxSize, cacheTtlSeconds * 1000);
+
+        FunctionCounter.builder("airwise.security.role.cache.hits", this.roleCache, RoleCache::getHits)
+        		.description("ensureRole lookups served from the role cache")
+        		.register(meterRegistry);
+        FunctionCounter.builder("airwise.security.role.cache.misses", this.roleCache, RoleCache::getMisses)
+        		.description("ensureRole lookups that went to the USERS collection")
+        		.register(meterRegistry);
+        Gauge.builder("airwise.security.role.cache.size", this.roleCache, RoleCache::size)
+        		.register(meterRegistry);
     }
 
-    
+
     public boolean ensureRole(String systemId,
                            String email,
                            UserRole... allowedRoles) {
@@ -38,14 +56,73 @@ public class AuthorizationService {
             throw new InvalidRequestInputException("Invalid input – email is invalid.");
         }
 
-        String userId = systemId + AirwiseConfig.getIdSeparator() + email;
+        // the caller bound for this request answers checks about itself
+        Optional<CallerPrincipal> caller = CallerContext.current();
+        UserRole role;
+        if (caller.isPresent() && caller.get().isSameUser(systemId, email)) {
+        	role = caller.get().getRole();
+        } else {
+        	role = this.resolveRole(systemId + AirwiseConfig.getIdSeparator() + email);
+        }
+
+       return Arrays.stream(allowedRoles)
+                                .anyMatch(r -> r == role);
+    }
+
+    public CallerPrincipal resolvePrincipal(String systemId, String email) {
+
+        if (!validator.isValidSystemId(systemId)) {
+            throw new InvalidRequestInputException("Invalid input – systemID is invalid.");
+        }
+        if (!validator.isValidEmail(email)) {
+            throw new InvalidRequestInputException("Invalid input – email is invalid.");
+        }
+
+        UserRole role = this.resolveRole(systemId + AirwiseConfig.getIdSeparator() + email);
+        return new CallerPrincipal(systemId, email, role);
+    }
+
+    // lenient variant for the presentation layer: services still report invalid callers themselves
+    public Optional<CallerPrincipal> tryResolvePrincipal(String systemId, String email) {
+    	if (systemId == null || email == null) {
+    		return Optional.empty();
+    	}
+    	try {
+    		return Optional.of(this.resolvePrincipal(systemId, email));
+    	} catch (InvalidRequestInputException | UnauthorizedException e) {
+    		return Optional.empty();
+    	}
+    }
+
+    public void invalidate(String systemId, String email) {
+    	this.roleCache.invalidate(systemId + AirwiseConfig.getIdSeparator() + email);
+    }
+
+    public void invalidateAll() {
+    	this.roleCache.invalidateAll();
+    }
+
+    public long getCacheHits() {
+    	return this.roleCache.getHits();
+    }
+
+    public long getCacheMisses() {
+    	return this.roleCache.getMisses();
+    }
+
+    private UserRole resolveRole(String userId) {
+    	UserRole cached = this.roleCache.get(userId);
+    	if (cached != null) {
+    		return cached;
+    	}
+
         Optional<UserEntity> user = userCrud.findById(userId);
-            
+
         if(!user.isPresent()) {
         	throw new UnauthorizedException("Unauthorized action.");
         }
 
-       return Arrays.stream(allowedRoles)
-                                .anyMatch(r -> r == user.get().getRole());
+        this.roleCache.put(userId, user.get().getRole());
+        return user.get().getRole();
     }
 }
@@ -0,0 +1,74 @@
+package ambient_intelligence.logic.security;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Holds the {@link CallerPrincipal} of the current thread.
+ * The presentation layer binds it once per request, internal system-operator
+ * calls bind a trusted principal around the nested service calls they make.
+ */
+public final class CallerContext {
+
+	private static final ThreadLocal<CallerPrincipal> CURRENT = new ThreadLocal<>();
+
+	private CallerContext() {
+	}
+
+	public static Optional<CallerPrincipal> current() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+
+	public static void bind(CallerPrincipal principal) {
+		CURRENT.set(principal);
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+
+	public static <T> T callAs(CallerPrincipal principal, Supplier<T> action) {
+		CallerPrincipal previous = CURRENT.get();
+		CURRENT.set(principal);
+		try {
+			return action.get();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	public static void runAs(CallerPrincipal principal, Runnable action) {
+		callAs(principal, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	// carries the caller of the submitting thread into a worker thread
+	public static Runnable wrap(Runnable task) {
+		CallerPrincipal principal = CURRENT.get();
+		return () -> runAs(principal, task);
+	}
+
+	public static <T> Callable<T> wrap(Callable<T> task) {
+		CallerPrincipal principal = CURRENT.get();
+		return () -> {
+			CallerPrincipal previous = CURRENT.get();
+			CURRENT.set(principal);
+			try {
+				return task.call();
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	private static void restore(CallerPrincipal previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+}
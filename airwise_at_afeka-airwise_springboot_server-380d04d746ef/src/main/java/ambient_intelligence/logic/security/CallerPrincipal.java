@@ -0,0 +1,47 @@
+package ambient_intelligence.logic.security;
+
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.utils.AirwiseConfig;
+
+/**
+ * The already-authenticated caller of the current request (or internal job).
+ * Once a principal is bound through {@link CallerContext}, ensureRole checks
+ * for the same user are answered from it without touching the USERS collection.
+ */
+public class CallerPrincipal {
+
+	private final String systemID;
+	private final String email;
+	private final UserRole role;
+
+	public CallerPrincipal(String systemID, String email, UserRole role) {
+		this.systemID = systemID;
+		this.email = email;
+		this.role = role;
+	}
+
+	public String getSystemID() {
+		return systemID;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public UserRole getRole() {
+		return role;
+	}
+
+	public String getUserId() {
+		return systemID + AirwiseConfig.getIdSeparator() + email;
+	}
+
+	public boolean isSameUser(String systemID, String email) {
+		return this.systemID.equals(systemID) && this.email.equals(email);
+	}
+
+	@Override
+	public String toString() {
+		return "CallerPrincipal [systemID=" + systemID + ", email=" + email + ", role=" + role + "]";
+	}
+}
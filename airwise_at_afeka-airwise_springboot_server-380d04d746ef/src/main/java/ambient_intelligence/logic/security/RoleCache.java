@@ -0,0 +1,83 @@
+package ambient_intelligence.logic.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ambient_intelligence.data.UserRole;
+
+/**
+ * Bounded, time-limited userId -> role cache.
+ * Entries expire after the configured TTL and the least recently used entry
+ * is evicted once the cache is full.
+ */
+public class RoleCache {
+
+	private final int maxSize;
+	private final long ttlMillis;
+	private final Map<String, Entry> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public RoleCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > RoleCache.this.maxSize;
+			}
+		};
+	}
+
+	public synchronized UserRole get(String userId) {
+		Entry entry = this.entries.get(userId);
+
+		if (entry == null) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+
+		if (entry.expiresAt < System.currentTimeMillis()) {
+			this.entries.remove(userId);
+			this.misses.incrementAndGet();
+			return null;
+		}
+
+		this.hits.incrementAndGet();
+		return entry.role;
+	}
+
+	public synchronized void put(String userId, UserRole role) {
+		if (this.maxSize <= 0 || role == null) {
+			return;
+		}
+		this.entries.put(userId, new Entry(role, System.currentTimeMillis() + this.ttlMillis));
+	}
+
+	public synchronized void invalidate(String userId) {
+		this.entries.remove(userId);
+	}
+
+	public synchronized void invalidateAll() {
+		this.entries.clear();
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	private record Entry(UserRole role, long expiresAt) {
+	}
+}
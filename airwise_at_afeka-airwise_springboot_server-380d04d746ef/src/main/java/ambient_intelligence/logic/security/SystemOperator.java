@@ -0,0 +1,73 @@
+package ambient_intelligence.logic.security;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import ambient_intelligence.dal.UserCrud;
+import ambient_intelligence.data.UserEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.boundaries.CreatedBy;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.utils.AirwiseConfig;
+
+/**
+ * The internal OPERATOR used as creator of system-generated objects
+ * (verified ACs, notifications, alerts).
+ */
+@Component
+public class SystemOperator {
+
+	public static final String EMAIL = "SystemOperator@airwise.com";
+
+	private final UserCrud userCrud;
+	private volatile boolean ensured;
+
+	public SystemOperator(UserCrud userCrud) {
+		this.userCrud = userCrud;
+	}
+
+	public CallerPrincipal principal() {
+		return new CallerPrincipal(AirwiseConfig.getSystemID(), EMAIL, UserRole.OPERATOR);
+	}
+
+	public CreatedBy createdBy() {
+		CreatedBy createdBy = new CreatedBy();
+		createdBy.setUserId(new UserId(AirwiseConfig.getSystemID(), EMAIL));
+		return createdBy;
+	}
+
+	// runs nested service calls with the trusted system operator as caller
+	public <T> T callAs(Supplier<T> action) {
+		this.ensureExists();
+		return CallerContext.callAs(this.principal(), action);
+	}
+
+	public void runAs(Runnable action) {
+		this.ensureExists();
+		CallerContext.runAs(this.principal(), action);
+	}
+
+	// fetch or create SystemOperator user, once per process
+	public void ensureExists() {
+		if (this.ensured) {
+			return;
+		}
+
+		String userKey = AirwiseConfig.getSystemID() + AirwiseConfig.getIdSeparator() + EMAIL;
+		if (!this.userCrud.existsById(userKey)) {
+			UserEntity newOp = new UserEntity();
+			newOp.setUserId(userKey);
+			newOp.setRole(UserRole.OPERATOR);
+			newOp.setUsername("InternalSystemOperator");
+			newOp.setAvatar("InternalSystemOperator");
+			this.userCrud.save(newOp);
+		}
+		this.ensured = true;
+	}
+
+	// called when the USERS collection is wiped
+	public void reset() {
+		this.ensured = false;
+	}
+}
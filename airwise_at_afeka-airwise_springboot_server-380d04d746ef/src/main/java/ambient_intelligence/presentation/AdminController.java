@@ -1,35 +1,57 @@
 package ambient_intelligence.presentation;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import ambient_intelligence.logic.CommandsServiceWithPagination;
+import ambient_intelligence.logic.ExportService;
+import ambient_intelligence.logic.IndexReportService;
+import ambient_intelligence.logic.NdjsonExport;
 import ambient_intelligence.logic.ObjectsService;
 import ambient_intelligence.logic.UsersServiceWithPagination;
 import ambient_intelligence.logic.boundaries.CommandBoundary;
+import ambient_intelligence.logic.boundaries.IndexReportEntry;
 import ambient_intelligence.logic.boundaries.UserBoundary;
 
 @RestController
 @RequestMapping(path = { "/ambient-intelligence/admin" })
 public class AdminController {
 
+	private static final String APPLICATION_GZIP_VALUE = "application/gzip";
+
 	private final UsersServiceWithPagination userService;
 	private final CommandsServiceWithPagination commandService;
 	private final ObjectsService objectService;
+	private final IndexReportService indexReportService;
+	private final ExportService exportService;
+	private final Duration exportTimeout;
 
 	public AdminController(UsersServiceWithPagination userService, CommandsServiceWithPagination commandService,
-			ObjectsService objectService) {
+			ObjectsService objectService, IndexReportService indexReportService, ExportService exportService,
+			@Value("${airwise.export.request-timeout:30m}") Duration exportTimeout) {
 		this.userService = userService;
 		this.commandService = commandService;
 		this.objectService = objectService;
+		this.indexReportService = indexReportService;
+		this.exportService = exportService;
+		this.exportTimeout = exportTimeout;
 	}
 
 	@GetMapping(path = { "/users" }, produces = { MediaType.APPLICATION_JSON_VALUE })
@@ -43,13 +65,89 @@ public class AdminController {
 	}
 
 	@GetMapping(path = { "/commands" }, produces = { MediaType.APPLICATION_JSON_VALUE })
-	public List<CommandBoundary> exportAllCommands(
+	public ResponseEntity<List<CommandBoundary>> exportAllCommands(
 			@RequestParam(name = "userSystemID", required = true) String userSystemID,
 			@RequestParam(name = "userEmail", required = true) String userEmail,
 			@RequestParam(name = "size", required = false, defaultValue = "10") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor) {
+
+		if (cursor != null) {
+			return CursorResponses.of(this.commandService.getAllCommandsHistory(userSystemID, userEmail, size, cursor));
+		}
+		return ResponseEntity.ok(this.commandService.getAllCommandsHistory(userSystemID, userEmail, size, page));
+	}
+
+	@GetMapping(path = { "/commands/history" }, produces = { MediaType.APPLICATION_JSON_VALUE })
+	public ResponseEntity<List<CommandBoundary>> searchCommandsHistory(
+			@RequestParam(name = "userSystemID", required = true) String userSystemID,
+			@RequestParam(name = "userEmail", required = true) String userEmail,
+			@RequestParam(name = "command", required = false) String command,
+			@RequestParam(name = "targetObjectId", required = false) String targetObjectId,
+			@RequestParam(name = "invokedBy", required = false) String invokedBy,
+			@RequestParam(name = "from", required = false) String from,
+			@RequestParam(name = "to", required = false) String to,
+			@RequestParam(name = "size", required = false, defaultValue = "10") int size,
+			@RequestParam(name = "cursor", required = false) String cursor) {
+
+		return CursorResponses.of(this.commandService.searchCommandsHistory(userSystemID, userEmail, command,
+				targetObjectId, invokedBy, from, to, size, cursor));
+	}
+
+	@GetMapping(path = { "/users/export" }, produces = { MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_GZIP_VALUE })
+	public ResponseEntity<StreamingResponseBody> streamAllUsers(
+			@RequestParam(name = "userSystemID", required = true) String userSystemID,
+			@RequestParam(name = "userEmail", required = true) String userEmail,
+			@RequestParam(name = "gzip", required = false, defaultValue = "false") boolean gzip, WebRequest request) {
+
+		return ndjson("users", this.exportService.exportUsers(userSystemID, userEmail), gzip, request);
+	}
+
+	@GetMapping(path = { "/commands/export" }, produces = { MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_GZIP_VALUE })
+	public ResponseEntity<StreamingResponseBody> streamAllCommands(
+			@RequestParam(name = "userSystemID", required = true) String userSystemID,
+			@RequestParam(name = "userEmail", required = true) String userEmail,
+			@RequestParam(name = "from", required = false) String from,
+			@RequestParam(name = "to", required = false) String to,
+			@RequestParam(name = "gzip", required = false, defaultValue = "false") boolean gzip, WebRequest request) {
+
+		return ndjson("commands", this.exportService.exportCommands(userSystemID, userEmail, from, to), gzip,
+				request);
+	}
+
+	// the export is authorized by now; errors while streaming can only abort the response.
+	// gzip=true sends a .ndjson.gz file (application/gzip), not a gzip transport encoding, so clients
+	// save it as is instead of unpacking it on the fly
+	private ResponseEntity<StreamingResponseBody> ndjson(String name, NdjsonExport export, boolean gzip,
+			WebRequest request) {
+
+		// exports may stream far longer than an ordinary async request is allowed to take
+		WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(this.exportTimeout.toMillis());
+
+		StreamingResponseBody body = out -> {
+			if (gzip) {
+				// closes the gzip trailer and deflater, but leaves the response stream to Spring
+				try (GZIPOutputStream zipped = new GZIPOutputStream(StreamUtils.nonClosing(out), 8192)) {
+					export.writeTo(zipped);
+				}
+			} else {
+				export.writeTo(out);
+			}
+		};
+
+		return ResponseEntity.ok()
+				.contentType(gzip ? MediaType.parseMediaType(APPLICATION_GZIP_VALUE) : MediaType.APPLICATION_NDJSON)
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=\"" + name + ".ndjson" + (gzip ? ".gz" : "") + "\"")
+				.body(body);
+	}
+
+	@GetMapping(path = { "/indexes" }, produces = { MediaType.APPLICATION_JSON_VALUE })
+	public List<IndexReportEntry> getIndexReport(
+			@RequestParam(name = "userSystemID", required = true) String userSystemID,
+			@RequestParam(name = "userEmail", required = true) String userEmail) {
 
-		return this.commandService.getAllCommandsHistory(userSystemID, userEmail, size, page);
+		return this.indexReportService.getIndexReport(userSystemID, userEmail);
 	}
 
 	@DeleteMapping(path = { "/users" })
@@ -0,0 +1,49 @@
+package ambient_intelligence.presentation;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.logic.security.CallerContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Resolves the caller from the userSystemID/userEmail request params once per request
+ * and binds it to {@link CallerContext} for all nested service calls.
+ * Endpoints that carry the caller in the body (create object, invoke command)
+ * bind it in the controller instead.
+ *
+ * The binding is cleared when the request completes, and also when an async handler
+ * (streamed exports) releases the request thread, since afterCompletion then runs elsewhere.
+ */
+@Component
+public class CallerPrincipalInterceptor implements AsyncHandlerInterceptor {
+
+	private final AuthorizationService authz;
+
+	public CallerPrincipalInterceptor(AuthorizationService authz) {
+		this.authz = authz;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		// never inherit a caller left on this pooled thread by an earlier request
+		CallerContext.clear();
+		this.authz.tryResolvePrincipal(request.getParameter("userSystemID"), request.getParameter("userEmail"))
+				.ifPresent(CallerContext::bind);
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		CallerContext.clear();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		CallerContext.clear();
+	}
+}
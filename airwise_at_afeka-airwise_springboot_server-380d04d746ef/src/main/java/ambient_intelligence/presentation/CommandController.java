@@ -5,6 +5,9 @@ import org.springframework.web.bind.annotation.*;
 
 import ambient_intelligence.logic.CommandsService;
 import ambient_intelligence.logic.boundaries.CommandBoundary;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.logic.security.CallerContext;
 
 import java.util.List;
 
@@ -13,14 +16,22 @@ import java.util.List;
 public class CommandController {
 
 	private final CommandsService commandService;
+	private final AuthorizationService authz;
 
-	public CommandController(CommandsService commandService) {
+	public CommandController(CommandsService commandService, AuthorizationService authz) {
 		this.commandService = commandService;
+		this.authz = authz;
 	}
 
 	@PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
 	public List<Object> invokeCommand(@RequestBody CommandBoundary commandBoundary) {
 
+		// the invoker is resolved once here and reused by every nested role check
+		if (commandBoundary.getInvokedBy() != null && commandBoundary.getInvokedBy().getUserId() != null) {
+			UserId invoker = commandBoundary.getInvokedBy().getUserId();
+			this.authz.tryResolvePrincipal(invoker.getSystemID(), invoker.getEmail()).ifPresent(CallerContext::bind);
+		}
+
 		return this.commandService.invokeCommand(commandBoundary);
 		
 	}
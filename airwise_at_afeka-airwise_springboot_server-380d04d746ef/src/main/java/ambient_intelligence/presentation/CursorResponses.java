@@ -0,0 +1,27 @@
+package ambient_intelligence.presentation;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import ambient_intelligence.logic.boundaries.CursorPage;
+
+/**
+ * Cursor-mode listings keep the plain JSON array body of the page-mode endpoints
+ * and return the next page's cursor in a header (absent on the last page).
+ */
+public final class CursorResponses {
+
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	private CursorResponses() {
+	}
+
+	public static <T> ResponseEntity<List<T>> of(CursorPage<T> page) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (page.getNextCursor() != null) {
+			response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return response.body(page.getItems());
+	}
+}
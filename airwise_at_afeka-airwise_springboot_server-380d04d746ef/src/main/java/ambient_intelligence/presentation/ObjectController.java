@@ -1,11 +1,18 @@
 package ambient_intelligence.presentation;
 
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ambient_intelligence.logic.EnergyService;
 import ambient_intelligence.logic.ObjectsServicePagination;
+import ambient_intelligence.logic.boundaries.EnergyRollupBoundary;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 import ambient_intelligence.logic.boundaries.ObjectChildIdBoundary;
+import ambient_intelligence.logic.boundaries.PowerConsumptionLog;
+import ambient_intelligence.logic.boundaries.UserId;
 import ambient_intelligence.logic.exceptions.ObjectNotFoundException;
+import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.logic.security.CallerContext;
 import java.util.List;
 
 @RestController
@@ -13,13 +20,24 @@ import java.util.List;
 public class ObjectController {
 
 	private final ObjectsServicePagination objectsService;
+	private final AuthorizationService authz;
+	private final EnergyService energyService;
 
-	public ObjectController(ObjectsServicePagination objectsService) {
+	public ObjectController(ObjectsServicePagination objectsService, AuthorizationService authz,
+			EnergyService energyService) {
 		this.objectsService = objectsService;
+		this.authz = authz;
+		this.energyService = energyService;
 	}
 
 	@PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
 	public ObjectBoundary createObject(@RequestBody ObjectBoundary objectBoundary) {
+
+		if (objectBoundary.getCreatedBy() != null && objectBoundary.getCreatedBy().getUserId() != null) {
+			UserId creator = objectBoundary.getCreatedBy().getUserId();
+			this.authz.tryResolvePrincipal(creator.getSystemID(), creator.getEmail()).ifPresent(CallerContext::bind);
+		}
+
 		return this.objectsService.create(objectBoundary);
 	}
 
@@ -42,11 +60,15 @@ public class ObjectController {
 	}
 
 	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-	public List<ObjectBoundary> getAllObjects(@RequestParam("userSystemID") String userSystemID,
+	public ResponseEntity<List<ObjectBoundary>> getAllObjects(@RequestParam("userSystemID") String userSystemID,
 			@RequestParam("userEmail") String userEmail, @RequestParam(value = "size", defaultValue = "10") int size,
-			@RequestParam(value = "page", defaultValue = "0") int page) {
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "cursor", required = false) String cursor) {
 
-		return this.objectsService.getAllObjects(userSystemID, userEmail, size, page);
+		if (cursor != null) {
+			return CursorResponses.of(this.objectsService.getAllObjects(userSystemID, userEmail, size, cursor));
+		}
+		return ResponseEntity.ok(this.objectsService.getAllObjects(userSystemID, userEmail, size, page));
 
 	}
 
@@ -73,6 +95,32 @@ public class ObjectController {
 	}
 	
 
+	@GetMapping(path = "/{systemID}/{objectId}/powerConsumption", produces = MediaType.APPLICATION_JSON_VALUE)
+	public List<PowerConsumptionLog> getPowerConsumption(@PathVariable("systemID") String systemID,
+			@PathVariable("objectId") String objectId, @RequestParam("userSystemID") String userSystemID,
+			@RequestParam("userEmail") String userEmail,
+			@RequestParam(value = "from", required = false) String from,
+			@RequestParam(value = "to", required = false) String to) {
+
+		return this.energyService.getPowerConsumption(systemID, objectId, userSystemID, userEmail, from, to);
+
+	}
+
+	@GetMapping(path = "/{systemID}/{objectId}/energyRollups", produces = MediaType.APPLICATION_JSON_VALUE)
+	public List<EnergyRollupBoundary> getEnergyRollups(@PathVariable("systemID") String systemID,
+			@PathVariable("objectId") String objectId, @RequestParam("userSystemID") String userSystemID,
+			@RequestParam("userEmail") String userEmail,
+			@RequestParam(value = "granularity", defaultValue = "DAY") String granularity,
+			@RequestParam(value = "groupBy", required = false) String groupBy,
+			@RequestParam("from") String from, @RequestParam("to") String to,
+			@RequestParam(value = "size", defaultValue = "500") int size,
+			@RequestParam(value = "page", defaultValue = "0") int page) {
+
+		return this.energyService.getEnergyRollups(systemID, objectId, userSystemID, userEmail, groupBy, granularity,
+				from, to, size, page);
+
+	}
+
 	@GetMapping(path = "/search/byAlias/{alias}", produces = MediaType.APPLICATION_JSON_VALUE)
 	public List<ObjectBoundary> searchByExactAlias(@PathVariable("alias") String alias,
 			@RequestParam("userSystemID") String userSystemID, @RequestParam("userEmail") String userEmail,
@@ -86,40 +134,56 @@ public class ObjectController {
 	@GetMapping(path = "/search/byAliasPattern/{pattern}", produces = MediaType.APPLICATION_JSON_VALUE)
 	public List<ObjectBoundary> searchByAliasPattern(@PathVariable("pattern") String pattern,
 			@RequestParam("userSystemID") String userSystemID, @RequestParam("userEmail") String userEmail,
+			@RequestParam(value = "match", defaultValue = "contains") String match,
 			@RequestParam(value = "size", defaultValue = "10") int size,
 			@RequestParam(value = "page", defaultValue = "0") int page) {
 
-		return this.objectsService.searchByAliasPattern(pattern, userSystemID, userEmail, size, page);
+		return this.objectsService.searchByAliasPattern(pattern, match, userSystemID, userEmail, size, page);
 
 	}
 
 	@GetMapping(path = "/search/byType/{type}", produces = MediaType.APPLICATION_JSON_VALUE)
-	public List<ObjectBoundary> searchByType(@PathVariable("type") String type,
+	public ResponseEntity<List<ObjectBoundary>> searchByType(@PathVariable("type") String type,
 			@RequestParam("userSystemID") String userSystemID, @RequestParam("userEmail") String userEmail,
 			@RequestParam(value = "size", defaultValue = "10") int size,
-			@RequestParam(value = "page", defaultValue = "0") int page) {
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "cursor", required = false) String cursor) {
 
-		return this.objectsService.searchByType(type, userSystemID, userEmail, size, page);
+		if (cursor != null) {
+			return CursorResponses.of(this.objectsService.searchByType(type, userSystemID, userEmail, size, cursor));
+		}
+		return ResponseEntity.ok(this.objectsService.searchByType(type, userSystemID, userEmail, size, page));
 
 	}
 
 	@GetMapping(path = "/search/byStatus/{status}", produces = MediaType.APPLICATION_JSON_VALUE)
-	public List<ObjectBoundary> searchByStatus(@PathVariable("status") String status,
+	public ResponseEntity<List<ObjectBoundary>> searchByStatus(@PathVariable("status") String status,
 			@RequestParam("userSystemID") String userSystemID, @RequestParam("userEmail") String userEmail,
 			@RequestParam(value = "size", defaultValue = "10") int size,
-			@RequestParam(value = "page", defaultValue = "0") int page) {
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "cursor", required = false) String cursor) {
 
-		return this.objectsService.searchByStatus(status, userSystemID, userEmail, size, page);
+		if (cursor != null) {
+			return CursorResponses
+					.of(this.objectsService.searchByStatus(status, userSystemID, userEmail, size, cursor));
+		}
+		return ResponseEntity.ok(this.objectsService.searchByStatus(status, userSystemID, userEmail, size, page));
 
 	}
 
 	@GetMapping(path = "/search/byTypeAndStatus/{type}/{status}", produces = MediaType.APPLICATION_JSON_VALUE)
-	public List<ObjectBoundary> searchByTypeAndStatus(@PathVariable("type") String type,
+	public ResponseEntity<List<ObjectBoundary>> searchByTypeAndStatus(@PathVariable("type") String type,
 			@PathVariable("status") String status, @RequestParam("userSystemID") String userSystemID,
 			@RequestParam("userEmail") String userEmail, @RequestParam(value = "size", defaultValue = "10") int size,
-			@RequestParam(value = "page", defaultValue = "0") int page) {
-
-		return this.objectsService.searchByTypeAndStatus(type, status, userSystemID, userEmail, size, page);
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "cursor", required = false) String cursor) {
+
+		if (cursor != null) {
+			return CursorResponses.of(
+					this.objectsService.searchByTypeAndStatus(type, status, userSystemID, userEmail, size, cursor));
+		}
+		return ResponseEntity
+				.ok(this.objectsService.searchByTypeAndStatus(type, status, userSystemID, userEmail, size, page));
 
 	}
 }
\ No newline at end of file
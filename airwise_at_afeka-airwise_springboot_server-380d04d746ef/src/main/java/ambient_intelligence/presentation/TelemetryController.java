@@ -0,0 +1,35 @@
+package ambient_intelligence.presentation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import ambient_intelligence.logic.boundaries.TelemetryBatch;
+import ambient_intelligence.logic.boundaries.TelemetryIngestResult;
+import ambient_intelligence.logic.scheduling.TelemetryIngestService;
+
+@RestController
+@RequestMapping(path = { "/ambient-intelligence/telemetry" })
+public class TelemetryController {
+
+	private final TelemetryIngestService telemetryIngestService;
+
+	public TelemetryController(TelemetryIngestService telemetryIngestService) {
+		this.telemetryIngestService = telemetryIngestService;
+	}
+
+	@PostMapping(path = { "/events" }, consumes = { MediaType.APPLICATION_JSON_VALUE }, produces = {
+			MediaType.APPLICATION_JSON_VALUE })
+	@ResponseStatus(code = HttpStatus.ACCEPTED)
+	public TelemetryIngestResult ingestEvents(
+			@RequestHeader(name = "X-Ingest-Token", required = false) String ingestToken,
+			@RequestBody TelemetryBatch batch) {
+
+		return this.telemetryIngestService.ingest(ingestToken, batch);
+	}
+}
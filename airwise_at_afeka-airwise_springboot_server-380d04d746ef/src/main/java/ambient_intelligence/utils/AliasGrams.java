@@ -0,0 +1,49 @@
+package ambient_intelligence.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lower-cased n-grams (n = 1..3) of an alias, stored on OBJECTS.aliasGrams so substring
+ * search can go through a multikey index instead of an unanchored regex scan.
+ * Every substring of length 1..3 of an alias is a stored gram, and every longer
+ * substring is covered by its trigrams, so the grams never miss a match; the exact
+ * (case-sensitive) match is verified by a regex on the few candidates.
+ */
+public class AliasGrams {
+
+    public static final int MAX_GRAM = 3;
+
+    private AliasGrams() {
+    }
+
+    public static List<String> of(String alias) {
+        if (alias == null || alias.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String value = alias.toLowerCase(Locale.ROOT);
+        Set<String> grams = new LinkedHashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= value.length(); i++) {
+                grams.add(value.substring(i, i + n));
+            }
+        }
+        return new ArrayList<>(grams);
+    }
+
+    // the grams every alias containing the pattern must have
+    public static List<String> forPattern(String pattern) {
+        String value = pattern.toLowerCase(Locale.ROOT);
+        int n = Math.min(MAX_GRAM, value.length());
+
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + n <= value.length(); i++) {
+            grams.add(value.substring(i, i + n));
+        }
+        return new ArrayList<>(grams);
+    }
+}
@@ -1,7 +1,11 @@
 package ambient_intelligence.utils;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.time.Duration;
 
 public class DateUtils {
@@ -16,9 +20,44 @@ public class DateUtils {
         return OffsetDateTime.parse(timestamp, FORMATTER).format(FORMATTER);
     }
 
+    // entities keep native dates; boundaries keep the API string format
+    public static String format(Date date) {
+        if (date == null) {
+            return null;
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).format(FORMATTER);
+    }
+
+    // accepts the API format and plain ISO-8601 (e.g. "2025-05-23T00:00:00Z"); null when unparseable,
+    // so callers must reject bad input themselves or keep the original value
+    public static Date parse(String timestamp) {
+        if (timestamp == null || timestamp.isBlank()) {
+            return null;
+        }
+        try {
+            return Date.from(OffsetDateTime.parse(timestamp, FORMATTER).toInstant());
+        } catch (DateTimeParseException e) {
+            // fall through to ISO-8601
+        }
+        try {
+            return Date.from(OffsetDateTime.parse(timestamp).toInstant());
+        } catch (DateTimeParseException e) {
+            // fall through to instant
+        }
+        try {
+            return Date.from(Instant.parse(timestamp));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     public static long getMinutesDiffFromNow(String timestamp) {
         OffsetDateTime inputTime = OffsetDateTime.parse(timestamp, FORMATTER);
         OffsetDateTime now = OffsetDateTime.now();
         return Duration.between(inputTime, now).toMinutes();
     }
+
+    public static long getMinutesDiffFromNow(Date timestamp) {
+        return Duration.between(timestamp.toInstant(), Instant.now()).toMinutes();
+    }
 }
@@ -1,27 +1,39 @@
 package ambient_intelligence.utils;
 
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import java.util.Date;
+import java.util.UUID;
+
 import org.springframework.stereotype.Service;
 
+import ambient_intelligence.dal.EmailOutboxCrud;
+import ambient_intelligence.data.EmailOutboxEntity;
+import ambient_intelligence.data.EmailOutboxStatus;
+
 @Service
 public class EmailService {
 
-	private JavaMailSender mailSender;
+	private EmailOutboxCrud emailOutboxCrud;
 	
-	public EmailService(JavaMailSender mailSender) {
-		this.mailSender = mailSender;
+	public EmailService(EmailOutboxCrud emailOutboxCrud) {
+		this.emailOutboxCrud = emailOutboxCrud;
 	}
 
+	// the email is stored in the EMAIL_OUTBOX collection and delivered by EmailOutboxDispatcher
 	public void sendEmail(EmailRequest request) {
-		SimpleMailMessage message = new SimpleMailMessage();
+		EmailOutboxEntity email = new EmailOutboxEntity();
+		Date now = new Date();
 
-		message.setFrom(request.getEmailSender());
-		message.setTo(request.getEmailReceiver());
-		message.setSubject(request.getEmailSubject());
-		message.setText(request.getEmailBody());
+		email.setId(UUID.randomUUID().toString());
+		email.setSender(request.getEmailSender());
+		email.setReceiver(request.getEmailReceiver());
+		email.setSubject(request.getEmailSubject());
+		email.setBody(request.getEmailBody());
+		email.setStatus(EmailOutboxStatus.PENDING);
+		email.setAttempts(0);
+		email.setCreatedAt(now);
+		email.setNextAttemptAt(now);
 
-		mailSender.send(message);
+		this.emailOutboxCrud.save(email);
 	}
 	
 	/* how to use this service:
@@ -38,5 +50,6 @@ public class EmailService {
 	*  3) insert the following code for sending the email where needed:
 	*     emailService.sendEmail(new EmailRequest("senderEmail", "rcvrEmail", "subject", "body"));
 	* 
+	*  the call only stores the email, so it returns without waiting for SMTP.
 	*/
 }
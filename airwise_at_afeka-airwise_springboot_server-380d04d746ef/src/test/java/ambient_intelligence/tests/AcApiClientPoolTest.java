@@ -0,0 +1,133 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.List;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import ambient_intelligence.external_api.RestClientACService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The pooled AC api client: pool limits, timeouts and pool metrics. The keep-alive check talks to the
+ * demo AC api at external.api.demoac.base_url and is skipped when it is not running.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"external.api.demoac.pool.max-total=1",
+		"external.api.demoac.pool.max-per-route=1",
+		"external.api.demoac.connect-timeout=1s",
+		"external.api.demoac.read-timeout=500ms",
+		"external.api.demoac.pool-acquire-timeout=300ms" })
+public class AcApiClientPoolTest {
+
+	@Autowired
+	private PoolingHttpClientConnectionManager connectionManager;
+
+	@Autowired
+	private RestClient restClient;
+
+	@Autowired
+	private RestClientACService acService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${external.api.demoac.base_url}")
+	private String demoAcUrl;
+
+	@Test
+	public void testPoolIsSizedFromProperties() {
+		assertEquals(1, connectionManager.getMaxTotal());
+		assertEquals(1, connectionManager.getDefaultMaxPerRoute());
+
+		// the pool is published under the demoac client name
+		assertEquals(1, meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "demoac")
+				.gauge().value());
+		assertEquals(1, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+				.tag("httpclient", "demoac").gauge().value());
+	}
+
+	@Test
+	public void testRequestGivesUpWhenNoPooledConnectionFreesUp() throws Exception {
+		try (ServerSocket silent = new ServerSocket(0)) {
+			HttpHost host = new HttpHost("http", "localhost", silent.getLocalPort());
+
+			// Arrange: the only connection of the pool is taken
+			ConnectionEndpoint taken = connectionManager.lease("test", new HttpRoute(host), Timeout.ofSeconds(5), null)
+					.get(Timeout.ofSeconds(5));
+			try {
+				// Act
+				long start = System.nanoTime();
+				assertThrows(ResourceAccessException.class,
+						() -> restClient.get().uri(host.toURI() + "/api/ac/SN-1").retrieve().toBodilessEntity());
+				long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+				// Assert: failed after the acquire timeout, without waiting for a read timeout
+				assertTrue(waitedMillis >= 250 && waitedMillis < 2000, "waited " + waitedMillis + "ms");
+			} finally {
+				connectionManager.release(taken, null, TimeValue.ZERO_MILLISECONDS);
+			}
+		}
+	}
+
+	@Test
+	public void testSlowAcApiHitsTheReadTimeout() throws Exception {
+		// accepts connections (backlog) but never answers
+		try (ServerSocket silent = new ServerSocket(0)) {
+			String url = "http://localhost:" + silent.getLocalPort() + "/api/ac/SN-1";
+
+			long start = System.nanoTime();
+			assertThrows(ResourceAccessException.class, () -> restClient.get().uri(url).retrieve().toBodilessEntity());
+			long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+			assertTrue(waitedMillis >= 400 && waitedMillis < 3000, "waited " + waitedMillis + "ms");
+		}
+	}
+
+	@Test
+	public void testConnectionsToDemoAcAreKeptAlive() {
+		assumeTrue(demoAcIsRunning(), "demo AC api is not running at " + demoAcUrl);
+
+		// Act: several calls in a row
+		for (int i = 0; i < 5; i++) {
+			acService.getACStatesBySerials(List.of("SN-UNKNOWN-" + i));
+		}
+
+		// Assert: one connection served every call and went back to the pool open
+		assertEquals(1, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+				.tag("httpclient", "demoac").tag("state", "available").gauge().value());
+		assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+				.tag("httpclient", "demoac").tag("state", "leased").gauge().value());
+		assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.pending")
+				.tag("httpclient", "demoac").gauge().value());
+	}
+
+	private boolean demoAcIsRunning() {
+		URI uri = URI.create(demoAcUrl);
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort()), 500);
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+}
@@ -2,7 +2,12 @@ package ambient_intelligence.tests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +23,7 @@ import ambient_intelligence.dal.UserCrud;
 import ambient_intelligence.data.UserRole;
 import ambient_intelligence.logic.boundaries.CommandBoundary;
 import ambient_intelligence.logic.boundaries.CreatedBy;
+import ambient_intelligence.logic.boundaries.IndexReportEntry;
 import ambient_intelligence.logic.boundaries.InvokedBy;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 import ambient_intelligence.logic.boundaries.TargetObject;
@@ -137,4 +143,60 @@ public class AdminControllerAPITest extends TestHelper {
 		assertEquals(0, objects.size());
 
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testIndexReportHasNoCollectionScans() {
+		cleanup();
+
+		createUser(adminEmail, UserRole.ADMIN, "TestUser1", "avatar1");
+
+		List<IndexReportEntry> report = webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/admin/indexes").queryParam("userSystemID", SystemID)
+						.queryParam("userEmail", adminEmail).build())
+				.exchange().expectStatus().isOk().expectBodyList(IndexReportEntry.class).returnResult()
+				.getResponseBody();
+
+		assertNotNull(report);
+		List<String> collectionScans = report.stream().filter(IndexReportEntry::isCollectionScan)
+				.map(IndexReportEntry::getQueryShape).toList();
+		assertEquals(List.of(), collectionScans);
+	}
+
+	@Test
+	public void testStreamUsersAsNdjson() throws IOException {
+		cleanup();
+
+		createUser(adminEmail, UserRole.ADMIN, "TestUser1", "avatar1");
+		createUser("operator@email.com", UserRole.OPERATOR, "TestUser2", "avatar2");
+		createUser("endUser@email.com", UserRole.END_USER, "TestUser3", "avatar3");
+
+		byte[] plain = webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/admin/users/export").queryParam("userSystemID", SystemID)
+						.queryParam("userEmail", adminEmail).build())
+				.accept(MediaType.APPLICATION_NDJSON).exchange().expectStatus().isOk().expectBody(byte[].class)
+				.returnResult().getResponseBody();
+
+		// one JSON user per line
+		String[] lines = new String(plain, StandardCharsets.UTF_8).split("\n");
+		assertEquals(3, lines.length);
+
+		byte[] zipped = webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/admin/users/export").queryParam("userSystemID", SystemID)
+						.queryParam("userEmail", adminEmail).queryParam("gzip", true).build())
+				.accept(MediaType.parseMediaType("application/gzip")).exchange().expectStatus().isOk()
+				.expectHeader().contentType("application/gzip")
+				.expectHeader().doesNotExist("Content-Encoding")
+				.expectHeader().valueEquals("Content-Disposition", "attachment; filename=\"users.ndjson.gz\"")
+				.expectBody(byte[].class).returnResult().getResponseBody();
+
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(zipped))) {
+			assertEquals(new String(plain, StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+
+		// non-admins are rejected before anything is streamed
+		webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/admin/users/export").queryParam("userSystemID", SystemID)
+						.queryParam("userEmail", "operator@email.com").build())
+				.exchange().expectStatus().isUnauthorized();
+	}
+}
@@ -0,0 +1,210 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import ambient_intelligence.dal.CommandFilter;
+import ambient_intelligence.dal.archive.ArchiveSegment;
+import ambient_intelligence.dal.archive.ArchiveSegment.KeyFilter;
+import ambient_intelligence.dal.archive.CommandArchive;
+import ambient_intelligence.data.CommandEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.boundaries.CommandBoundary;
+import ambient_intelligence.logic.boundaries.CommandId;
+import ambient_intelligence.logic.boundaries.InvokedBy;
+import ambient_intelligence.logic.boundaries.ObjectId;
+import ambient_intelligence.logic.boundaries.TargetObject;
+import ambient_intelligence.logic.boundaries.UserId;
+
+// own properties mean an own context, so it cannot share port 8084 with the default one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"airwise.commands.archive.dir=${java.io.tmpdir}/airwise-commands-archive-test",
+		// small blocks so a handful of commands spans several gzip members
+		"airwise.commands.archive.block-size=2" })
+public class CommandArchiveTest extends TestHelper {
+
+	private final String adminEmail = "admin@example.com";
+
+	@Autowired
+	private CommandArchive commandArchive;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Value("${airwise.commands.archive.dir}")
+	private String archiveDir;
+
+	@BeforeEach
+	public void setup() {
+		super.setup();
+		cleanup();
+		this.commandArchive.deleteAll();
+		createUser(adminEmail, UserRole.ADMIN, "Admin", "avatar");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+		this.commandArchive.deleteAll();
+	}
+
+	@Test
+	public void testHistoryReadsAcrossHotAndArchivedCommands() {
+		// Arrange: four old commands and one recent one
+		for (int daysAgo : new int[] { 10, 9, 8, 7, 0 }) {
+			saveCommand("CMD_" + daysAgo, daysAgo);
+		}
+
+		// Act
+		long archived = this.commandArchive.archiveOlderThan(daysAgo(1), 100);
+
+		// Assert: old commands left Mongo
+		assertEquals(4, archived);
+		assertEquals(1, this.commandCrud.count());
+		assertEquals(4, this.commandArchive.count());
+
+		// page mode continues from Mongo into the archive, newest first
+		List<CommandBoundary> page = webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/admin/commands").queryParam("userSystemID", systemID)
+						.queryParam("userEmail", adminEmail).queryParam("size", 10).queryParam("page", 0).build())
+				.exchange().expectStatus().isOk().expectBodyList(CommandBoundary.class).returnResult()
+				.getResponseBody();
+		assertEquals(List.of("CMD_0", "CMD_7", "CMD_8", "CMD_9", "CMD_10"), commands(page));
+
+		// cursor mode walks the same order in pages of two
+		assertEquals(List.of("CMD_0", "CMD_7", "CMD_8", "CMD_9", "CMD_10"), commands(walkHistory(2)));
+
+		// filters apply to archived commands too
+		List<CommandBoundary> filtered = webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/admin/commands/history").queryParam("userSystemID", systemID)
+						.queryParam("userEmail", adminEmail).queryParam("command", "CMD_8").queryParam("size", 10)
+						.build())
+				.exchange().expectStatus().isOk().expectBodyList(CommandBoundary.class).returnResult()
+				.getResponseBody();
+		assertNotNull(filtered);
+		assertEquals(List.of("CMD_8"), commands(filtered));
+	}
+
+	@Test
+	public void testCursorPastUntimestampedCommandsContinuesIntoTheArchive() {
+		// Arrange: a command without a timestamp stays hot and sorts after the dated ones
+		saveCommand("CMD_9", 9);
+		saveCommand("CMD_8", 8);
+		saveCommand("CMD_0", 0);
+		saveCommand("CMD_UNDATED", null);
+		assertEquals(2, this.commandArchive.archiveOlderThan(daysAgo(1), 100));
+
+		// Act: the first page ends on the untimestamped command
+		List<CommandBoundary> walked = walkHistory(2);
+
+		// Assert
+		assertEquals(List.of("CMD_0", "CMD_UNDATED", "CMD_8", "CMD_9"), commands(walked));
+	}
+
+	@Test
+	public void testInstancesSharingTheDirectoryReadEachOthersSegments() throws IOException {
+		// Arrange: another instance, on the same directory, archives
+		CommandArchive otherInstance = new CommandArchive(this.mongoTemplate, this.archiveDir, 2, true);
+		otherInstance.load();
+		saveCommand("CMD_9", 9);
+		saveCommand("CMD_8", 8);
+		assertEquals(2, otherInstance.archiveOlderThan(daysAgo(1), 100));
+		assertEquals(0, this.commandArchive.count());
+
+		// Act
+		this.commandArchive.refresh();
+
+		// Assert: the commands left Mongo and are read from the archive here
+		assertEquals(0, this.commandCrud.count());
+		assertEquals(2, this.commandArchive.count());
+		assertEquals(List.of("CMD_8", "CMD_9"), commands(walkHistory(10)));
+	}
+
+	@Test
+	public void testArchivingTwiceDoesNotDuplicate() {
+		saveCommand("CMD_5", 5);
+		saveCommand("CMD_4", 4);
+
+		assertEquals(2, this.commandArchive.archiveOlderThan(daysAgo(1), 100));
+		assertEquals(0, this.commandArchive.archiveOlderThan(daysAgo(1), 100));
+
+		assertEquals(0, this.commandCrud.count());
+		assertEquals(2, this.commandArchive.count());
+	}
+
+	@Test
+	public void testBlockKeysRuleOutBlocksWithoutTheFilteredValues() {
+		// Arrange: a block of CMD_1 commands on target-1 by the admin, as read back from its .idx line
+		KeyFilter keys = KeyFilter.of(
+				List.of(KeyFilter.COMMAND + "CMD_1", KeyFilter.TARGET + "target-1", KeyFilter.INVOKER + adminEmail));
+		ArchiveSegment.Block block = ArchiveSegment.Block
+				.parse(new ArchiveSegment.Block(0, 100, 2, 1000, 2000, "last", keys).format());
+
+		// Assert
+		assertTrue(block.mayMatch(CommandFilter.none()));
+		assertTrue(block.mayMatch(new CommandFilter("CMD_1", List.of("other", "target-1"), adminEmail, null, null)));
+		assertFalse(block.mayMatch(new CommandFilter("CMD_2", null, null, null, null)));
+		assertFalse(block.mayMatch(new CommandFilter(null, List.of("target-2", "target-3"), null, null, null)));
+		assertFalse(block.mayMatch(new CommandFilter(null, null, "someone@example.com", null, null)));
+
+		// blocks of segments written before the keys existed are always read
+		ArchiveSegment.Block old = ArchiveSegment.Block.parse("0\t100\t2\t1000\t2000\tlast");
+		assertTrue(old.mayMatch(new CommandFilter("CMD_2", null, null, null, null)));
+	}
+
+	// every page of /admin/commands/history, following X-Next-Cursor
+	private List<CommandBoundary> walkHistory(int size) {
+		List<CommandBoundary> walked = new ArrayList<>();
+		String cursor = "";
+		while (cursor != null) {
+			String current = cursor;
+			EntityExchangeResult<List<CommandBoundary>> result = webTestClient.get()
+					.uri(uriBuilder -> uriBuilder.path("/admin/commands/history").queryParam("userSystemID", systemID)
+							.queryParam("userEmail", adminEmail).queryParam("size", size)
+							.queryParam("cursor", current).build())
+					.exchange().expectStatus().isOk().expectBodyList(CommandBoundary.class).returnResult();
+			walked.addAll(result.getResponseBody());
+			cursor = result.getResponseHeaders().getFirst("X-Next-Cursor");
+		}
+		return walked;
+	}
+
+	private void saveCommand(String command, Integer daysAgo) {
+		CommandEntity entity = new CommandEntity();
+		entity.setId(new CommandId(UUID.randomUUID().toString(), systemID));
+		entity.setCommand(command);
+		entity.setTargetObject(new TargetObject(new ObjectId(UUID.randomUUID().toString(), systemID)));
+		entity.setInvokedBy(new InvokedBy(new UserId(systemID, adminEmail)));
+		entity.setCommandAttributes(Map.of("temperature", 22));
+		entity.setInvocationTimestamp(daysAgo == null ? null : daysAgo(daysAgo));
+		this.commandCrud.save(entity);
+	}
+
+	private static Date daysAgo(int days) {
+		return Date.from(Instant.now().minus(Duration.ofDays(days)));
+	}
+
+	private static List<String> commands(List<CommandBoundary> boundaries) {
+		return boundaries.stream().map(CommandBoundary::getCommand).toList();
+	}
+}
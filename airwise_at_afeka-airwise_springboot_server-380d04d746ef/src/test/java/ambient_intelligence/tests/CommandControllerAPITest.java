@@ -2,6 +2,8 @@ package ambient_intelligence.tests;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.List;
 import java.util.Map;
 
@@ -22,9 +24,11 @@ import ambient_intelligence.logic.boundaries.CreatedBy;
 import ambient_intelligence.logic.boundaries.InvokedBy;
 import ambient_intelligence.logic.boundaries.NewUserBoundary;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
+import ambient_intelligence.logic.boundaries.ObjectChildIdBoundary;
 import ambient_intelligence.logic.boundaries.ObjectId;
 import ambient_intelligence.logic.boundaries.TargetObject;
 import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.utils.AirwiseConfig;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 public class CommandControllerAPITest extends TestHelper {
@@ -143,4 +147,103 @@ public class CommandControllerAPITest extends TestHelper {
 
         cleanup();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSearchCommandsHistoryByFilters() {
+        cleanup();
+
+        createUser(operatorEmail, UserRole.OPERATOR, "TestUser", "avatar");
+        createUser(endUserEmail, UserRole.END_USER, "TestUser", "avatar");
+        createUser(adminEmail, UserRole.ADMIN, "TestUser", "avatar");
+
+        ObjectBoundary createdObject = createObject("AC", "Living Room AC", "some_status", true, operatorEmail);
+
+        CommandBoundary command = new CommandBoundary();
+        command.setCommand("TURN_ON_AC");
+        command.setTargetObject(new TargetObject(createdObject.getId()));
+        command.setInvokedBy(new InvokedBy(new UserId(SystemID, endUserEmail)));
+        command.setCommandAttributes(Map.of("temperature", 22));
+
+        webTestClient.post().uri("/commands").contentType(MediaType.APPLICATION_JSON).bodyValue(command).exchange()
+                .expectStatus().is2xxSuccessful();
+
+        String targetObjectId = createdObject.getId().getObjectId();
+
+        // Act + Assert: all filters matching
+        List<CommandBoundary> matching = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/admin/commands/history").queryParam("userSystemID", SystemID)
+                        .queryParam("userEmail", adminEmail).queryParam("command", "TURN_ON_AC")
+                        .queryParam("targetObjectId", targetObjectId).queryParam("invokedBy", endUserEmail)
+                        .queryParam("size", 10).build())
+                .exchange().expectStatus().isOk().expectBodyList(CommandBoundary.class).returnResult()
+                .getResponseBody();
+
+        assertNotNull(matching);
+        assertEquals(1, matching.size());
+        assertEquals("TURN_ON_AC", matching.get(0).getCommand());
+
+        // Act + Assert: another command type on the same target
+        List<CommandBoundary> otherType = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/admin/commands/history").queryParam("userSystemID", SystemID)
+                        .queryParam("userEmail", adminEmail).queryParam("command", "TURN_OFF_AC")
+                        .queryParam("targetObjectId", targetObjectId).queryParam("size", 10).build())
+                .exchange().expectStatus().isOk().expectBodyList(CommandBoundary.class).returnResult()
+                .getResponseBody();
+
+        assertNotNull(otherType);
+        assertEquals(0, otherType.size());
+
+        cleanup();
+    }
+
+    @Test
+    public void testDeleteEntityWithChildrenDeactivatesWholeSubtree() {
+        cleanup();
+
+        // Arrange: site > room > AC > task, and a room of another site
+        createUser(operatorEmail, UserRole.OPERATOR, "OperatorUser", "avatar");
+        createUser(endUserEmail, UserRole.END_USER, "EndUser", "avatar");
+
+        ObjectBoundary site = createObject("Site", "Home", "ACTIVE", true, operatorEmail);
+        ObjectBoundary room = createObject("Room", "Bedroom", "ACTIVE", true, operatorEmail);
+        ObjectBoundary ac = createObject("AirConditioner", "SN-1", "OFF", true, operatorEmail);
+        ObjectBoundary task = createObject("Task", "Night mode", "SCHEDULED", true, operatorEmail);
+        ObjectBoundary otherSite = createObject("Site", "Office", "ACTIVE", true, operatorEmail);
+        ObjectBoundary otherRoom = createObject("Room", "Lobby", "ACTIVE", true, operatorEmail);
+        bind(site, room);
+        bind(room, ac);
+        bind(ac, task);
+        bind(otherSite, otherRoom);
+
+        // Act
+        CommandBoundary command = new CommandBoundary();
+        command.setCommand("DELETE_ENTITY_WITH_CHILDREN");
+        command.setTargetObject(new TargetObject(site.getId()));
+        command.setInvokedBy(new InvokedBy(new UserId(SystemID, endUserEmail)));
+        command.setCommandAttributes(Map.of());
+        webTestClient.post().uri("/commands").contentType(MediaType.APPLICATION_JSON).bodyValue(command).exchange()
+                .expectStatus().isOk();
+
+        // Assert
+        for (ObjectBoundary deleted : List.of(site, room, ac, task)) {
+            assertFalse(objectCrud.findById(entityId(deleted)).orElseThrow().isActive());
+        }
+        assertTrue(objectCrud.findById(entityId(otherSite)).orElseThrow().isActive());
+        assertTrue(objectCrud.findById(entityId(otherRoom)).orElseThrow().isActive());
+
+        cleanup();
+    }
+
+    private void bind(ObjectBoundary parent, ObjectBoundary child) {
+        webTestClient.put()
+                .uri(uriBuilder -> uriBuilder.path("/objects/{parentSystemID}/{parentObjectId}/children")
+                        .queryParam("userSystemID", SystemID).queryParam("userEmail", operatorEmail)
+                        .build(SystemID, parent.getId().getObjectId()))
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(new ObjectChildIdBoundary(child.getId()))
+                .exchange().expectStatus().isOk();
+    }
+
+    private String entityId(ObjectBoundary object) {
+        return SystemID + AirwiseConfig.getIdSeparator() + object.getId().getObjectId();
+    }
+}
@@ -0,0 +1,103 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import ambient_intelligence.dal.EmailOutboxCrud;
+import ambient_intelligence.data.EmailOutboxEntity;
+import ambient_intelligence.data.EmailOutboxStatus;
+import ambient_intelligence.logic.scheduling.EmailOutboxDispatcher;
+import ambient_intelligence.utils.EmailRequest;
+import ambient_intelligence.utils.EmailService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.mail.host=localhost",
+		"spring.mail.port=3025",
+		"spring.mail.properties.mail.smtp.auth=false",
+		"spring.mail.properties.mail.smtp.starttls.enable=false" })
+public class EmailOutboxTest extends TestHelper {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	@Autowired
+	private EmailService emailService;
+
+	@Autowired
+	private EmailOutboxDispatcher dispatcher;
+
+	@Autowired
+	private EmailOutboxCrud emailOutboxCrud;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@BeforeEach
+	public void setup() {
+		this.emailOutboxCrud.deleteAll();
+	}
+
+	@Test
+	public void testQueuedEmailsAreDeliveredByDispatcher() throws Exception {
+		// Arrange
+		for (int i = 0; i < 3; i++) {
+			this.emailService.sendEmail(
+					new EmailRequest("noreply@airwise.com", "user" + i + "@example.com", "subject " + i, "body " + i));
+		}
+
+		// nothing is sent until the dispatcher runs
+		assertEquals(0, greenMail.getReceivedMessages().length);
+
+		// Act
+		this.dispatcher.dispatch();
+
+		// Assert
+		assertEquals(3, greenMail.getReceivedMessages().length);
+		List<EmailOutboxEntity> outbox = this.emailOutboxCrud.findAll();
+		assertEquals(3, outbox.size());
+		assertTrue(outbox.stream().allMatch(email -> email.getStatus() == EmailOutboxStatus.SENT));
+	}
+
+	@Test
+	public void testFailedDeliveryIsRetriedLater() throws Exception {
+		// Arrange
+		this.emailService.sendEmail(new EmailRequest("noreply@airwise.com", "user@example.com", "subject", "body"));
+		greenMail.stop();
+
+		// Act
+		this.dispatcher.dispatch();
+
+		// Assert: back to PENDING with a future retry time
+		EmailOutboxEntity email = this.emailOutboxCrud.findAll().getFirst();
+		assertEquals(EmailOutboxStatus.PENDING, email.getStatus());
+		assertEquals(1, email.getAttempts());
+		assertTrue(email.getNextAttemptAt().after(email.getCreatedAt()));
+
+		// the retry is not due yet, so a running server receives nothing
+		greenMail.start();
+		this.dispatcher.dispatch();
+		assertEquals(0, greenMail.getReceivedMessages().length);
+	}
+
+	@Test
+	public void testSentEmailsExpire() {
+		IndexInfo ttl = this.mongoTemplate.indexOps(EmailOutboxEntity.class).getIndexInfo().stream()
+				.filter(index -> index.getName().equals("sentAt_ttl")).findFirst().orElseThrow();
+		assertEquals(Optional.of(Duration.ofDays(7)), ttl.getExpireAfter());
+	}
+}
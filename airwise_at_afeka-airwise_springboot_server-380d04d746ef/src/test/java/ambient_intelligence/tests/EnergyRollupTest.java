@@ -0,0 +1,167 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import ambient_intelligence.dal.EnergyRollupCrud;
+import ambient_intelligence.dal.PowerConsumptionCrud;
+import ambient_intelligence.dal.migration.EnergyRollupBackfill;
+import ambient_intelligence.data.EnergyRollupEntity;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.RollupGranularity;
+import ambient_intelligence.data.RollupLevel;
+import ambient_intelligence.data.UserEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.EnergyService;
+import ambient_intelligence.logic.boundaries.EnergyRollupBoundary;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.utils.AirwiseConfig;
+
+/**
+ * Rollups kept up to date by recorded consumption, the energyRollups query API, and the backfill
+ * rebuilding them from POWER_CONSUMPTION.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class EnergyRollupTest extends TestHelper {
+
+	private final String operatorEmail = "operator@example.com";
+
+	@Autowired
+	private EnergyService energyService;
+
+	@Autowired
+	private EnergyRollupBackfill backfill;
+
+	@Autowired
+	private EnergyRollupCrud energyRollupCrud;
+
+	@Autowired
+	private PowerConsumptionCrud powerConsumptionCrud;
+
+	private ObjectEntity tenant;
+	private ObjectEntity site;
+	private ObjectEntity room;
+	private ObjectEntity livingRoomAc;
+	private ObjectEntity spareAc;
+
+	@BeforeEach
+	public void setup() {
+		super.setup();
+		cleanup();
+		this.energyRollupCrud.deleteAll();
+		this.powerConsumptionCrud.deleteAll();
+
+		UserEntity operator = new UserEntity();
+		operator.setUserId(new UserId(systemID, operatorEmail));
+		operator.setRole(UserRole.OPERATOR);
+		operator.setUsername("Operator");
+		operator.setAvatar("avatar");
+		this.userCrud.save(operator);
+
+		tenant = saveObject("Tenant", operatorEmail, null);
+		site = saveObject("Site", "Home", tenant);
+		room = saveObject("Room", "Living room", site);
+		livingRoomAc = saveObject("AirConditioner", "SN-1", room);
+		spareAc = saveObject("AirConditioner", "SN-2", room);
+
+		// 2025-05-01 and 2025-05-02 are in the week of 2025-04-28, 2025-05-05 starts the next one
+		record(livingRoomAc, "2025-05-01", 1.0);
+		record(livingRoomAc, "2025-05-02", 2.0);
+		record(spareAc, "2025-05-05", 4.0);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+		this.energyRollupCrud.deleteAll();
+		this.powerConsumptionCrud.deleteAll();
+	}
+
+	@Test
+	public void testRecordedConsumptionIsAddedToEveryLevel() {
+		assertEquals(3.0, kwh(RollupLevel.AC, livingRoomAc, RollupGranularity.WEEK, "2025-04-28"));
+		assertEquals(4.0, kwh(RollupLevel.AC, spareAc, RollupGranularity.WEEK, "2025-05-05"));
+		assertEquals(2.0, kwh(RollupLevel.ROOM, room, RollupGranularity.DAY, "2025-05-02"));
+		assertEquals(7.0, kwh(RollupLevel.SITE, site, RollupGranularity.MONTH, "2025-05-01"));
+		assertEquals(7.0, kwh(RollupLevel.TENANT, tenant, RollupGranularity.MONTH, "2025-05-01"));
+	}
+
+	@Test
+	public void testRollupsOfARoomGroupedByAc() {
+		// Act
+		EnergyRollupBoundary[] rollups = query(room, "granularity=WEEK&groupBy=AC&from=2025-05-01&to=2025-05-31")
+				.expectStatus().isOk().expectBody(EnergyRollupBoundary[].class).returnResult().getResponseBody();
+
+		// Assert: oldest period first, the week of 'from' included
+		assertEquals(List.of("2025-04-28 SN-1 3.0", "2025-05-05 SN-2 4.0"), Arrays.stream(rollups)
+				.map(rollup -> rollup.getPeriodStart() + " " + aliasOf(rollup) + " " + rollup.getKwh()).toList());
+	}
+
+	@Test
+	public void testRollupQueryRejectsBadInput() {
+		query(room, "granularity=YEAR&from=2025-05-01&to=2025-05-31").expectStatus().isBadRequest();
+		query(room, "groupBy=SITE&from=2025-05-01&to=2025-05-31").expectStatus().isBadRequest();
+		query(room, "from=2025-05-01&to=31.05.2025").expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void testBackfillRebuildsTheSameTotals() {
+		// Arrange: a row left wrong by an interrupted build, and one missing
+		EnergyRollupEntity wrong = row(RollupLevel.SITE, site, RollupGranularity.MONTH, "2025-05-01");
+		wrong.setKwh(100.0);
+		this.energyRollupCrud.save(wrong);
+		this.energyRollupCrud.delete(row(RollupLevel.AC, spareAc, RollupGranularity.DAY, "2025-05-05"));
+		long rows = this.energyRollupCrud.count() + 1;
+
+		// Act: twice, as after a crash
+		backfill.rebuild();
+		backfill.rebuild();
+
+		// Assert
+		assertEquals(rows, this.energyRollupCrud.count());
+		assertEquals(7.0, kwh(RollupLevel.SITE, site, RollupGranularity.MONTH, "2025-05-01"));
+		assertEquals(4.0, kwh(RollupLevel.AC, spareAc, RollupGranularity.DAY, "2025-05-05"));
+		assertEquals(3.0, kwh(RollupLevel.AC, livingRoomAc, RollupGranularity.WEEK, "2025-04-28"));
+	}
+
+	private WebTestClient.ResponseSpec query(ObjectEntity object, String parameters) {
+		String[] id = object.getId().split(AirwiseConfig.getIdSeparator());
+		return webTestClient.get().uri("/objects/" + id[0] + "/" + id[1] + "/energyRollups?userSystemID=" + systemID
+				+ "&userEmail=" + operatorEmail + "&" + parameters).exchange();
+	}
+
+	private String aliasOf(EnergyRollupBoundary rollup) {
+		String id = rollup.getObjectId().getSystemID() + AirwiseConfig.getIdSeparator()
+				+ rollup.getObjectId().getObjectId();
+		return objectCrud.findById(id).orElseThrow().getAlias();
+	}
+
+	private double kwh(RollupLevel level, ObjectEntity scope, RollupGranularity granularity, String periodStart) {
+		return row(level, scope, granularity, periodStart).getKwh();
+	}
+
+	private EnergyRollupEntity row(RollupLevel level, ObjectEntity scope, RollupGranularity granularity,
+			String periodStart) {
+		Map<String, EnergyRollupEntity> rows = energyRollupCrud.findAll().stream()
+				.filter(row -> row.getLevel() == level && row.getGranularity() == granularity)
+				.collect(Collectors.toMap(row -> row.getScopeId() + " " + row.getPeriodStart(), row -> row));
+		return rows.get(scope.getId() + " " + periodStart);
+	}
+
+	private void record(ObjectEntity ac, String day, double kwh) {
+		energyService.recordConsumption(tenant.getId(), site.getId(), room.getId(), ac.getId(), LocalDate.parse(day),
+				kwh, 60.0, kwh / 2);
+	}
+}
@@ -0,0 +1,117 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import ambient_intelligence.dal.migration.NativeTimestampMigration;
+import ambient_intelligence.data.CommandEntity;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.boundaries.ObjectBoundary;
+import ambient_intelligence.logic.converters.ObjectConverter;
+import ambient_intelligence.utils.AirwiseConfig;
+
+/**
+ * String timestamps written before the move to native dates: migrated values survive a round trip
+ * through the converters, unparseable ones are kept aside instead of dropped.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class NativeTimestampMigrationTest extends TestHelper {
+
+	private final String adminEmail = "admin@example.com";
+
+	@Autowired
+	private NativeTimestampMigration migration;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private ObjectConverter objectConverter;
+
+	@BeforeEach
+	public void setup() {
+		super.setup();
+		cleanup();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+	}
+
+	@Test
+	public void testMigratedTimestampsRoundTripThroughTheConverter() {
+		// Arrange: the API format and plain ISO-8601
+		String apiFormat = insertObject("2025-05-23T10:15:30.000+0300");
+		String iso = insertObject("2025-05-23T00:00:00Z");
+
+		// Act
+		migration.run(null);
+
+		// Assert: stored as dates
+		Date apiDate = Date.from(Instant.parse("2025-05-23T07:15:30Z"));
+		assertEquals(apiDate, rawObject(apiFormat).get("creationTimestamp"));
+		assertEquals(Date.from(Instant.parse("2025-05-23T00:00:00Z")), rawObject(iso).get("creationTimestamp"));
+
+		// and entity -> boundary -> entity gives the same instant back
+		ObjectBoundary boundary = objectConverter.toBoundary(objectCrud.findById(apiFormat).orElseThrow());
+		assertEquals(apiDate, objectConverter.toEntity(boundary).getCreationTimestamp());
+	}
+
+	@Test
+	public void testUnparseableTimestampsAreKeptAsLegacyFields() {
+		// Arrange
+		String object = insertObject("yesterday");
+		String commands = mongoTemplate.getCollectionName(CommandEntity.class);
+		mongoTemplate.insert(new Document("_id", "legacy-command").append("command", "OLD")
+				.append("invocationTimestamp", "23/05/2025 10:15"), commands);
+
+		// Act: twice, the second run finds nothing left to do
+		migration.run(null);
+		migration.run(null);
+
+		// Assert
+		Document migrated = rawObject(object);
+		assertFalse(migrated.containsKey("creationTimestamp"));
+		assertEquals("yesterday", migrated.get("legacyCreationTimestamp"));
+
+		Document command = mongoTemplate.findById("legacy-command", Document.class, commands);
+		assertFalse(command.containsKey("invocationTimestamp"));
+		assertEquals("23/05/2025 10:15", command.get("legacyInvocationTimestamp"));
+	}
+
+	@Test
+	public void testHistoryStillRejectsUnparseableBounds() {
+		createUser(adminEmail, UserRole.ADMIN, "Admin", "avatar");
+
+		webTestClient.get()
+				.uri(uriBuilder -> uriBuilder.path("/admin/commands/history").queryParam("userSystemID", systemID)
+						.queryParam("userEmail", adminEmail).queryParam("from", "yesterday").build())
+				.exchange().expectStatus().isBadRequest();
+	}
+
+	private String insertObject(String creationTimestamp) {
+		String id = systemID + AirwiseConfig.getIdSeparator() + UUID.randomUUID();
+		mongoTemplate.insert(new Document("_id", id).append("type", "Room").append("alias", "Legacy")
+				.append("status", "ACTIVE").append("active", true).append("creationTimestamp", creationTimestamp),
+				mongoTemplate.getCollectionName(ObjectEntity.class));
+		return id;
+	}
+
+	private Document rawObject(String id) {
+		return mongoTemplate.findById(id, Document.class, mongoTemplate.getCollectionName(ObjectEntity.class));
+	}
+}
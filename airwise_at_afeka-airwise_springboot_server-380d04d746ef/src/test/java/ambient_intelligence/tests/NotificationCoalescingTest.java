@@ -0,0 +1,153 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import ambient_intelligence.dal.EmailOutboxCrud;
+import ambient_intelligence.data.EmailOutboxEntity;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.UserEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.external_api.RestClientACService;
+import ambient_intelligence.logic.CommandsService;
+import ambient_intelligence.logic.NotificationService;
+import ambient_intelligence.logic.boundaries.ACResponse;
+import ambient_intelligence.logic.boundaries.CommandBoundary;
+import ambient_intelligence.logic.boundaries.InvokedBy;
+import ambient_intelligence.logic.boundaries.ObjectId;
+import ambient_intelligence.logic.boundaries.TargetObject;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.logic.exceptions.ExternalApiException;
+import ambient_intelligence.utils.AirwiseConfig;
+
+/**
+ * Notifications of one unit of work reach each recipient as a single email, and only when the work
+ * completes. Emails are checked in the outbox.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class NotificationCoalescingTest extends TestHelper {
+
+	private final String endUserEmail = "enduser@example.com";
+	private final String operatorEmail = "operator@example.com";
+
+	@MockitoBean
+	private RestClientACService restClient;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private CommandsService commandsService;
+
+	@Autowired
+	private EmailOutboxCrud emailOutboxCrud;
+
+	@BeforeEach
+	public void setup() {
+		cleanup();
+		this.emailOutboxCrud.deleteAll();
+
+		saveUserWithTenant(endUserEmail, UserRole.END_USER);
+		saveUserWithTenant(operatorEmail, UserRole.OPERATOR);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+		this.emailOutboxCrud.deleteAll();
+	}
+
+	@Test
+	public void testEachRecipientGetsOneEmailPerUnitOfWork() {
+		// Act
+		notificationService.coalesce(() -> {
+			notificationService.notifyUser(new UserId(systemID, endUserEmail), "First", "one");
+			notificationService.notifyUser(new UserId(systemID, endUserEmail), "Second", "two");
+			notificationService.notifyUser(new UserId(systemID, operatorEmail), "Third", "three");
+		});
+
+		// Assert
+		assertEquals(Map.of(endUserEmail, "2 AirWise updates", operatorEmail, "Third"), subjectsByReceiver());
+	}
+
+	@Test
+	public void testNothingIsSentWhenTheUnitOfWorkFails() {
+		// Act
+		assertThrows(IllegalStateException.class, () -> notificationService.coalesce(() -> {
+			notificationService.notifyUser(new UserId(systemID, endUserEmail), "First", "one");
+			throw new IllegalStateException("command failed");
+		}));
+
+		// Assert
+		assertEquals(0, emailOutboxCrud.count());
+		assertEquals(0, objectCrud.findAll().stream().filter(object -> "Notification".equals(object.getType()))
+				.count());
+	}
+
+	@Test
+	public void testRoomCommandSendsOneEmailPerRecipient() {
+		// Arrange: three ACs created by the operator, the AC api rejects one of them
+		ObjectEntity room = saveObject("Room", "Bedroom", null);
+		saveObject("AirConditioner", "SN-1", room);
+		saveObject("AirConditioner", "SN-2", room);
+		saveObject("AirConditioner", "SN-3", room);
+
+		ACResponse ok = new ACResponse();
+		ok.setCode(200);
+		ok.setMessage("AC state updated");
+		when(restClient.setACState(anyString(), anyBoolean(), anyDouble(), anyString(), anyString())).thenReturn(ok);
+		when(restClient.setACState(eq("SN-2"), anyBoolean(), anyDouble(), anyString(), anyString()))
+				.thenThrow(new ExternalApiException("AC api unavailable"));
+
+		// Act
+		CommandBoundary command = new CommandBoundary();
+		command.setCommand("ROOM_ACS_CONTROL");
+		command.setTargetObject(new TargetObject(new ObjectId(room.getId().split(AirwiseConfig.getIdSeparator())[1],
+				systemID)));
+		command.setInvokedBy(new InvokedBy(new UserId(systemID, endUserEmail)));
+		command.setCommandAttributes(
+				new HashMap<>(Map.of("power", true, "temperature", 22, "mode", "COOL", "fanSpeed", "LOW")));
+		commandsService.invokeCommand(command);
+
+		// Assert: the two updated ACs are one email to their owner, the summary one email to the caller
+		assertEquals(Map.of(operatorEmail, "2 AirWise updates", endUserEmail, "Group Control"),
+				subjectsByReceiver());
+	}
+
+	private Map<String, String> subjectsByReceiver() {
+		List<EmailOutboxEntity> emails = emailOutboxCrud.findAll();
+		Map<String, String> subjects = emails.stream()
+				.collect(Collectors.toMap(EmailOutboxEntity::getReceiver, EmailOutboxEntity::getSubject));
+		assertEquals(emails.size(), subjects.size(), "more than one email to a recipient: " + emails);
+		return subjects;
+	}
+
+	private void saveUserWithTenant(String email, UserRole role) {
+		UserEntity user = new UserEntity();
+		user.setUserId(new UserId(systemID, email));
+		user.setRole(role);
+		user.setUsername(email);
+		user.setAvatar("avatar");
+		userCrud.save(user);
+
+		// notifications are filed under the tenant whose alias is the user's email
+		saveObject("Tenant", email, null);
+	}
+}
@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import ambient_intelligence.dal.CommandCrud;
@@ -26,6 +29,8 @@ import ambient_intelligence.logic.boundaries.NewUserBoundary;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 import ambient_intelligence.logic.boundaries.ObjectChildIdBoundary;
 import ambient_intelligence.logic.boundaries.ObjectId;
+import ambient_intelligence.logic.scheduling.ScheduledTaskIndex;
+import ambient_intelligence.utils.AirwiseConfig;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 public class ObjectControllerAPITest extends TestHelper {
@@ -43,6 +48,9 @@ public class ObjectControllerAPITest extends TestHelper {
     @Autowired
     private ObjectCrud objectCrud;
 
+    @Autowired
+    private ScheduledTaskIndex taskIndex;
+
     @BeforeEach
     public void setup() {
         super.setup();
@@ -452,6 +460,68 @@ public class ObjectControllerAPITest extends TestHelper {
         assertTrue(resultsEndUser.get(0).isActive());
     }
 
+    @Test
+    public void testSearchByAliasPrefixAndShortPattern() {
+        cleanup();
+
+        createUser(operatorEmail, UserRole.OPERATOR, "OperatorUser", "operator_avatar.png");
+        createObject("AC", "Living Room AC", "ON", true, operatorEmail);
+        createObject("Light", "Kitchen Light", "OFF", true, operatorEmail);
+
+        // prefix match only looks at the start of the alias
+        assertEquals(List.of("Living Room AC"), searchAliases("Liv", "prefix"));
+        assertEquals(List.of(), searchAliases("Room", "prefix"));
+
+        // single-character patterns stay case-sensitive: "C" in "AC" does not match "c"
+        assertEquals(List.of("Kitchen Light"), searchAliases("c", "contains"));
+        assertEquals(List.of("Living Room AC"), searchAliases("m A", "contains"));
+    }
+
+    private List<String> searchAliases(String pattern, String match) {
+        List<ObjectBoundary> results = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/objects/search/byAliasPattern/{pattern}")
+                        .queryParam("userSystemID", SystemID).queryParam("userEmail", operatorEmail)
+                        .queryParam("match", match).queryParam("size", 10).queryParam("page", 0).build(pattern))
+                .exchange().expectStatus().isOk().expectBodyList(ObjectBoundary.class).returnResult().getResponseBody();
+        return results.stream().map(ObjectBoundary::getAlias).toList();
+    }
+
+    @Test
+    public void testGetAllObjectsWithCursor() {
+        cleanup();
+
+        createUser(operatorEmail, UserRole.OPERATOR, "OperatorUser", "operator_avatar.png");
+        createObject("AC", "AC 1", "ON", true, operatorEmail);
+        createObject("AC", "AC 2", "ON", true, operatorEmail);
+        createObject("AC", "AC 3", "OFF", false, operatorEmail);
+
+        // first page: cursor mode is selected by an empty cursor
+        EntityExchangeResult<List<ObjectBoundary>> first = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/objects").queryParam("userSystemID", SystemID)
+                        .queryParam("userEmail", operatorEmail).queryParam("size", 2).queryParam("cursor", "").build())
+                .exchange().expectStatus().isOk().expectBodyList(ObjectBoundary.class).returnResult();
+        String nextCursor = first.getResponseHeaders().getFirst("X-Next-Cursor");
+
+        assertEquals(2, first.getResponseBody().size());
+        assertNotNull(nextCursor);
+
+        EntityExchangeResult<List<ObjectBoundary>> second = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/objects").queryParam("userSystemID", SystemID)
+                        .queryParam("userEmail", operatorEmail).queryParam("size", 2)
+                        .queryParam("cursor", nextCursor).build())
+                .exchange().expectStatus().isOk().expectBodyList(ObjectBoundary.class).returnResult();
+
+        // last page: the remaining object and no further cursor
+        assertEquals(1, second.getResponseBody().size());
+        assertFalse(second.getResponseHeaders().containsKey("X-Next-Cursor"));
+
+        List<String> aliases = new ArrayList<>();
+        first.getResponseBody().forEach(o -> aliases.add(o.getAlias()));
+        second.getResponseBody().forEach(o -> aliases.add(o.getAlias()));
+        // every object exactly once across the pages
+        assertEquals(List.of("AC 1", "AC 2", "AC 3"), aliases.stream().sorted().toList());
+    }
+
     @Test
     public void testSearchByType() {
         cleanup();
@@ -736,4 +806,93 @@ public class ObjectControllerAPITest extends TestHelper {
         assertEquals("OFF", resultsOffEndUser.get(0).getStatus());
         assertTrue(resultsOffEndUser.get(0).isActive());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRebindMovesSubtreeAndRejectsCycles() {
+        cleanup();
+
+        // Arrange: home > room > AC > task, and a second site
+        createUser(operatorEmail, UserRole.OPERATOR, "OperatorUser", "operator_avatar.png");
+        ObjectBoundary home = createObject("Site", "Home", "ACTIVE", true, operatorEmail);
+        ObjectBoundary office = createObject("Site", "Office", "ACTIVE", true, operatorEmail);
+        ObjectBoundary room = createObject("Room", "Bedroom", "ACTIVE", true, operatorEmail);
+        ObjectBoundary ac = createObject("AirConditioner", "SN-1", "OFF", true, operatorEmail);
+        ObjectBoundary task = createObject("Task", "Night mode", "SCHEDULED", true, operatorEmail);
+        bind(home, room).expectStatus().isOk();
+        bind(room, ac).expectStatus().isOk();
+        bind(ac, task).expectStatus().isOk();
+
+        // Act: move the room to the other site
+        bind(office, room).expectStatus().isOk();
+
+        // Assert: the room and everything below it now hang under the office
+        assertEquals(entityId(office), objectCrud.findById(entityId(room)).orElseThrow().getParentId());
+        assertEquals(List.of(entityId(office)), objectCrud.findById(entityId(room)).orElseThrow().getAncestors());
+        assertEquals(List.of(entityId(office), entityId(room)),
+                objectCrud.findById(entityId(ac)).orElseThrow().getAncestors());
+        assertEquals(List.of(entityId(office), entityId(room), entityId(ac)),
+                objectCrud.findById(entityId(task)).orElseThrow().getAncestors());
+
+        // Act + Assert: an object cannot be bound under itself or its own descendant
+        bind(room, room).expectStatus().isBadRequest();
+        bind(ac, office).expectStatus().isBadRequest();
+        assertEquals(List.of(), objectCrud.findById(entityId(office)).orElseThrow().getAncestors());
+    }
+
+    @Test
+    public void testScheduledTaskIsIndexedByFireTime() {
+        cleanup();
+
+        // Arrange
+        createUser(operatorEmail, UserRole.OPERATOR, "OperatorUser", "operator_avatar.png");
+
+        ObjectBoundary task = new ObjectBoundary();
+        ObjectId objectId = new ObjectId();
+        objectId.setSystemID(SystemID);
+        task.setId(objectId);
+        task.setType("Task");
+        task.setAlias("Morning cooling");
+        task.setStatus("SCHEDULED");
+        task.setActive(true);
+        task.setCreationTimestamp("2025-05-23T00:00:00Z");
+        task.setCreatedBy(new CreatedBy(SystemID, operatorEmail));
+        task.setObjectDetails(new HashMap<>(Map.of("action", "TURN_ON", "startTime", "07:30", "endTime", "08:15",
+                "repeat", "EVERY_DAY")));
+
+        // Act
+        ObjectBoundary created = webTestClient.post().uri("/objects").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(task).exchange().expectStatus().isOk().expectBody(ObjectBoundary.class).returnResult()
+                .getResponseBody();
+        String taskId = SystemID + AirwiseConfig.getIdSeparator() + created.getId().getObjectId();
+
+        // Assert: filed under its start and end minutes only
+        assertTrue(taskIndex.due(LocalTime.of(7, 30)).contains(taskId));
+        assertTrue(taskIndex.due(LocalTime.of(8, 15)).contains(taskId));
+        assertFalse(taskIndex.due(LocalTime.of(7, 31)).contains(taskId));
+
+        // Act: deactivating the task takes it out of the index
+        task.setActive(false);
+        webTestClient.put()
+                .uri(uriBuilder -> uriBuilder.path("/objects/{systemID}/{objectId}")
+                        .queryParam("userSystemID", SystemID).queryParam("userEmail", operatorEmail)
+                        .build(SystemID, created.getId().getObjectId()))
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(task).exchange().expectStatus().isOk();
+
+        // Assert
+        assertFalse(taskIndex.due(LocalTime.of(7, 30)).contains(taskId));
+        assertFalse(taskIndex.due(LocalTime.of(8, 15)).contains(taskId));
+    }
+
+    private WebTestClient.ResponseSpec bind(ObjectBoundary parent, ObjectBoundary child) {
+        return webTestClient.put()
+                .uri(uriBuilder -> uriBuilder.path("/objects/{parentSystemID}/{parentObjectId}/children")
+                        .queryParam("userSystemID", SystemID).queryParam("userEmail", operatorEmail)
+                        .build(SystemID, parent.getId().getObjectId()))
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(new ObjectChildIdBoundary(child.getId()))
+                .exchange();
+    }
+
+    private String entityId(ObjectBoundary object) {
+        return SystemID + AirwiseConfig.getIdSeparator() + object.getId().getObjectId();
+    }
+}
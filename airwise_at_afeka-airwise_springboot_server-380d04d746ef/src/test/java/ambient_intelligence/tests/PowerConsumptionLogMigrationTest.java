@@ -0,0 +1,105 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ambient_intelligence.dal.PowerConsumptionCrud;
+import ambient_intelligence.dal.migration.PowerConsumptionLogMigration;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.PowerConsumptionEntity;
+import ambient_intelligence.logic.boundaries.CreatedBy;
+import ambient_intelligence.utils.AirwiseConfig;
+
+/**
+ * The move of Site objectDetails.powerConsumptionLogs into POWER_CONSUMPTION, including a run that
+ * stopped before the old logs were removed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class PowerConsumptionLogMigrationTest extends TestHelper {
+
+	@Autowired
+	private PowerConsumptionLogMigration migration;
+
+	@Autowired
+	private PowerConsumptionCrud powerConsumptionCrud;
+
+	private ObjectEntity site;
+
+	@BeforeEach
+	public void setup() {
+		super.setup();
+		cleanup();
+		this.powerConsumptionCrud.deleteAll();
+
+		site = new ObjectEntity();
+		site.setId(systemID + AirwiseConfig.getIdSeparator() + UUID.randomUUID());
+		site.setType("Site");
+		site.setAlias("Home");
+		site.setStatus("ACTIVE");
+		site.setActive(true);
+		site.setCreationTimestamp(new Date());
+		site.setCreatedBy(new CreatedBy(systemID, "operator@example.com"));
+		site.setParentId(systemID + AirwiseConfig.getIdSeparator() + "tenant");
+		site.setObjectDetails(new HashMap<>(Map.of("powerConsumptionLogs", oldLogs())));
+		this.objectCrud.save(site);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+		this.powerConsumptionCrud.deleteAll();
+	}
+
+	@Test
+	public void testOldLogsBecomeSiteRowsAndAreRemoved() {
+		// Act
+		migration.run(null);
+
+		// Assert: the two entries of 2025-05-01 are one row
+		assertEquals(Map.of("2025-05-01", 3.0, "2025-05-02", 4.0), kwhByDate());
+		assertEquals(site.getParentId(), powerConsumptionCrud.findAll().get(0).getTenantId());
+		assertFalse(objectCrud.findById(site.getId()).orElseThrow().getObjectDetails()
+				.containsKey("powerConsumptionLogs"));
+	}
+
+	@Test
+	public void testRepeatedRunDoesNotDoubleCount() {
+		// Arrange: a first run wrote the rows but stopped before removing the old logs
+		migration.run(null);
+		ObjectEntity interrupted = objectCrud.findById(site.getId()).orElseThrow();
+		interrupted.getObjectDetails().put("powerConsumptionLogs", oldLogs());
+		objectCrud.save(interrupted);
+
+		// Act
+		migration.run(null);
+
+		// Assert
+		assertEquals(Map.of("2025-05-01", 3.0, "2025-05-02", 4.0), kwhByDate());
+		assertEquals(2, powerConsumptionCrud.count());
+	}
+
+	private Map<String, Double> kwhByDate() {
+		return powerConsumptionCrud.findAll().stream()
+				.collect(Collectors.toMap(PowerConsumptionEntity::getDate, PowerConsumptionEntity::getKwh));
+	}
+
+	private static List<Map<String, Object>> oldLogs() {
+		return List.of(
+				Map.of("date", "2025-05-01", "kwh", 1.0, "runtime", 60.0, "cost", 0.5),
+				Map.of("date", "2025-05-01", "kwh", 2.0, "runtime", 30.0, "cost", 1.0),
+				Map.of("date", "2025-05-02", "kwh", 4.0, "runtime", 90.0, "cost", 2.0));
+	}
+}
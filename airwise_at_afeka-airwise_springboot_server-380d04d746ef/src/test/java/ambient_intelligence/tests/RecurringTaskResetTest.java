@@ -0,0 +1,125 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.logic.boundaries.CreatedBy;
+import ambient_intelligence.logic.scheduling.ScheduledTaskIndex;
+import ambient_intelligence.logic.scheduling.SchedulerPartitions;
+import ambient_intelligence.logic.scheduling.TaskSchedulerService;
+import ambient_intelligence.utils.AirwiseConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The midnight reset of recurring tasks, run through the scheduler: only on the node owning the reset
+ * partition, counted, and followed by a rebuild of the task index.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class RecurringTaskResetTest extends TestHelper {
+
+	private static final String RESET_PARTITION_KEY = "recurring-task-reset";
+
+	private final String operatorEmail = "operator@example.com";
+
+	@MockitoBean
+	private SchedulerPartitions partitions;
+
+	@Autowired
+	private TaskSchedulerService taskSchedulerService;
+
+	@Autowired
+	private ScheduledTaskIndex taskIndex;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@BeforeEach
+	public void setup() {
+		cleanup();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+	}
+
+	@Test
+	public void testRecurringExecutedTasksAreResetInBulk() {
+		// Arrange
+		String daily = createExecutedTask("EVERY_DAY");
+		String weekdays = createExecutedTask("every weekday");
+		String once = createExecutedTask("ONCE");
+		when(partitions.owns(RESET_PARTITION_KEY)).thenReturn(true);
+		double resetBefore = resetCount();
+
+		// Act
+		taskSchedulerService.resetRecurringTaskStatuses();
+
+		// Assert: recurring tasks only
+		assertEquals(resetBefore + 2, resetCount());
+		assertEquals("SCHEDULED", objectCrud.findById(daily).orElseThrow().getStatus());
+		assertEquals("SCHEDULED", objectCrud.findById(weekdays).orElseThrow().getStatus());
+		assertEquals("EXECUTED", objectCrud.findById(once).orElseThrow().getStatus());
+
+		// the index here is rebuilt, the other nodes are told to rebuild theirs
+		Set<String> due = taskIndex.due(LocalTime.of(22, 0));
+		assertTrue(due.contains(daily));
+		assertTrue(due.contains(weekdays));
+		assertFalse(due.contains(once));
+		assertNotNull(mongoTemplate.findById("*", Document.class, "SCHEDULER_TASK_CHANGES"));
+	}
+
+	@Test
+	public void testResetIsLeftToTheNodeOwningIt() {
+		// Arrange: another node owns the reset partition
+		String daily = createExecutedTask("EVERY_DAY");
+		double resetBefore = resetCount();
+
+		// Act
+		taskSchedulerService.resetRecurringTaskStatuses();
+
+		// Assert
+		assertEquals(resetBefore, resetCount());
+		assertEquals("EXECUTED", objectCrud.findById(daily).orElseThrow().getStatus());
+	}
+
+	private double resetCount() {
+		return meterRegistry.counter("airwise.tasks.reset").count();
+	}
+
+	private String createExecutedTask(String repeat) {
+		ObjectEntity task = new ObjectEntity();
+		task.setId(systemID + AirwiseConfig.getIdSeparator() + UUID.randomUUID());
+		task.setType("Task");
+		task.setAlias("Task " + repeat);
+		task.setStatus("EXECUTED");
+		task.setActive(true);
+		task.setCreationTimestamp(new Date());
+		task.setCreatedBy(new CreatedBy(systemID, operatorEmail));
+		task.setObjectDetails(new HashMap<>(Map.of("action", "TURN_OFF", "startTime", "22:00", "repeat", repeat)));
+		return objectCrud.save(task).getId();
+	}
+}
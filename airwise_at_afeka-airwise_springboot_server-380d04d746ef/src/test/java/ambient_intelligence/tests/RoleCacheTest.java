@@ -0,0 +1,147 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.UsersServiceWithPagination;
+import ambient_intelligence.logic.boundaries.UserBoundary;
+import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import ambient_intelligence.logic.security.AuthorizationService;
+import ambient_intelligence.logic.security.RoleCache;
+
+/**
+ * The userId -> role cache behind ensureRole: user changes take effect at once, entries expire and are
+ * bounded, and lookups are counted as hits and misses.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class RoleCacheTest extends TestHelper {
+
+	private final String adminEmail = "admin@example.com";
+	private final String userEmail = "user@example.com";
+
+	@Autowired
+	private UsersServiceWithPagination usersService;
+
+	@Autowired
+	private AuthorizationService authz;
+
+	@BeforeEach
+	public void setup() {
+		cleanup();
+		authz.invalidateAll();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+		authz.invalidateAll();
+	}
+
+	@Test
+	public void testCreatingAUserAgainReplacesItsCachedRole() {
+		// Arrange: the END_USER role is cached
+		usersService.createUser(user(userEmail, UserRole.END_USER));
+		assertFalse(authz.ensureRole(systemID, userEmail, UserRole.ADMIN));
+
+		// Act
+		usersService.createUser(user(userEmail, UserRole.ADMIN));
+
+		// Assert
+		assertTrue(authz.ensureRole(systemID, userEmail, UserRole.ADMIN));
+	}
+
+	@Test
+	public void testRoleChangeTakesEffectImmediately() {
+		// Arrange
+		usersService.createUser(user(userEmail, UserRole.END_USER));
+		assertTrue(authz.ensureRole(systemID, userEmail, UserRole.END_USER));
+
+		// Act
+		usersService.updateUser(systemID, userEmail, user(userEmail, UserRole.OPERATOR));
+
+		// Assert
+		assertTrue(authz.ensureRole(systemID, userEmail, UserRole.OPERATOR));
+		assertFalse(authz.ensureRole(systemID, userEmail, UserRole.END_USER));
+	}
+
+	@Test
+	public void testDeletedUsersAreNoLongerAuthorized() {
+		// Arrange: both roles are cached
+		usersService.createUser(user(adminEmail, UserRole.ADMIN));
+		usersService.createUser(user(userEmail, UserRole.OPERATOR));
+		assertTrue(authz.ensureRole(systemID, userEmail, UserRole.OPERATOR));
+
+		// Act
+		usersService.deleteAllUsers(systemID, adminEmail);
+
+		// Assert
+		assertThrows(UnauthorizedException.class, () -> authz.ensureRole(systemID, userEmail, UserRole.OPERATOR));
+		assertThrows(UnauthorizedException.class, () -> authz.ensureRole(systemID, adminEmail, UserRole.ADMIN));
+	}
+
+	@Test
+	public void testLookupsAreCountedAsHitsAndMisses() {
+		// Arrange
+		usersService.createUser(user(userEmail, UserRole.END_USER));
+		long hits = authz.getCacheHits();
+		long misses = authz.getCacheMisses();
+
+		// Act: the first lookup reads USERS, the next two are served from the cache
+		authz.ensureRole(systemID, userEmail, UserRole.END_USER);
+		authz.ensureRole(systemID, userEmail, UserRole.END_USER);
+		authz.ensureRole(systemID, userEmail, UserRole.ADMIN);
+
+		// Assert
+		assertEquals(misses + 1, authz.getCacheMisses());
+		assertEquals(hits + 2, authz.getCacheHits());
+	}
+
+	@Test
+	public void testEntriesExpireAfterTheTtl() throws InterruptedException {
+		// Arrange
+		RoleCache cache = new RoleCache(10, 50);
+		cache.put("user", UserRole.ADMIN);
+		assertEquals(UserRole.ADMIN, cache.get("user"));
+
+		// Act
+		Thread.sleep(100);
+
+		// Assert: an expired entry is a miss and is dropped
+		assertNull(cache.get("user"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEntryIsEvictedWhenFull() {
+		// Arrange
+		RoleCache cache = new RoleCache(2, 60_000);
+		cache.put("a", UserRole.ADMIN);
+		cache.put("b", UserRole.OPERATOR);
+		cache.get("a");
+
+		// Act
+		cache.put("c", UserRole.END_USER);
+
+		// Assert
+		assertEquals(2, cache.size());
+		assertEquals(UserRole.ADMIN, cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals(UserRole.END_USER, cache.get("c"));
+	}
+
+	private UserBoundary user(String email, UserRole role) {
+		return new UserBoundary(systemID, email, role, "User", "avatar");
+	}
+}
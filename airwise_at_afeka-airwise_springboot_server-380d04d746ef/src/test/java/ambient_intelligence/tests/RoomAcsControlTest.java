@@ -0,0 +1,117 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.UserEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.external_api.RestClientACService;
+import ambient_intelligence.logic.CommandsService;
+import ambient_intelligence.logic.boundaries.ACResponse;
+import ambient_intelligence.logic.boundaries.AcDispatchResult;
+import ambient_intelligence.logic.boundaries.CommandBoundary;
+import ambient_intelligence.logic.boundaries.InvokedBy;
+import ambient_intelligence.logic.boundaries.ObjectId;
+import ambient_intelligence.logic.boundaries.TargetObject;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.logic.exceptions.ExternalApiException;
+import ambient_intelligence.utils.AirwiseConfig;
+
+/**
+ * ROOM_ACS_CONTROL against a stubbed AC api, so single ACs can be made to fail.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class RoomAcsControlTest extends TestHelper {
+
+	private final String endUserEmail = "enduser@example.com";
+
+	@MockitoBean
+	private RestClientACService restClient;
+
+	@Autowired
+	private CommandsService commandsService;
+
+	@BeforeEach
+	public void setup() {
+		cleanup();
+
+		UserEntity user = new UserEntity();
+		user.setUserId(new UserId(systemID, endUserEmail));
+		user.setRole(UserRole.END_USER);
+		user.setUsername("EndUser");
+		user.setAvatar("avatar");
+		this.userCrud.save(user);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+	}
+
+	@Test
+	public void testRoomControlReportsEachAcAndKeepsGoingWhenOneFails() {
+		// Arrange: a room with three ACs, the api rejects the second one
+		ObjectEntity room = saveObject("Room", "Bedroom", null);
+		ObjectEntity first = saveObject("AirConditioner", "SN-1", room);
+		ObjectEntity broken = saveObject("AirConditioner", "SN-2", room);
+		ObjectEntity third = saveObject("AirConditioner", "SN-3", room);
+
+		ACResponse ok = new ACResponse();
+		ok.setCode(200);
+		when(restClient.setACState(anyString(), anyBoolean(), anyDouble(), anyString(), anyString())).thenReturn(ok);
+		when(restClient.setACState(eq("SN-2"), anyBoolean(), anyDouble(), anyString(), anyString()))
+				.thenThrow(new ExternalApiException("AC api unavailable"));
+
+		// Act
+		List<Object> response = commandsService.invokeCommand(roomCommand(room));
+
+		// Assert: one result per AC, keyed by serial
+		Map<String, AcDispatchResult> results = response.stream().filter(AcDispatchResult.class::isInstance)
+				.map(AcDispatchResult.class::cast)
+				.collect(Collectors.toMap(AcDispatchResult::getSerial, result -> result));
+
+		assertEquals(3, results.size());
+		assertTrue(results.get("SN-1").isSuccess());
+		assertFalse(results.get("SN-2").isSuccess());
+		assertEquals("AC api unavailable", results.get("SN-2").getMessage());
+		assertTrue(results.get("SN-3").isSuccess());
+		assertEquals(objectIdOf(broken), results.get("SN-2").getAcId().getObjectId());
+
+		// the working ACs were switched on, the failing one was left alone
+		assertEquals("TURN_ON", objectCrud.findById(first.getId()).orElseThrow().getStatus());
+		assertEquals("TURN_OFF", objectCrud.findById(broken.getId()).orElseThrow().getStatus());
+		assertEquals("TURN_ON", objectCrud.findById(third.getId()).orElseThrow().getStatus());
+	}
+
+	private CommandBoundary roomCommand(ObjectEntity room) {
+		CommandBoundary command = new CommandBoundary();
+		command.setCommand("ROOM_ACS_CONTROL");
+		command.setTargetObject(new TargetObject(new ObjectId(objectIdOf(room), systemID)));
+		command.setInvokedBy(new InvokedBy(new UserId(systemID, endUserEmail)));
+		command.setCommandAttributes(
+				new HashMap<>(Map.of("power", true, "temperature", 22, "mode", "COOL", "fanSpeed", "LOW")));
+		return command;
+	}
+	private String objectIdOf(ObjectEntity object) {
+		return object.getId().split(AirwiseConfig.getIdSeparator())[1];
+	}
+}
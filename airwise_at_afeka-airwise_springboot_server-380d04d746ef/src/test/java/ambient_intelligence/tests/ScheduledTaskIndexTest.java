@@ -0,0 +1,103 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import ambient_intelligence.dal.ObjectCrud;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.logic.scheduling.ScheduledTaskIndex;
+
+/**
+ * Rebuilding the task index from the database while tasks are put and removed: a change that lands
+ * while the rebuild is loading is newer than what it loaded, and survives the rebuild.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class ScheduledTaskIndexTest {
+
+	private static final LocalTime START = LocalTime.of(22, 0);
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Test
+	public void testTaskPutDuringARebuildStaysFiled() {
+		// Arrange: the task is put after the rebuild read the tasks without it
+		ObjectCrud objectCrud = mock(ObjectCrud.class);
+		ScheduledTaskIndex index = new ScheduledTaskIndex(objectCrud, this.mongoTemplate);
+		ObjectEntity task = task();
+		when(objectCrud.findByTypeAndStatusAndActiveTrue(eq("Task"), eq("SCHEDULED"), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					index.put(task);
+					return List.of();
+				});
+
+		// Act
+		index.reconcile();
+
+		// Assert
+		assertTrue(index.due(START).contains(task.getId()));
+	}
+
+	@Test
+	public void testTaskRemovedDuringARebuildStaysRemoved() {
+		// Arrange: the task is removed after the rebuild read it
+		ObjectCrud objectCrud = mock(ObjectCrud.class);
+		ScheduledTaskIndex index = new ScheduledTaskIndex(objectCrud, this.mongoTemplate);
+		ObjectEntity task = task();
+		index.put(task);
+		when(objectCrud.findByTypeAndStatusAndActiveTrue(eq("Task"), eq("SCHEDULED"), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					index.remove(task.getId());
+					return List.of(task);
+				});
+
+		// Act
+		index.reconcile();
+
+		// Assert
+		assertFalse(index.due(START).contains(task.getId()));
+	}
+
+	@Test
+	public void testRebuildFilesTheTasksItLoaded() {
+		// Arrange
+		ObjectCrud objectCrud = mock(ObjectCrud.class);
+		ScheduledTaskIndex index = new ScheduledTaskIndex(objectCrud, this.mongoTemplate);
+		ObjectEntity task = task();
+		when(objectCrud.findByTypeAndStatusAndActiveTrue(eq("Task"), eq("SCHEDULED"), any(Pageable.class)))
+				.thenReturn(List.of(task));
+
+		// Act
+		index.reconcile();
+
+		// Assert
+		assertTrue(index.due(START).contains(task.getId()));
+	}
+
+	private static ObjectEntity task() {
+		ObjectEntity task = new ObjectEntity();
+		task.setId("task-" + UUID.randomUUID());
+		task.setType("Task");
+		task.setStatus("SCHEDULED");
+		task.setActive(true);
+		task.setObjectDetails(new HashMap<>(Map.of("action", "TURN_OFF", "startTime", "22:00", "repeat",
+				"EVERY_DAY")));
+		return task;
+	}
+}
@@ -0,0 +1,140 @@
+package ambient_intelligence.tests;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import ambient_intelligence.Application;
+import ambient_intelligence.dal.migration.MigrationLock;
+import ambient_intelligence.data.SchedulerLeaseEntity;
+import ambient_intelligence.data.SchedulerNodeEntity;
+import ambient_intelligence.logic.scheduling.SchedulerPartitions;
+
+/**
+ * Several server instances against one database: each runs in its own application context.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class SchedulerPartitionsTest {
+
+	private static final int PARTITIONS = 16;
+
+	@Container
+	static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+	private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+	@AfterEach
+	public void tearDown() {
+		this.nodes.forEach(ConfigurableApplicationContext::close);
+		this.nodes.clear();
+	}
+
+	@Test
+	public void testPartitionsAreSplitWhenNodesJoinAndLeave() {
+		// Arrange: one node takes every partition
+		ConfigurableApplicationContext first = startNode("node-a");
+		await().atMost(Duration.ofSeconds(15)).until(() -> owned(first).size() == PARTITIONS);
+
+		// Act: a second node joins
+		ConfigurableApplicationContext second = startNode("node-b");
+
+		// Assert: half each, and every key has exactly one owner
+		await().atMost(Duration.ofSeconds(15))
+				.until(() -> owned(first).size() == PARTITIONS / 2 && owned(second).size() == PARTITIONS / 2);
+		assertTrue(Collections.disjoint(owned(first), owned(second)));
+		for (int i = 0; i < 100; i++) {
+			String acId = UUID.randomUUID().toString();
+			assertTrue(partitions(first).owns(acId) ^ partitions(second).owns(acId));
+		}
+
+		// Act: the second node shuts down and hands its partitions back
+		second.close();
+
+		// Assert
+		await().atMost(Duration.ofSeconds(15)).until(() -> owned(first).size() == PARTITIONS);
+	}
+
+	@Test
+	public void testPartitionsOfDeadNodeAreTakenOver() {
+		// Arrange
+		ConfigurableApplicationContext node = startNode("node-a");
+		await().atMost(Duration.ofSeconds(15)).until(() -> owned(node).size() == PARTITIONS);
+
+		// Act: a node that joins, takes the free half and then stops heartbeating
+		MongoTemplate mongoTemplate = node.getBean(MongoTemplate.class);
+		Date soon = new Date(System.currentTimeMillis() + 2000);
+		mongoTemplate.save(new SchedulerNodeEntity("node-dead", new Date(), soon));
+		await().atMost(Duration.ofSeconds(15)).until(() -> owned(node).size() == PARTITIONS / 2);
+		// the free partitions, not the released migration locks
+		mongoTemplate.updateMulti(new Query(Criteria.where("owner").is(null).and("_id").not().regex("^lock:")),
+				new Update().set("owner", "node-dead").set("expiresAt", soon), SchedulerLeaseEntity.class);
+
+		// Assert: once its leases expire the live node owns everything again
+		await().atMost(Duration.ofSeconds(15)).until(() -> owned(node).size() == PARTITIONS);
+		assertEquals(0, mongoTemplate.count(new Query(Criteria.where("owner").is("node-dead")),
+				SchedulerLeaseEntity.class));
+	}
+
+	@Test
+	public void testMigrationLockIsHeldByOneNodeAtATime() {
+		// Arrange
+		MigrationLock first = startNode("node-a").getBean(MigrationLock.class);
+		MigrationLock second = startNode("node-b").getBean(MigrationLock.class);
+		AtomicBoolean ranWhileHeld = new AtomicBoolean(true);
+
+		// Act
+		boolean ran = first.runExclusively("test-migration",
+				() -> ranWhileHeld.set(second.runExclusively("test-migration", () -> {
+				})));
+
+		// Assert: the second node skipped it while the first held the lock, and gets it once released
+		assertTrue(ran);
+		assertFalse(ranWhileHeld.get());
+		assertTrue(second.runExclusively("test-migration", () -> {
+		}));
+	}
+
+	private ConfigurableApplicationContext startNode(String nodeId) {
+		// command line arguments, so they win over application.properties
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class).run(
+				"--server.port=0",
+				"--spring.data.mongodb.uri=" + mongo.getReplicaSetUrl("AirWiseDB"),
+				"--airwise.scheduler.node-id=" + nodeId,
+				"--airwise.scheduler.partitions=" + PARTITIONS,
+				"--airwise.scheduler.heartbeat-ms=200",
+				"--airwise.scheduler.lease-ttl-ms=1000",
+				"--airwise.commands.archive.dir=${java.io.tmpdir}/airwise-" + nodeId);
+		this.nodes.add(context);
+		return context;
+	}
+
+	private static SchedulerPartitions partitions(ConfigurableApplicationContext node) {
+		return node.getBean(SchedulerPartitions.class);
+	}
+
+	private static Set<Integer> owned(ConfigurableApplicationContext node) {
+		return partitions(node).getOwned();
+	}
+}
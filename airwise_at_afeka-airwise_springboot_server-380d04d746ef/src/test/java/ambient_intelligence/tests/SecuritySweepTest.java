@@ -0,0 +1,112 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.UserEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.logic.scheduling.MotionTarget;
+import ambient_intelligence.logic.scheduling.SecurityAlertService;
+
+/**
+ * The set-based lookups behind the security sweep and the pushed motion events.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class SecuritySweepTest extends TestHelper {
+
+	@Autowired
+	private SecurityAlertService securityAlertService;
+
+	private ObjectEntity aliceTenant;
+
+	@BeforeEach
+	public void setup() {
+		super.setup();
+		cleanup();
+
+		// alice: an away site with an active and an inactive room, and a site she is in
+		aliceTenant = saveTenant("alice@example.com", UserRole.END_USER);
+		ObjectEntity aliceAway = saveObject("Site", "Alice away", aliceTenant, Map.of("inSite", false));
+		ObjectEntity bedroom = saveObject("Room", "Bedroom", aliceAway);
+		saveObject("AirConditioner", "SN-ALICE-1", bedroom);
+		ObjectEntity closedRoom = saveObject("Room", "Closed", aliceAway);
+		closedRoom.setActive(false);
+		objectCrud.save(closedRoom);
+		saveObject("AirConditioner", "SN-ALICE-CLOSED", closedRoom);
+		ObjectEntity aliceHome = saveObject("Site", "Alice home", aliceTenant, Map.of("inSite", true));
+		saveObject("AirConditioner", "SN-ALICE-HOME", saveObject("Room", "Kitchen", aliceHome));
+
+		// bob: one away site
+		ObjectEntity bobTenant = saveTenant("bob@example.com", UserRole.END_USER);
+		ObjectEntity bobAway = saveObject("Site", "Bob away", bobTenant, Map.of("inSite", false));
+		saveObject("AirConditioner", "SN-BOB-1", saveObject("Room", "Office", bobAway));
+
+		// an operator's tenant is never swept
+		ObjectEntity operatorTenant = saveTenant("operator@example.com", UserRole.OPERATOR);
+		ObjectEntity operatorAway = saveObject("Site", "Lab", operatorTenant, Map.of("inSite", false));
+		saveObject("AirConditioner", "SN-OPERATOR-1", saveObject("Room", "Server room", operatorAway));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+	}
+
+	@Test
+	public void testSweepFindsActiveAcsOfAwaySitesOfEndUsers() {
+		// Act
+		List<MotionTarget> targets = securityAlertService.findAwayTargets(tenantId -> true);
+
+		// Assert
+		assertEquals(Map.of("SN-ALICE-1", "alice@example.com", "SN-BOB-1", "bob@example.com"), ownersBySerial(targets));
+		assertEquals(Set.of("Alice away", "Bob away"),
+				targets.stream().map(target -> target.site().getAlias()).collect(Collectors.toSet()));
+	}
+
+	@Test
+	public void testSweepOnlyCoversTheAcceptedTenants() {
+		// Act
+		List<MotionTarget> targets = securityAlertService.findAwayTargets(aliceTenant.getId()::equals);
+
+		// Assert
+		assertEquals(Map.of("SN-ALICE-1", "alice@example.com"), ownersBySerial(targets));
+	}
+
+	@Test
+	public void testPushedSerialsResolveToAwayTargetsOnly() {
+		// Act
+		List<MotionTarget> targets = securityAlertService.findAwayTargetsBySerials(List.of("SN-ALICE-1",
+				"SN-ALICE-CLOSED", "SN-ALICE-HOME", "SN-BOB-1", "SN-OPERATOR-1", "SN-UNKNOWN"));
+
+		// Assert
+		assertEquals(Map.of("SN-ALICE-1", "alice@example.com", "SN-BOB-1", "bob@example.com"), ownersBySerial(targets));
+	}
+
+	private Map<String, String> ownersBySerial(List<MotionTarget> targets) {
+		return targets.stream().collect(
+				Collectors.toMap(target -> target.ac().getAlias(), target -> target.user().getUserId().getEmail()));
+	}
+
+	private ObjectEntity saveTenant(String email, UserRole role) {
+		UserEntity user = new UserEntity();
+		user.setUserId(new UserId(systemID, email));
+		user.setRole(role);
+		user.setUsername(email);
+		user.setAvatar("avatar");
+		userCrud.save(user);
+
+		return saveObject("Tenant", email, null);
+	}
+}
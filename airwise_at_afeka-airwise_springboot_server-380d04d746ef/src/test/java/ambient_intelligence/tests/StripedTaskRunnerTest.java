@@ -0,0 +1,115 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import ambient_intelligence.logic.scheduling.StripedTaskRunner;
+
+/**
+ * The runner behind the scheduler tick: the tasks of one AC run one at a time in list order, the tasks
+ * of ACs on different lanes run at the same time.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"airwise.tasks.worker-lanes=" + StripedTaskRunnerTest.LANES })
+public class StripedTaskRunnerTest {
+
+	static final int LANES = 4;
+
+	@Autowired
+	private StripedTaskRunner taskRunner;
+
+	@Test
+	public void testTasksOfOneAcRunInOrderWithoutOverlapping() {
+		// Arrange
+		List<Integer> items = IntStream.range(0, 20).boxed().toList();
+		List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger mostRunning = new AtomicInteger();
+
+		// Act
+		taskRunner.runAll(items, item -> "ac-1", item -> {
+			mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			sleep(5);
+			ran.add(item);
+			running.decrementAndGet();
+		});
+
+		// Assert
+		assertEquals(items, ran);
+		assertEquals(1, mostRunning.get());
+	}
+
+	@Test
+	public void testTasksOfDifferentAcsRunInParallel() {
+		// Arrange: one AC per lane, each task waits until every AC has started one
+		List<String> acs = acsOnDifferentLanes();
+		CountDownLatch allStarted = new CountDownLatch(acs.size());
+		List<Boolean> metTheOthers = Collections.synchronizedList(new ArrayList<>());
+
+		// Act: run one after another, the first task would wait out the timeout alone
+		taskRunner.runAll(acs, ac -> ac, ac -> {
+			allStarted.countDown();
+			try {
+				metTheOthers.add(allStarted.await(5, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		// Assert
+		assertEquals(acs.size(), metTheOthers.size());
+		assertTrue(metTheOthers.stream().allMatch(Boolean::booleanValue));
+	}
+
+	@Test
+	public void testAFailingTaskDoesNotStopTheRestOfItsAc() {
+		// Arrange
+		List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+
+		// Act
+		taskRunner.runAll(List.of(1, 2, 3), item -> "ac-1", item -> {
+			if (item == 2) {
+				throw new IllegalStateException("AC unreachable");
+			}
+			ran.add(item);
+		});
+
+		// Assert
+		assertEquals(List.of(1, 3), ran);
+	}
+
+	// one AC key per lane, picked the way the runner stripes them
+	private static List<String> acsOnDifferentLanes() {
+		List<String> acs = new ArrayList<>();
+		boolean[] taken = new boolean[LANES];
+		for (int i = 0; acs.size() < LANES; i++) {
+			String ac = "ac-" + i;
+			int lane = Math.floorMod(ac.hashCode(), LANES);
+			if (!taken[lane]) {
+				taken[lane] = true;
+				acs.add(ac);
+			}
+		}
+		return acs;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
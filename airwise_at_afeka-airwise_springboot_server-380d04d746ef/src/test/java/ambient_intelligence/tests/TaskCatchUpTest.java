@@ -0,0 +1,149 @@
+package ambient_intelligence.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import ambient_intelligence.data.CommandEntity;
+import ambient_intelligence.data.ObjectEntity;
+import ambient_intelligence.data.UserEntity;
+import ambient_intelligence.data.UserRole;
+import ambient_intelligence.logic.CommandsServiceImpl;
+import ambient_intelligence.logic.NotificationService;
+import ambient_intelligence.logic.boundaries.UserId;
+import ambient_intelligence.logic.scheduling.ScheduledTaskIndex;
+import ambient_intelligence.logic.scheduling.SchedulerPartitions;
+import ambient_intelligence.logic.scheduling.StripedTaskRunner;
+import ambient_intelligence.logic.scheduling.TaskSchedulerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Catching up on missed minutes. Each tick here is the first tick of a freshly started scheduler, so it
+ * looks back the whole grace period. The context's own scheduler owns no partition and stays out of it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"airwise.tasks.catch-up-grace-minutes=" + TaskCatchUpTest.GRACE_MINUTES })
+public class TaskCatchUpTest extends TestHelper {
+
+	static final int GRACE_MINUTES = 10;
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+	private final String tenantEmail = "tenant@example.com";
+
+	@MockitoBean
+	private SchedulerPartitions contextPartitions;
+
+	@MockitoBean
+	private CommandsServiceImpl commandsService;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private ScheduledTaskIndex taskIndex;
+
+	@Autowired
+	private StripedTaskRunner taskRunner;
+
+	private ObjectEntity ac;
+
+	@BeforeEach
+	public void setup() {
+		cleanup();
+
+		UserEntity tenantUser = new UserEntity();
+		tenantUser.setUserId(new UserId(systemID, tenantEmail));
+		tenantUser.setRole(UserRole.END_USER);
+		tenantUser.setUsername("Tenant");
+		tenantUser.setAvatar("avatar");
+		this.userCrud.save(tenantUser);
+
+		ObjectEntity tenant = saveObject("Tenant", tenantEmail, null);
+		ObjectEntity site = saveObject("Site", "Home", tenant);
+		ObjectEntity room = saveObject("Room", "Living room", site);
+		ac = saveObject("AirConditioner", "SN-1", room);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		cleanup();
+	}
+
+	@Test
+	public void testMissedMinutesRunOnceWithinTheGracePeriodOnly() {
+		// Arrange
+		LocalTime now = LocalTime.now();
+		ObjectEntity missed = task("TURN_ON", now.minusMinutes(3), now.plusMinutes(30));
+		ObjectEntity tooOld = task("TURN_OFF", now.minusMinutes(GRACE_MINUTES + 10), null);
+		SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+		// Act
+		startedScheduler(meters).runScheduledTasks();
+
+		// Assert: the missed start ran late, the one before the grace period did not run
+		verify(commandsService, times(1)).updateAcStateViaCommand(any(CommandEntity.class), any(ObjectEntity.class));
+		assertEquals(1.0, meters.counter("airwise.tasks.executed").count());
+		assertEquals(1.0, meters.counter("airwise.tasks.executed.late").count());
+		assertNotNull(objectCrud.findById(missed.getId()).orElseThrow().getObjectDetails().get("lastExecution"));
+		assertNull(objectCrud.findById(tooOld.getId()).orElseThrow().getObjectDetails().get("lastExecution"));
+	}
+
+	@Test
+	public void testLastExecutionKeepsARestartFromRunningATaskTwice() {
+		// Arrange: a TURN_ON task stays SCHEDULED after its start, so only lastExecution tells it ran
+		LocalTime now = LocalTime.now();
+		task("TURN_ON", now.minusMinutes(3), now.plusMinutes(30));
+		startedScheduler(new SimpleMeterRegistry()).runScheduledTasks();
+		SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+		// Act: restarted within the grace period, the same start is still in its window
+		startedScheduler(meters).runScheduledTasks();
+
+		// Assert
+		verify(commandsService, times(1)).updateAcStateViaCommand(any(CommandEntity.class), any(ObjectEntity.class));
+		assertEquals(0.0, meters.counter("airwise.tasks.executed").count());
+		assertEquals(0.0, meters.counter("airwise.tasks.executed.late").count());
+	}
+
+	// a scheduler as after a restart, that owns every partition
+	private TaskSchedulerService startedScheduler(SimpleMeterRegistry meters) {
+		SchedulerPartitions partitions = mock(SchedulerPartitions.class);
+		when(partitions.owns(anyString())).thenReturn(true);
+		return new TaskSchedulerService(objectCrud, commandsService, userCrud, notificationService, taskIndex,
+				partitions, taskRunner, meters, GRACE_MINUTES);
+	}
+
+	private ObjectEntity task(String action, LocalTime startTime, LocalTime endTime) {
+		Map<String, Object> details = new HashMap<>(Map.of("action", action, "startTime",
+				startTime.format(TIME_FORMAT), "repeat", "EVERY_DAY", "temperature", 24, "mode", "COOL",
+				"fanSpeed", "AUTO"));
+		if (endTime != null) {
+			details.put("endTime", endTime.format(TIME_FORMAT));
+		}
+
+		ObjectEntity task = saveObject("Task", action + " at " + details.get("startTime"), ac);
+		task.setStatus("SCHEDULED");
+		task.setObjectDetails(details);
+		task = objectCrud.save(task);
+		taskIndex.put(task);
+		return task;
+	}
+}
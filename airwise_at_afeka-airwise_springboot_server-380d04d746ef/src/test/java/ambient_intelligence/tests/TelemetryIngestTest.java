@@ -0,0 +1,154 @@
+package ambient_intelligence.tests;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import ambient_intelligence.logic.boundaries.TelemetryBatch;
+import ambient_intelligence.logic.boundaries.TelemetryEvent;
+import ambient_intelligence.logic.boundaries.TelemetryIngestResult;
+import ambient_intelligence.logic.exceptions.UnauthorizedException;
+import ambient_intelligence.logic.scheduling.SecurityAlertService;
+import ambient_intelligence.logic.scheduling.TelemetryIngestService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * POST /telemetry/events with a two-event queue. The consumer is held inside the (mocked) alert
+ * lookup, so whatever the endpoint queues stays in the queue.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"airwise.telemetry.ingest-token=test-token",
+		"airwise.telemetry.queue-capacity=2",
+		"airwise.telemetry.drain-batch-size=1" })
+public class TelemetryIngestTest {
+
+	private static final String TOKEN = "test-token";
+
+	@LocalServerPort
+	private int port;
+
+	@MockitoBean
+	private SecurityAlertService securityAlertService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private WebTestClient webTestClient;
+	private CountDownLatch consumerBusy;
+	private CountDownLatch releaseConsumer;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		this.webTestClient = WebTestClient.bindToServer()
+				.baseUrl("http://localhost:" + port + "/ambient-intelligence").build();
+
+		// events left over by the previous test are consumed first
+		await().atMost(Duration.ofSeconds(10)).until(() -> queueDepth() == 0);
+
+		this.consumerBusy = new CountDownLatch(1);
+		this.releaseConsumer = new CountDownLatch(1);
+		CountDownLatch busy = this.consumerBusy;
+		CountDownLatch release = this.releaseConsumer;
+		when(securityAlertService.findAwayTargetsBySerials(any())).thenAnswer(invocation -> {
+			busy.countDown();
+			release.await(30, TimeUnit.SECONDS);
+			return List.of();
+		});
+
+		// Arrange: the consumer takes one motion event and stays busy with it
+		push(TOKEN, batch(1)).expectStatus().isAccepted();
+		assertTrue(this.consumerBusy.await(10, TimeUnit.SECONDS));
+		assertEquals(0, queueDepth());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.releaseConsumer.countDown();
+	}
+
+	@Test
+	public void testPushWithoutTheTokenIsRejected() {
+		push(null, batch(1)).expectStatus().isUnauthorized();
+		push("wrong-token", batch(1)).expectStatus().isUnauthorized();
+		assertEquals(0, queueDepth());
+	}
+
+	@Test
+	public void testBatchWithABadEventIsRejectedAsAWhole() {
+		// Arrange: two good events, then one without a serial
+		TelemetryBatch batch = batch(3);
+		batch.getEvents().get(2).setSerial(" ");
+
+		// Act + Assert: nothing of it was queued
+		push(TOKEN, batch).expectStatus().isBadRequest();
+		assertEquals(0, queueDepth());
+	}
+
+	@Test
+	public void testEventsBeyondQueueCapacityAreDropped() {
+		// Act
+		TelemetryIngestResult result = push(TOKEN, batch(4)).expectStatus().isAccepted()
+				.expectBody(TelemetryIngestResult.class).returnResult().getResponseBody();
+
+		// Assert
+		assertEquals(2, result.getAccepted());
+		assertEquals(2, result.getDropped());
+		assertEquals(2, queueDepth());
+		assertEquals(2, meterRegistry.get("airwise.telemetry.events.dropped").counter().count());
+	}
+
+	@Test
+	public void testWithoutAConfiguredTokenEveryPushIsRejected() {
+		TelemetryIngestService closed = new TelemetryIngestService(securityAlertService, new SimpleMeterRegistry(),
+				"", 10, 10);
+		assertThrows(UnauthorizedException.class, () -> closed.ingest(null, batch(1)));
+		assertThrows(UnauthorizedException.class, () -> closed.ingest("", batch(1)));
+	}
+
+	private WebTestClient.ResponseSpec push(String token, TelemetryBatch batch) {
+		return webTestClient.post().uri("/telemetry/events").contentType(MediaType.APPLICATION_JSON)
+				.headers(headers -> {
+					if (token != null) {
+						headers.set("X-Ingest-Token", token);
+					}
+				}).bodyValue(batch).exchange();
+	}
+
+	private double queueDepth() {
+		return meterRegistry.get("airwise.telemetry.queue.depth").gauge().value();
+	}
+
+	private static TelemetryBatch batch(int size) {
+		List<TelemetryEvent> events = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			TelemetryEvent event = new TelemetryEvent();
+			event.setSerial("SN-" + i);
+			event.setMotion(true);
+			events.add(event);
+		}
+
+		TelemetryBatch batch = new TelemetryBatch();
+		batch.setEvents(events);
+		return batch;
+	}
+}
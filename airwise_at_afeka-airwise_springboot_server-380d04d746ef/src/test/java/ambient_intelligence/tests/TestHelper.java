@@ -1,24 +1,33 @@
 package ambient_intelligence.tests;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import ambient_intelligence.dal.CommandCrud;
 import ambient_intelligence.dal.ObjectCrud;
 import ambient_intelligence.dal.UserCrud;
+import ambient_intelligence.data.ObjectEntity;
 import ambient_intelligence.data.UserRole;
 import ambient_intelligence.logic.boundaries.CreatedBy;
 import ambient_intelligence.logic.boundaries.NewUserBoundary;
 import ambient_intelligence.logic.boundaries.ObjectBoundary;
 import ambient_intelligence.logic.boundaries.ObjectId;
+import ambient_intelligence.utils.AirwiseConfig;
 
 public class TestHelper {
 
-    private final int port = 8084;
+    // the port of the running context: 8084 for DEFINED_PORT tests, the chosen one for RANDOM_PORT tests
+    @Value("${local.server.port:8084}")
+    private int port;
     protected final String systemID = "2025b.Avital.Vissoky";
     protected WebTestClient webTestClient;
 
@@ -66,4 +75,34 @@ public class TestHelper {
         return webTestClient.post().uri("/objects").contentType(MediaType.APPLICATION_JSON).bodyValue(object).exchange()
                 .expectStatus().isOk().expectBody(ObjectBoundary.class).returnResult().getResponseBody();
     }
-}
\ No newline at end of file
+
+    // an object stored straight in the database, created by the operator, under its parent's ancestors path;
+    // ACs are switched off and their alias is their serial
+    public ObjectEntity saveObject(String type, String alias, ObjectEntity parent) {
+        return saveObject(type, alias, parent, Map.of());
+    }
+
+    public ObjectEntity saveObject(String type, String alias, ObjectEntity parent, Map<String, Object> details) {
+        boolean ac = "AirConditioner".equals(type);
+
+        ObjectEntity object = new ObjectEntity();
+        object.setId(systemID + AirwiseConfig.getIdSeparator() + UUID.randomUUID());
+        object.setType(type);
+        object.setAlias(alias);
+        object.setStatus(ac ? "TURN_OFF" : "ACTIVE");
+        object.setActive(true);
+        object.setCreationTimestamp(new Date());
+        object.setCreatedBy(new CreatedBy(systemID, "operator@example.com"));
+        object.setObjectDetails(new HashMap<>(details));
+        if (ac) {
+            object.getObjectDetails().putIfAbsent("serial", alias);
+        }
+        if (parent != null) {
+            List<String> ancestors = new ArrayList<>(parent.getAncestors());
+            ancestors.add(parent.getId());
+            object.setParentId(parent.getId());
+            object.setAncestors(ancestors);
+        }
+        return this.objectCrud.save(object);
+    }
+}